@@ -0,0 +1,334 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>AnimationPulse.java</b>: provides the built-in animation core, a
+ * single pulse driving every running animation.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import javax.swing.Timer;
+
+/**
+ * Provides the built-in animation core. Instead of a timer per animation, as
+ * in the Timing Framework, there is a single Swing timer for the whole
+ * application, the pulse, which drives every running animation on the event
+ * dispatch thread. The fraction of each animation is calculated from the time
+ * elapsed since it started, measured through <code>System.nanoTime()</code>,
+ * so a late pulse never stretches an animation. The pulse is only running
+ * while there are running animations.
+ *
+ * When the event dispatch thread is busy, pulses arrive late. Pending pulses
+ * are coalesced into a single one, and each animation jumps straight to the
+ * fraction matching the current time, so stale intermediate frames are
+ * skipped instead of being replayed, and the show and close effects always
+ * end on schedule. Each animation may also cap its own frame rate, and the
+ * frame rate actually delivered is available through Animation#getFrameRate().
+ * The interval between pulses is fed to a <b>net.sf.jcarrierpigeon.LoadGovernor</b>
+ * object, which lowers the animation quality when the pulses fall behind.
+ *
+ * Animations may be started and cancelled from any thread. New animations are
+ * handed over to the pulse through a small incoming list, and cancelled ones
+ * are only flagged and dropped on the next pulse, so the callbacks are never
+ * called while holding a lock, and no object is allocated per frame: the
+ * only allocations are the events of the Swing timer, once per pulse, no
+ * matter how many animations are running.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+final class AnimationPulse implements ActionListener {
+
+    // the default interval between pulses in milliseconds, the very
+    // same default resolution of the Timing Framework
+    private static final int RESOLUTION = 20;
+
+    // the shared instance, created on demand
+    private static AnimationPulse instance;
+
+    // the timer behind the pulse
+    private final Timer timer;
+    // animations handed over by other threads
+    private final Object lock = new Object();
+    private PulseAnimation[] incoming;
+    private int incomingCount;
+    // running animations, only touched by the pulse
+    private PulseAnimation[] active;
+    private int activeCount;
+    // the load governor and the time of the last pulse,
+    // or 0 if the pulse was idle
+    private final LoadGovernor governor;
+    private long lastPulse;
+
+    /**
+     * Constructor method. Nothing new here, just instantiate
+     * the local attributes.
+     */
+    private AnimationPulse() {
+        timer = new Timer(RESOLUTION, this);
+        timer.setInitialDelay(RESOLUTION);
+        timer.setCoalesce(true);
+        incoming = new PulseAnimation[16];
+        incomingCount = 0;
+        active = new PulseAnimation[16];
+        activeCount = 0;
+        governor = new LoadGovernor();
+        lastPulse = 0;
+    }
+
+    /**
+     * Gets the shared pulse.
+     * @return The shared pulse.
+     */
+    static synchronized AnimationPulse getInstance() {
+        if (instance == null) {
+            instance = new AnimationPulse();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the load governor fed by this pulse.
+     * @return The load governor.
+     */
+    LoadGovernor getLoadGovernor() {
+        return governor;
+    }
+
+    /**
+     * Starts a new animation. The target is notified of the beginning right
+     * away and the first frame comes with the next pulse, or one frame
+     * interval later if the frame rate is capped.
+     * @param duration The animation duration in milliseconds.
+     * @param startFraction The fraction the animation starts from.
+     * @param frameRate The maximum number of frames per second, or 0 for
+     * no limit.
+     * @param target The target of the animation.
+     * @return The running animation.
+     */
+    Animation start(int duration, float startFraction, int frameRate, TimingTarget target) {
+        PulseAnimation animation = new PulseAnimation(duration, startFraction, frameRate, target);
+        target.begin();
+        synchronized (lock) {
+            if (incomingCount == incoming.length) {
+                PulseAnimation[] grown = new PulseAnimation[incomingCount * 2];
+                System.arraycopy(incoming, 0, grown, 0, incomingCount);
+                incoming = grown;
+            }
+            incoming[incomingCount++] = animation;
+        }
+        if (!timer.isRunning()) {
+            timer.start();
+        }
+        return animation;
+    }
+
+    /**
+     * Implements the <code>ActionListener</code> for our timer. It calculates
+     * the fraction of each running animation and notifies its target.
+     * @param e The event.
+     */
+    public void actionPerformed(ActionEvent e) {
+
+        // take the new animations
+        drainIncoming();
+
+        // feed the load governor
+        long now = System.nanoTime();
+        if (lastPulse != 0) {
+            governor.record(now, now - lastPulse);
+        }
+        lastPulse = now;
+
+        // animate
+        int i = 0;
+        while (i < activeCount) {
+            PulseAnimation animation = active[i];
+            if ((!animation.running) || (animation.pulse(now))) {
+
+                // the animation is done, so drop it
+                activeCount--;
+                active[i] = active[activeCount];
+                active[activeCount] = null;
+            } else {
+                i++;
+            }
+        }
+
+        // stop the pulse if there is nothing else to do
+        if (activeCount == 0) {
+            synchronized (lock) {
+                if (incomingCount == 0) {
+                    timer.stop();
+                    governor.idle(now);
+                    lastPulse = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the animations handed over by other threads into the running ones.
+     */
+    private void drainIncoming() {
+        synchronized (lock) {
+            if (activeCount + incomingCount > active.length) {
+                PulseAnimation[] grown = new PulseAnimation[Math.max(active.length * 2, activeCount + incomingCount)];
+                System.arraycopy(active, 0, grown, 0, activeCount);
+                active = grown;
+            }
+            for (int i = 0; i < incomingCount; i++) {
+                active[activeCount++] = incoming[i];
+                incoming[i] = null;
+            }
+            incomingCount = 0;
+        }
+    }
+
+    /**
+     * An animation driven by the pulse.
+     */
+    private static final class PulseAnimation implements Animation {
+
+        private final long startTime;
+        private final long durationNanos;
+        private final float startFraction;
+        private final TimingTarget target;
+        // minimum interval between frames in nanoseconds, and the
+        // slot of the last frame delivered, the first slot being
+        // the start itself
+        private final long frameNanos;
+        private long lastSlot;
+        volatile boolean running;
+        private volatile float fraction;
+        // frames delivered, and when the animation stopped
+        private volatile int frames;
+        private volatile long stopTime;
+
+        PulseAnimation(int duration, float startFraction, int frameRate, TimingTarget target) {
+            this.startTime = System.nanoTime();
+            this.durationNanos = Math.max(0, duration) * 1000000L;
+            this.startFraction = startFraction;
+            this.target = target;
+            this.frameNanos = (frameRate > 0) ? (1000000000L / frameRate) : 0;
+            this.lastSlot = 0;
+            this.running = true;
+            this.fraction = startFraction;
+            this.frames = 0;
+            this.stopTime = 0;
+        }
+
+        /**
+         * Delivers a frame, unless the frame rate cap says it is too early.
+         * The last frame is always delivered.
+         * @param now The current time in nanoseconds.
+         * @return <code>true</code> if the animation is done, or <code>false</code>
+         * otherwise.
+         */
+        boolean pulse(long now) {
+            long elapsed = now - startTime;
+            float value = 1;
+            if (durationNanos > 0) {
+                value = Math.min(1, startFraction + ((float) elapsed / durationNanos));
+            }
+
+            // one frame per slot when the frame rate is capped
+            if ((frameNanos > 0) && (value < 1)) {
+                long slot = elapsed / frameNanos;
+                if (slot == lastSlot) {
+                    return false;
+                }
+                lastSlot = slot;
+            }
+
+            // deliver the frame
+            fraction = value;
+            frames++;
+            target.timingEvent(value);
+            if (value >= 1) {
+                stop(now);
+                target.end();
+                return true;
+            }
+            return !running;
+        }
+
+        /**
+         * Stops the animation, recording when it happened.
+         * @param now The current time in nanoseconds.
+         */
+        private void stop(long now) {
+            if (running) {
+                stopTime = now;
+                running = false;
+            }
+        }
+
+        public boolean isRunning() {
+            return running;
+        }
+
+        public void cancel() {
+            stop(System.nanoTime());
+        }
+
+        public float getTimingFraction() {
+            return fraction;
+        }
+
+        public float getFrameRate() {
+            long end = running ? System.nanoTime() : stopTime;
+            long elapsed = end - startTime;
+            if (elapsed <= 0) {
+                return 0;
+            }
+            return frames * 1000000000f / elapsed;
+        }
+    }
+}
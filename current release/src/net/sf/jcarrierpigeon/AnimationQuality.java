@@ -0,0 +1,87 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>AnimationQuality.java</b>: provides an enumeration for the quality of
+ * the notification animations, which is lowered step by step under load.
+ */
+
+package net.sf.jcarrierpigeon;
+
+/**
+ * Provides an enumeration for the quality of the notification animations.
+ * <b>net.sf.jcarrierpigeon.LoadGovernor</b> lowers the quality one step at a
+ * time while the event dispatch thread is overloaded, and raises it back when
+ * the load drops. This enumeration basically consists on five states, from
+ * the best to the cheapest one, defined later on the documentation.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public enum AnimationQuality {
+    /**
+     * Animations run at the frame rate set for each notification.
+     */
+    FULL,
+    /**
+     * Animations run at a reduced frame rate, taking the same time.
+     */
+    REDUCED,
+    /**
+     * Windows fade in and out instead of sliding, so they are moved only
+     * once. If translucency is not supported, they are placed instantly.
+     */
+    FADE,
+    /**
+     * Windows are placed instantly, with no show and close effects.
+     */
+    INSTANT,
+    /**
+     * Windows are placed instantly and barely touched while displayed,
+     * so notifications cost almost nothing on the event dispatch thread.
+     */
+    SUPPRESSED
+}
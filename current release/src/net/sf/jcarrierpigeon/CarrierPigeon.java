@@ -46,18 +46,23 @@
  *
  * <b>CarrierPigeon.java</b>: provides the notification features to any
  * <code>javax.swing.JFrame</code> or <code>javax.swing.JWindow</code>
- * object. Please note that this class is marked as deprecated since
- * version 1.3 of JCarrierPigeon.
+ * object, stacking them per screen corner and keeping the ones that do not
+ * fit on screen as models until space frees up. Please note that this class
+ * is marked as deprecated since version 1.3 of JCarrierPigeon.
  */
 
 package net.sf.jcarrierpigeon;
 
 import java.awt.GraphicsEnvironment;
 import java.awt.Rectangle;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
 import javax.swing.JWindow;
-import org.jdesktop.animation.timing.Animator;
-import org.jdesktop.animation.timing.TimingTarget;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
 
 /**
  * Provides the notification features to any <code>javax.swing.JFrame</code>
@@ -85,6 +90,12 @@ import org.jdesktop.animation.timing.TimingTarget;
  * queue.add(note);
  * @endcode
  * Wherever possible, please use the new classes instead of this one.
+ * <p>
+ * Notifications are stacked on their screen corner. Once a new notification
+ * would not fit in the visible height of its corner, it is kept as a model
+ * only: its window is neither shown nor animated, and a "+N more" indicator
+ * is displayed at the far end of the corner. Waiting notifications are shown
+ * in order, as windows of the same corner close and space frees up.
  * 
  * @author Paulo Roberto Massa Cereda
  * @version 1.3
@@ -93,18 +104,24 @@ import org.jdesktop.animation.timing.TimingTarget;
 @Deprecated
 public class CarrierPigeon implements TimingTarget {
 
-    // active windows control
+    // active windows control, guarded by the class lock
     private static int activeWindowsBR = 0;
     private static int activeWindowsBL = 0;
     private static int activeWindowsTR = 0;
     private static int activeWindowsTL = 0;
 
-    // payload control
+    // payload control, guarded by the class lock
     private static double payloadBR = 0;
     private static double payloadBL = 0;
     private static double payloadTR = 0;
     private static double payloadTL = 0;
 
+    // overflow control, notifications waiting for space and the
+    // indicators, one per corner, guarded by the class lock
+    private static final int INDICATOR_HEIGHT = 24;
+    private static final Map<WindowPosition, ArrayDeque<CarrierPigeon>> waiting = new EnumMap<WindowPosition, ArrayDeque<CarrierPigeon>>(WindowPosition.class);
+    private static final Map<WindowPosition, OverflowIndicator> indicators = new EnumMap<WindowPosition, OverflowIndicator>(WindowPosition.class);
+
     // current window info
     private double thisPayload = 0;
     private int thisWindowID;
@@ -128,9 +145,10 @@ public class CarrierPigeon implements TimingTarget {
 
     // animators, each one representing one state
     // on AnimationFrame class
-    private Animator animatorHandlerOnShow;
-    private Animator animatorHandlerOnDisplay;
-    private Animator animatorHandlerOnClose;
+    private Animation animatorHandlerOnShow;
+    private Animation animatorHandlerOnDisplay;
+    private Animation animatorHandlerOnClose;
+    private Scheduler scheduler = new SwingScheduler();
 
     // time in milliseconds to animate windows
     // on show and close events
@@ -200,28 +218,30 @@ public class CarrierPigeon implements TimingTarget {
 
         // second calculation: based on the window position and the provided
         // values, calculate positions on screen and the global payload for
-        // that specific region
-        switch (this.windowPosition) {
-            case BOTTOMRIGHT:
-                this.positionX = this.boundX - (this.thisWidth + this.borderX);
-                this.positionY = this.boundY - (this.thisHeight + this.borderY);
-                CarrierPigeon.payloadBR = CarrierPigeon.payloadBR + this.thisPayload;
-                break;
-            case BOTTOMLEFT:
-                this.positionX = this.borderX;
-                this.positionY = this.boundY - (this.thisHeight + this.borderY);
-                CarrierPigeon.payloadBL = CarrierPigeon.payloadBL + this.thisPayload;
-                break;
-            case TOPRIGHT:
-                this.positionX = this.boundX - (this.thisWidth + this.borderX);
-                this.positionY = this.borderY;
-                CarrierPigeon.payloadTR = CarrierPigeon.payloadTR + this.thisPayload;
-                break;
-            case TOPLEFT:
-                this.positionX = this.borderX;
-                this.positionY = this.borderY;
-                CarrierPigeon.payloadTL = CarrierPigeon.payloadTL + this.thisPayload;
-                break;
+        // that specific region, under the lock guarding the corners
+        synchronized (CarrierPigeon.class) {
+            switch (this.windowPosition) {
+                case BOTTOMRIGHT:
+                    this.positionX = this.boundX - (this.thisWidth + this.borderX);
+                    this.positionY = this.boundY - (this.thisHeight + this.borderY);
+                    CarrierPigeon.payloadBR = CarrierPigeon.payloadBR + this.thisPayload;
+                    break;
+                case BOTTOMLEFT:
+                    this.positionX = this.borderX;
+                    this.positionY = this.boundY - (this.thisHeight + this.borderY);
+                    CarrierPigeon.payloadBL = CarrierPigeon.payloadBL + this.thisPayload;
+                    break;
+                case TOPRIGHT:
+                    this.positionX = this.boundX - (this.thisWidth + this.borderX);
+                    this.positionY = this.borderY;
+                    CarrierPigeon.payloadTR = CarrierPigeon.payloadTR + this.thisPayload;
+                    break;
+                case TOPLEFT:
+                    this.positionX = this.borderX;
+                    this.positionY = this.borderY;
+                    CarrierPigeon.payloadTL = CarrierPigeon.payloadTL + this.thisPayload;
+                    break;
+            }
         }
     }
 
@@ -289,28 +309,30 @@ public class CarrierPigeon implements TimingTarget {
 
         // second calculation: based on the window position and the provided
         // values, calculate positions on screen and the global payload for
-        // that specific region
-        switch (this.windowPosition) {
-            case BOTTOMRIGHT:
-                this.positionX = this.boundX - (this.thisWidth + this.borderX);
-                this.positionY = this.boundY - (this.thisHeight + this.borderY);
-                CarrierPigeon.payloadBR = CarrierPigeon.payloadBR + this.thisPayload;
-                break;
-            case BOTTOMLEFT:
-                this.positionX = this.borderX;
-                this.positionY = this.boundY - (this.thisHeight + this.borderY);
-                CarrierPigeon.payloadBL = CarrierPigeon.payloadBL + this.thisPayload;
-                break;
-            case TOPRIGHT:
-                this.positionX = this.boundX - (this.thisWidth + this.borderX);
-                this.positionY = this.borderY;
-                CarrierPigeon.payloadTR = CarrierPigeon.payloadTR + this.thisPayload;
-                break;
-            case TOPLEFT:
-                this.positionX = this.borderX;
-                this.positionY = this.borderY;
-                CarrierPigeon.payloadTL = CarrierPigeon.payloadTL + this.thisPayload;
-                break;
+        // that specific region, under the lock guarding the corners
+        synchronized (CarrierPigeon.class) {
+            switch (this.windowPosition) {
+                case BOTTOMRIGHT:
+                    this.positionX = this.boundX - (this.thisWidth + this.borderX);
+                    this.positionY = this.boundY - (this.thisHeight + this.borderY);
+                    CarrierPigeon.payloadBR = CarrierPigeon.payloadBR + this.thisPayload;
+                    break;
+                case BOTTOMLEFT:
+                    this.positionX = this.borderX;
+                    this.positionY = this.boundY - (this.thisHeight + this.borderY);
+                    CarrierPigeon.payloadBL = CarrierPigeon.payloadBL + this.thisPayload;
+                    break;
+                case TOPRIGHT:
+                    this.positionX = this.boundX - (this.thisWidth + this.borderX);
+                    this.positionY = this.borderY;
+                    CarrierPigeon.payloadTR = CarrierPigeon.payloadTR + this.thisPayload;
+                    break;
+                case TOPLEFT:
+                    this.positionX = this.borderX;
+                    this.positionY = this.borderY;
+                    CarrierPigeon.payloadTL = CarrierPigeon.payloadTL + this.thisPayload;
+                    break;
+            }
         }
     }
 
@@ -437,7 +459,7 @@ public class CarrierPigeon implements TimingTarget {
     }
 
     /**
-     * Implements the <code>timingEvent</code> method from <code>org.jdesktop.animation.timing.TimingTarget</code>.
+     * Implements the <code>timingEvent</code> method from <code>net.sf.jcarrierpigeon.TimingTarget</code>.
      * Please don't call this function directly.
      * @param f The continnum interval referring to the animation.
      */
@@ -458,7 +480,7 @@ public class CarrierPigeon implements TimingTarget {
 
 
     /**
-     * Implements the <code>begin</code> method from <code>org.jdesktop.animation.timing.TimingTarget</code>.
+     * Implements the <code>begin</code> method from <code>net.sf.jcarrierpigeon.TimingTarget</code>.
      * This method is called before animation begins. Please don't call this function directly.
      */
     @Deprecated
@@ -467,7 +489,7 @@ public class CarrierPigeon implements TimingTarget {
     }
 
     /**
-     * Implements the <code>end</code> method from <code>org.jdesktop.animation.timing.TimingTarget</code>.
+     * Implements the <code>end</code> method from <code>net.sf.jcarrierpigeon.TimingTarget</code>.
      * This method is called after the animation finishes. Please don't call this function directly.
      */
     @Deprecated
@@ -476,28 +498,22 @@ public class CarrierPigeon implements TimingTarget {
         // checks if animation just finished the presenting state
         if (animationFrame == AnimationFrame.ONSHOW) {
 
-            // create a new animation handler
-            animatorHandlerOnDisplay = new Animator(duration, 1, Animator.RepeatBehavior.LOOP, this);
-
             // sets the current animation state
             animationFrame = AnimationFrame.ONDISPLAY;
 
-            // run it
-            animatorHandlerOnDisplay.start();
+            // create a new animation handler and run it
+            animatorHandlerOnDisplay = scheduler.startAnimation(duration, 0, 0, this);
         }
         else {
 
             // now checking if animation just finished displaying
             if (animationFrame == AnimationFrame.ONDISPLAY) {
 
-                // create a new animation handler
-                animatorHandlerOnClose = new Animator(timeToAnimate, 1, Animator.RepeatBehavior.LOOP, this);
-
                 // sets the current animation state
                 animationFrame = AnimationFrame.ONCLOSE;
 
-                // run it
-                animatorHandlerOnClose.start();
+                // create a new animation handler and run it
+                animatorHandlerOnClose = scheduler.startAnimation(timeToAnimate, 0, 0, this);
             }
             else {
 
@@ -505,74 +521,68 @@ public class CarrierPigeon implements TimingTarget {
                 setCurrentWindowVisible(false);
                 disposeCurrentWindow();
 
-                // now it's time to remove this notification from the pool
-                int thisActiveWindow = 0;
-
-                // check the window position
-                switch (windowPosition) {
-                    case BOTTOMRIGHT:
-                        CarrierPigeon.activeWindowsBR--;
-                        thisActiveWindow = CarrierPigeon.activeWindowsBR;
-                        break;
-                    case BOTTOMLEFT:
-                        CarrierPigeon.activeWindowsBL--;
-                        thisActiveWindow = CarrierPigeon.activeWindowsBL;
-                        break;
-                    case TOPRIGHT:
-                        CarrierPigeon.activeWindowsTR--;
-                        thisActiveWindow = CarrierPigeon.activeWindowsTR;
-                        break;
-                    case TOPLEFT:
-                        CarrierPigeon.activeWindowsTL--;
-                        thisActiveWindow = CarrierPigeon.activeWindowsTL;
-                        break;
-                }
-
-                // if there are other windows
-                if (thisActiveWindow > 1) {
+                // now it's time to remove this notification from the pool,
+                // under the lock guarding the corners
+                synchronized (CarrierPigeon.class) {
+                    int thisActiveWindow = 0;
 
-                    // remove a partial payload from the payload pool
+                    // check the window position
                     switch (windowPosition) {
                         case BOTTOMRIGHT:
-                            CarrierPigeon.payloadBR = CarrierPigeon.payloadBR - borderY + (thisPayload - thisHeight);
+                            CarrierPigeon.activeWindowsBR--;
+                            thisActiveWindow = CarrierPigeon.activeWindowsBR;
                             break;
                         case BOTTOMLEFT:
-                            CarrierPigeon.payloadBL = CarrierPigeon.payloadBL - borderY + (thisPayload - thisHeight);
+                            CarrierPigeon.activeWindowsBL--;
+                            thisActiveWindow = CarrierPigeon.activeWindowsBL;
                             break;
                         case TOPRIGHT:
-                            CarrierPigeon.payloadTR = CarrierPigeon.payloadTR - borderY + (thisPayload - thisHeight);
+                            CarrierPigeon.activeWindowsTR--;
+                            thisActiveWindow = CarrierPigeon.activeWindowsTR;
                             break;
                         case TOPLEFT:
-                            CarrierPigeon.payloadTL = CarrierPigeon.payloadTL - borderY + (thisPayload - thisHeight);
+                            CarrierPigeon.activeWindowsTL--;
+                            thisActiveWindow = CarrierPigeon.activeWindowsTL;
                             break;
                     }
 
-                } else {
+                    // if there are other windows
+                    if (thisActiveWindow > 1) {
+
+                        // remove a partial payload from the payload pool
+                        switch (windowPosition) {
+                            case BOTTOMRIGHT:
+                                CarrierPigeon.payloadBR = CarrierPigeon.payloadBR - borderY + (thisPayload - thisHeight);
+                                break;
+                            case BOTTOMLEFT:
+                                CarrierPigeon.payloadBL = CarrierPigeon.payloadBL - borderY + (thisPayload - thisHeight);
+                                break;
+                            case TOPRIGHT:
+                                CarrierPigeon.payloadTR = CarrierPigeon.payloadTR - borderY + (thisPayload - thisHeight);
+                                break;
+                            case TOPLEFT:
+                                CarrierPigeon.payloadTL = CarrierPigeon.payloadTL - borderY + (thisPayload - thisHeight);
+                                break;
+                        }
+
+                    } else {
+
+                        // this is the only window, so let's remove all the payload
+                        addPayload(windowPosition, -thisPayload);
 
-                    // this is the only window, so let's remove all the payload
-                    switch (windowPosition) {
-                        case BOTTOMRIGHT:
-                            CarrierPigeon.payloadBR = CarrierPigeon.payloadBR - thisPayload;
-                            break;
-                        case BOTTOMLEFT:
-                            CarrierPigeon.payloadBL = CarrierPigeon.payloadBL - thisPayload;
-                            break;
-                        case TOPRIGHT:
-                            CarrierPigeon.payloadTR = CarrierPigeon.payloadTR - thisPayload;
-                            break;
-                        case TOPLEFT:
-                            CarrierPigeon.payloadTL = CarrierPigeon.payloadTL - thisPayload;
-                            break;
                     }
-
                 }
+
+                // space just freed up, so show the notifications waiting
+                // for it, if any
+                materialize(windowPosition);
             }
         }
 
     }
 
     /**
-     * Implements the <code>repeat</code> method from <code>org.jdesktop.animation.timing.TimingTarget</code>.
+     * Implements the <code>repeat</code> method from <code>net.sf.jcarrierpigeon.TimingTarget</code>.
      * This function is called on every animation repetition. Please don't call this function directly.
      */
     @Deprecated
@@ -591,7 +601,34 @@ public class CarrierPigeon implements TimingTarget {
      * @endcode
      */
     @Deprecated
-    public synchronized void animate() {
+    public void animate() {
+
+        // a window that would not fit on screen is kept as a model only,
+        // and so is any window arriving while others are already waiting
+        synchronized (CarrierPigeon.class) {
+            ArrayDeque<CarrierPigeon> queue = waiting.get(windowPosition);
+            if (((queue != null) && (!queue.isEmpty())) || (!fits(windowPosition, boundY))) {
+                if (queue == null) {
+                    queue = new ArrayDeque<CarrierPigeon>();
+                    waiting.put(windowPosition, queue);
+                }
+                addPayload(windowPosition, -thisPayload);
+                queue.add(this);
+                updateIndicator(windowPosition, queue.size(), thisWidth, borderX, boundX, boundY);
+                return;
+            }
+            register();
+        }
+        display();
+    }
+
+    /**
+     * Shows the window and starts its animation. It's the body of #animate()
+     * for a window that fits on screen, once added to the pool of its
+     * corner through #register().
+     */
+    @Deprecated
+    private synchronized void display() {
 
         // set the animation state
         animationFrame = AnimationFrame.ONSHOW;
@@ -600,6 +637,35 @@ public class CarrierPigeon implements TimingTarget {
         setCurrentWindowAlwaysOnTop(true);
         setCurrentWindowVisible(true);
 
+        // if there are other windows
+        if (thisWindowID > 1) {
+
+            // the recalculate all positions
+            recalculate();
+
+            // define a new position based on the X axis
+            setCurrentWindowBounds(calculateCurrentPositionOnX(0), (int) positionY, thisWidth, thisHeight);
+        } else {
+
+            // there's only one window, so just define its new
+            // position based on the Y axis
+            setCurrentWindowBounds((int) positionX, calculateCurrentPositionOnY(0), thisWidth, thisHeight);
+        }
+
+        // defines the first animator handler through the
+        // scheduler and start animation
+        animatorHandlerOnShow = scheduler.startAnimation(timeToAnimate, 0, 0, this);
+    }
+
+    /**
+     * Adds this window to the pool of its corner, taking the payload of the
+     * windows already there. Called with the class lock held, right after
+     * checking that the window fits, so no other window takes its place in
+     * the meantime.
+     */
+    @Deprecated
+    private void register() {
+
         // checks the window position and sets a new window to the pool
         switch (windowPosition) {
             case BOTTOMRIGHT:
@@ -620,10 +686,6 @@ public class CarrierPigeon implements TimingTarget {
                 break;
         }
 
-        // defines the animator handler from Timing Framework
-        // first animator handler
-        animatorHandlerOnShow = new Animator(timeToAnimate, 1, Animator.RepeatBehavior.LOOP, this);
-
         // if there are other windows
         if (thisWindowID > 1) {
 
@@ -642,31 +704,156 @@ public class CarrierPigeon implements TimingTarget {
                     borderY = CarrierPigeon.payloadTL - thisHeight;
                     break;
             }
+        }
+    }
 
-            // the recalculate all positions
-            recalculate();
+    /**
+     * Checks if the most recent window of a corner fits on screen. The payload
+     * of the corner already includes that window, and the first window of a
+     * corner is always shown, even if it's taller than the screen. The far
+     * end of the corner is kept for the overflow indicator.
+     * @param position The corner.
+     * @param bound The screen height.
+     * @return <code>true</code> if the window fits, or <code>false</code>
+     * otherwise.
+     */
+    @Deprecated
+    private static boolean fits(WindowPosition position, double bound) {
+        double payload = 0;
+        int active = 0;
+        switch (position) {
+            case BOTTOMRIGHT:
+                payload = CarrierPigeon.payloadBR;
+                active = CarrierPigeon.activeWindowsBR;
+                break;
+            case BOTTOMLEFT:
+                payload = CarrierPigeon.payloadBL;
+                active = CarrierPigeon.activeWindowsBL;
+                break;
+            case TOPRIGHT:
+                payload = CarrierPigeon.payloadTR;
+                active = CarrierPigeon.activeWindowsTR;
+                break;
+            case TOPLEFT:
+                payload = CarrierPigeon.payloadTL;
+                active = CarrierPigeon.activeWindowsTL;
+                break;
+        }
+        return (active == 0) || (payload <= bound - INDICATOR_HEIGHT);
+    }
 
-            // define a new position based on the X axis
-            setCurrentWindowBounds(calculateCurrentPositionOnX(0), (int) positionY, thisWidth, thisHeight);
-        } else {
+    /**
+     * Adds a value to the payload of a corner.
+     * @param position The corner.
+     * @param value The value to add, negative to remove.
+     */
+    @Deprecated
+    private static void addPayload(WindowPosition position, double value) {
+        switch (position) {
+            case BOTTOMRIGHT:
+                CarrierPigeon.payloadBR = CarrierPigeon.payloadBR + value;
+                break;
+            case BOTTOMLEFT:
+                CarrierPigeon.payloadBL = CarrierPigeon.payloadBL + value;
+                break;
+            case TOPRIGHT:
+                CarrierPigeon.payloadTR = CarrierPigeon.payloadTR + value;
+                break;
+            case TOPLEFT:
+                CarrierPigeon.payloadTL = CarrierPigeon.payloadTL + value;
+                break;
+        }
+    }
 
-            // there's only one window, so just define its new
-            // position based on the Y axis
-            setCurrentWindowBounds((int) positionX, calculateCurrentPositionOnY(0), thisWidth, thisHeight);
+    /**
+     * Shows, in order, the waiting notifications of a corner that now fit on
+     * screen. Called after a window of that corner closes.
+     * @param position The corner.
+     */
+    @Deprecated
+    private static void materialize(WindowPosition position) {
+        while (true) {
+            CarrierPigeon next;
+            synchronized (CarrierPigeon.class) {
+                ArrayDeque<CarrierPigeon> queue = waiting.get(position);
+                if ((queue == null) || (queue.isEmpty())) {
+                    return;
+                }
+                next = queue.peek();
+
+                // the payload goes back in before checking, as it was
+                // when the window was first animated
+                addPayload(position, next.thisPayload);
+                if (!fits(position, next.boundY)) {
+                    addPayload(position, -next.thisPayload);
+                    return;
+                }
+                queue.poll();
+                next.register();
+                updateIndicator(position, queue.size(), next.thisWidth, next.borderX, next.boundX, next.boundY);
+            }
+            next.display();
         }
+    }
+
+    /**
+     * Gets the number of notifications of a corner kept as models, waiting
+     * for space on screen. Check the following example:
+     * @code
+     * int hidden = CarrierPigeon.getOverflowCount(WindowPosition.BOTTOMRIGHT);
+     * @endcode
+     * @param position The corner.
+     * @return The number of waiting notifications.
+     */
+    @Deprecated
+    public static synchronized int getOverflowCount(WindowPosition position) {
+        ArrayDeque<CarrierPigeon> queue = waiting.get(position);
+        return queue == null ? 0 : queue.size();
+    }
 
-        // start animation
-        animatorHandlerOnShow.start();
+    /**
+     * Updates the "+N more" indicator of a corner on the event dispatch
+     * thread, hiding it when there are no waiting notifications. Called
+     * while holding the class lock.
+     * @param position The corner.
+     * @param count The number of waiting notifications.
+     * @param width The indicator width, the one of the waiting window.
+     * @param borderX The distance from the X axis border.
+     * @param boundX The screen width.
+     * @param boundY The screen height.
+     */
+    @Deprecated
+    private static void updateIndicator(WindowPosition position, final int count, int width, double borderX, double boundX, double boundY) {
+        OverflowIndicator indicator = indicators.get(position);
+        if (indicator == null) {
+            if (count == 0) {
+                return;
+            }
+            indicator = new OverflowIndicator(position, width, borderX, boundX, boundY);
+            indicators.put(position, indicator);
+        }
+        final OverflowIndicator target = indicator;
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                target.show(count);
+            }
+        });
     }
 
     /**
      * Checks if the notification process is still running. It basically calls the
-     * <code>isRunning</code> method from <code>org.jdesktop.animation.timing.Animator</code>.
+     * <code>isRunning</code> method of the first animator.
      * @return <code>true</code> if the notification is still running, or <code>false</code>
      * otherwise.
      */
     @Deprecated
     public boolean isRunning() {
+        synchronized (CarrierPigeon.class) {
+            ArrayDeque<CarrierPigeon> queue = waiting.get(windowPosition);
+            if ((queue != null) && (queue.contains(this))) {
+                return true;
+            }
+        }
         return animatorHandlerOnShow.isRunning();
     }
 
@@ -809,4 +996,74 @@ public class CarrierPigeon implements TimingTarget {
         setAnimationSpeed(milliseconds);
     }
 
+    /**
+     * The "+N more" indicator of a corner, a small window at the far end of
+     * the corner, kept for reuse while the application runs. Its window is
+     * only built the first time the corner overflows, and all its methods
+     * run on the event dispatch thread.
+     */
+    @Deprecated
+    private static class OverflowIndicator {
+
+        // the indicator geometry
+        private final int x, y, width;
+
+        // the indicator window, built on demand
+        private JWindow window;
+        private JLabel label;
+
+        /**
+         * Constructor method, calculating the indicator position.
+         * @param position The corner.
+         * @param width The indicator width.
+         * @param borderX The distance from the X axis border.
+         * @param boundX The screen width.
+         * @param boundY The screen height.
+         */
+        OverflowIndicator(WindowPosition position, int width, double borderX, double boundX, double boundY) {
+            this.width = width;
+            switch (position) {
+                case BOTTOMRIGHT:
+                    this.x = (int) (boundX - (width + borderX));
+                    this.y = 0;
+                    break;
+                case BOTTOMLEFT:
+                    this.x = (int) borderX;
+                    this.y = 0;
+                    break;
+                case TOPRIGHT:
+                    this.x = (int) (boundX - (width + borderX));
+                    this.y = (int) (boundY - INDICATOR_HEIGHT);
+                    break;
+                default:
+                    this.x = (int) borderX;
+                    this.y = (int) (boundY - INDICATOR_HEIGHT);
+                    break;
+            }
+        }
+
+        /**
+         * Shows the number of waiting notifications, or hides the indicator
+         * when there are none.
+         * @param count The number of waiting notifications.
+         */
+        void show(int count) {
+            if (count == 0) {
+                if (window != null) {
+                    window.setVisible(false);
+                }
+                return;
+            }
+            if (window == null) {
+                label = new JLabel("", SwingConstants.CENTER);
+                window = new JWindow();
+                window.add(label);
+                window.setAlwaysOnTop(true);
+                window.setBounds(x, y, width, INDICATOR_HEIGHT);
+            }
+            label.setText("+" + count + " more");
+            window.setVisible(true);
+        }
+    }
+
 }
@@ -0,0 +1,150 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>ContentUpdater.java</b>: updates the content of a notification while
+ * it is displayed, from any thread.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Updates the content of a notification while it is displayed, such as the
+ * text or the progress bar of a long running job, from any thread. Check
+ * the following example:
+ * @code
+ * final JProgressBar bar = new JProgressBar(0, 100);
+ * window.add(bar);
+ * Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 60000);
+ * ContentUpdater<Integer> progress = new ContentUpdater<Integer>(note, new ContentRenderer<Integer>() {
+ *
+ *     public void render(Integer value) {
+ *         bar.setValue(value);
+ *     }
+ * });
+ * note.animate();
+ * ...
+ * progress.post(42);
+ * @endcode
+ * Posting only stores the content, replacing the one still waiting, if any,
+ * so producers never block and never wait for the event dispatch thread, no
+ * matter how often they post. The latest content is rendered on the next
+ * frame of the notification, so there is at most one rendering per frame,
+ * and the position of the window and its animation are not affected. Content
+ * posted before the notification is displayed is rendered on its first
+ * frame; content posted after it is closed is never rendered.
+ *
+ * @param <T> The type of the content.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class ContentUpdater<T> {
+
+    private final ContentRenderer<T> renderer;
+    // the latest content posted, not rendered yet
+    private final AtomicReference<T> pending;
+    private final AtomicLong posted;
+    private volatile long rendered;
+
+    /**
+     * Constructor method. The updater is attached to the notification.
+     * @param notification The notification.
+     * @param renderer The renderer of the content.
+     */
+    public ContentUpdater(Notification notification, ContentRenderer<T> renderer) {
+        this.renderer = renderer;
+        this.pending = new AtomicReference<T>();
+        this.posted = new AtomicLong();
+        this.rendered = 0;
+        notification.addUpdater(this);
+    }
+
+    /**
+     * Posts new content, to be rendered on the next frame. This method may
+     * be called from any thread.
+     * @param content The content, which cannot be <code>null</code>.
+     */
+    public void post(T content) {
+        if (content == null) {
+            throw new IllegalArgumentException("The content cannot be null");
+        }
+        pending.set(content);
+        posted.incrementAndGet();
+    }
+
+    /**
+     * Gets the number of times content was posted.
+     * @return The number of posts.
+     */
+    public long getPostedCount() {
+        return posted.get();
+    }
+
+    /**
+     * Gets the number of times content was rendered, which is at most the
+     * number of frames since the first post.
+     * @return The number of renderings.
+     */
+    public long getRenderedCount() {
+        return rendered;
+    }
+
+    /**
+     * Renders the latest content posted, if there is any. This method is
+     * called by the notification on each frame.
+     */
+    void render() {
+        T content = pending.getAndSet(null);
+        if (content != null) {
+            rendered++;
+            renderer.render(content);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>ExpiryHeap.java</b>: provides a binary min-heap of notifications
+ * ordered by their expiry deadline. This heap is used internally by the
+ * notification queue manager to find and purge stale notifications.
+ */
+
+package net.sf.jcarrierpigeon;
+
+/**
+ * Provides a binary min-heap of notifications ordered by their expiry
+ * deadline. Each notification keeps track of its own index inside the heap,
+ * so both insertion and arbitrary removal run in \f$ O(\log n) \f$ time and
+ * checking the earliest deadline runs in constant time. This class is used
+ * internally by <b>net.sf.jcarrierpigeon.NotificationQueue</b> and it is not
+ * thread safe on its own; the queue is responsible for the locking.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+class ExpiryHeap {
+
+    // the heap itself and its current size
+    private Notification[] heap;
+    private int size;
+
+    /**
+     * Constructor method. Nothing new here, just instantiate
+     * the local attributes.
+     */
+    ExpiryHeap() {
+        heap = new Notification[16];
+        size = 0;
+    }
+
+    /**
+     * Gets the notification with the earliest deadline, without removing it.
+     * @return The notification with the earliest deadline, or <code>null</code>
+     * if the heap is empty.
+     */
+    Notification peek() {
+        return (size == 0) ? null : heap[0];
+    }
+
+    /**
+     * Adds a notification to the heap.
+     * @param notification The notification to be added. It must not be
+     * already in the heap.
+     */
+    void add(Notification notification) {
+
+        // grow the array if needed
+        if (size == heap.length) {
+            Notification[] grown = new Notification[size * 2];
+            System.arraycopy(heap, 0, grown, 0, size);
+            heap = grown;
+        }
+
+        // put it at the very end and sift it up
+        heap[size] = notification;
+        notification.expiryIndex = size;
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Removes a notification from the heap. If the notification is not
+     * in the heap, nothing happens.
+     * @param notification The notification to be removed.
+     */
+    void remove(Notification notification) {
+        int index = notification.expiryIndex;
+        if ((index >= 0) && (index < size) && (heap[index] == notification)) {
+            removeAt(index);
+        }
+    }
+
+    /**
+     * Removes the notification at the provided index.
+     * @param index The index of the notification in the heap.
+     */
+    private void removeAt(int index) {
+
+        // detach the notification
+        heap[index].expiryIndex = -1;
+        size--;
+
+        // check if it was not the last one
+        if (index != size) {
+
+            // move the last element into the hole and restore
+            // the heap property in both directions
+            heap[index] = heap[size];
+            heap[index].expiryIndex = index;
+            heap[size] = null;
+            siftDown(index);
+            siftUp(index);
+        } else {
+            heap[size] = null;
+        }
+    }
+
+    /**
+     * Moves the element at the provided index up until its parent
+     * has an earlier or equal deadline.
+     * @param index The index of the element.
+     */
+    private void siftUp(int index) {
+        Notification element = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].getDeadline() <= element.getDeadline()) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heap[index].expiryIndex = index;
+            index = parent;
+        }
+        heap[index] = element;
+        element.expiryIndex = index;
+    }
+
+    /**
+     * Moves the element at the provided index down until both children
+     * have later or equal deadlines.
+     * @param index The index of the element.
+     */
+    private void siftDown(int index) {
+        Notification element = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if ((right < size) && (heap[right].getDeadline() < heap[child].getDeadline())) {
+                child = right;
+            }
+            if (element.getDeadline() <= heap[child].getDeadline()) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].expiryIndex = index;
+            index = child;
+        }
+        heap[index] = element;
+        element.expiryIndex = index;
+    }
+}
@@ -0,0 +1,376 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>HeadlessWindowBackend.java</b>: provides a window backend which
+ * renders notifications in memory, with no display at all. This backend
+ * is useful for servers and for load tests.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.awt.Rectangle;
+
+/**
+ * Provides a window backend which renders notifications in memory, with no
+ * display at all. There is no AWT window behind this backend, so it works
+ * with <code>java.awt.headless=true</code>; each call to #setBounds() is
+ * recorded as a frame, so the positions computed by the animation can be
+ * checked later. Check the following example:
+ * @code
+ * HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+ * Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 1000);
+ * note.animate();
+ * ...
+ * int frames = window.getFrameCount();
+ * int lastY = window.getY(frames - 1);
+ * @endcode
+ * The frames are kept in primitive arrays, so recording them is cheap. If
+ * the positions are not needed, for instance in long running load tests,
+ * recording may be disabled and only the last position is kept; the frames
+ * displayed meanwhile are counted, but not recorded.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class HeadlessWindowBackend implements WindowBackend {
+
+    // default screen size
+    private static final int DEFAULT_SCREEN_WIDTH = 1920;
+    private static final int DEFAULT_SCREEN_HEIGHT = 1080;
+
+    // window and screen sizes
+    private int width;
+    private int height;
+    private Rectangle screen;
+    // window state
+    private volatile boolean visible;
+    private volatile boolean alwaysOnTop;
+    private volatile boolean disposed;
+    private volatile boolean translucencySupported;
+    private volatile float opacity;
+    private volatile Runnable clickListener;
+    // recorded frames
+    private boolean recording;
+    private int frameCount;
+    private int recordedCount;
+    private int[] framesX;
+    private int[] framesY;
+    private volatile int lastX;
+    private volatile int lastY;
+
+    /**
+     * Constructor method. The screen is considered to be 1920 by 1080 pixels.
+     * @param width The window width.
+     * @param height The window height.
+     */
+    public HeadlessWindowBackend(int width, int height) {
+        this(width, height, new Rectangle(0, 0, DEFAULT_SCREEN_WIDTH, DEFAULT_SCREEN_HEIGHT));
+    }
+
+    /**
+     * Constructor method.
+     * @param width The window width.
+     * @param height The window height.
+     * @param screen The screen bounds.
+     */
+    public HeadlessWindowBackend(int width, int height, Rectangle screen) {
+        this.width = width;
+        this.height = height;
+        this.screen = new Rectangle(screen);
+        this.visible = false;
+        this.alwaysOnTop = false;
+        this.disposed = false;
+        this.translucencySupported = true;
+        this.opacity = 1;
+        this.recording = true;
+        this.frameCount = 0;
+        this.recordedCount = 0;
+        this.framesX = new int[32];
+        this.framesY = new int[32];
+    }
+
+    /**
+     * Gets the type of this window.
+     * @return Always <code>WindowType.HEADLESS</code>.
+     */
+    public WindowType getWindowType() {
+        return WindowType.HEADLESS;
+    }
+
+    /**
+     * Gets the window width.
+     * @return The width in pixels.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the window height.
+     * @return The height in pixels.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the screen bounds provided in the constructor method.
+     * @return A <code>java.awt.Rectangle</code> with the exact size of the screen.
+     */
+    public Rectangle getScreenBounds() {
+        return new Rectangle(screen);
+    }
+
+    /**
+     * Records a new frame.
+     * @param x Coordinate X
+     * @param y Coordinate Y
+     * @param width Width
+     * @param height Height
+     */
+    public synchronized void setBounds(int x, int y, int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.lastX = x;
+        this.lastY = y;
+        if (recording) {
+            if (recordedCount == framesX.length) {
+                int[] grownX = new int[recordedCount * 2];
+                int[] grownY = new int[recordedCount * 2];
+                System.arraycopy(framesX, 0, grownX, 0, recordedCount);
+                System.arraycopy(framesY, 0, grownY, 0, recordedCount);
+                framesX = grownX;
+                framesY = grownY;
+            }
+            framesX[recordedCount] = x;
+            framesY[recordedCount] = y;
+            recordedCount++;
+        }
+        frameCount++;
+    }
+
+    /**
+     * Sets the visibility of the window.
+     * @param value <code>true</code> if window should be visible, or <code>false</code>
+     * otherwise.
+     */
+    public void setVisible(boolean value) {
+        this.visible = value;
+    }
+
+    /**
+     * Sets the window parameter of being on top of other windows.
+     * @param value <code>true</code> if window should be on top of other windows, or
+     * <code>false</code> otherwise.
+     */
+    public void setAlwaysOnTop(boolean value) {
+        this.alwaysOnTop = value;
+    }
+
+    /**
+     * Checks if the opacity of this window may be changed. Translucency is
+     * supported by default.
+     * @return <code>true</code> if the window supports translucency, or
+     * <code>false</code> otherwise.
+     */
+    public boolean isTranslucencySupported() {
+        return translucencySupported;
+    }
+
+    /**
+     * Sets if the opacity of this window may be changed, so a display
+     * without translucency may be simulated.
+     * @param value <code>true</code> if the window supports translucency, or
+     * <code>false</code> otherwise.
+     */
+    public void setTranslucencySupported(boolean value) {
+        this.translucencySupported = value;
+    }
+
+    /**
+     * Sets the opacity of the window.
+     * @param opacity The opacity, on a continuum interval, 0 <= x <= 1.
+     */
+    public void setOpacity(float opacity) {
+        this.opacity = opacity;
+    }
+
+    /**
+     * Gets the opacity of the window.
+     * @return The opacity, on a continuum interval, 0 <= x <= 1.
+     */
+    public float getOpacity() {
+        return opacity;
+    }
+
+    /**
+     * Sets the action run when the window is clicked through #click().
+     * @param listener The action, or <code>null</code> in order to remove it.
+     */
+    public void setClickListener(Runnable listener) {
+        this.clickListener = listener;
+    }
+
+    /**
+     * Simulates a click of the user on the window.
+     */
+    public void click() {
+        Runnable current = clickListener;
+        if (current != null) {
+            current.run();
+        }
+    }
+
+    /**
+     * Disposes the window. The recorded frames are kept.
+     */
+    public void dispose() {
+        this.visible = false;
+        this.disposed = true;
+    }
+
+    /**
+     * Enables or disables recording every frame. When disabled, only the
+     * frame count and the last position are kept. Recording is enabled
+     * by default.
+     * @param value <code>true</code> if every frame should be recorded, or
+     * <code>false</code> otherwise.
+     */
+    public synchronized void setRecording(boolean value) {
+        this.recording = value;
+    }
+
+    /**
+     * Gets the number of frames, that is, the number of calls to #setBounds().
+     * @return The number of frames.
+     */
+    public synchronized int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Gets the number of recorded frames, which is lower than the number
+     * of frames if recording was disabled at some point.
+     * @return The number of recorded frames.
+     */
+    public synchronized int getRecordedFrameCount() {
+        return recordedCount;
+    }
+
+    /**
+     * Gets the X coordinate of a recorded frame.
+     * @param frame The recorded frame index, starting at 0.
+     * @return The X coordinate.
+     */
+    public synchronized int getX(int frame) {
+        checkFrame(frame);
+        return framesX[frame];
+    }
+
+    /**
+     * Gets the Y coordinate of a recorded frame.
+     * @param frame The recorded frame index, starting at 0.
+     * @return The Y coordinate.
+     */
+    public synchronized int getY(int frame) {
+        checkFrame(frame);
+        return framesY[frame];
+    }
+
+    /**
+     * Checks if the frame index refers to a recorded frame.
+     * @param frame The recorded frame index.
+     */
+    private void checkFrame(int frame) {
+        if ((frame < 0) || (frame >= recordedCount)) {
+            throw new IndexOutOfBoundsException("Frame " + frame + " was not recorded");
+        }
+    }
+
+    /**
+     * Gets the X coordinate of the last frame.
+     * @return The X coordinate.
+     */
+    public int getLastX() {
+        return lastX;
+    }
+
+    /**
+     * Gets the Y coordinate of the last frame.
+     * @return The Y coordinate.
+     */
+    public int getLastY() {
+        return lastY;
+    }
+
+    /**
+     * Checks if the window is visible.
+     * @return <code>true</code> if the window is visible, or <code>false</code>
+     * otherwise.
+     */
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Checks if the window is on top of other windows.
+     * @return <code>true</code> if the window is on top of other windows, or
+     * <code>false</code> otherwise.
+     */
+    public boolean isAlwaysOnTop() {
+        return alwaysOnTop;
+    }
+
+    /**
+     * Checks if the window was disposed.
+     * @return <code>true</code> if the window was disposed, or <code>false</code>
+     * otherwise.
+     */
+    public boolean isDisposed() {
+        return disposed;
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>HistoryEntry.java</b>: describes a notification recorded in the
+ * notification history.
+ */
+
+package net.sf.jcarrierpigeon;
+
+/**
+ * Describes a notification recorded in <b>net.sf.jcarrierpigeon.NotificationHistory</b>.
+ * The history itself keeps its entries in compact arrays, so these objects
+ * are only created when entries are looked up.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class HistoryEntry {
+
+    private long sequence;
+    private long time;
+    private String key;
+    private String message;
+    private WindowPosition windowPosition;
+    private int duration;
+
+    /**
+     * Constructor method.
+     * @param sequence The sequence number of the entry.
+     * @param time The arrival time in milliseconds.
+     * @param key The grouping key, or <code>null</code>.
+     * @param message The message, or <code>null</code>.
+     * @param windowPosition The window position.
+     * @param duration The display duration in milliseconds.
+     */
+    HistoryEntry(long sequence, long time, String key, String message, WindowPosition windowPosition, int duration) {
+        this.sequence = sequence;
+        this.time = time;
+        this.key = key;
+        this.message = message;
+        this.windowPosition = windowPosition;
+        this.duration = duration;
+    }
+
+    /**
+     * Gets the sequence number of this entry, which tells the order in which
+     * notifications arrived. Sequence numbers start at 0 and are never reused.
+     * @return The sequence number.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the arrival time of the notification, according to the clock of
+     * the queue manager.
+     * @return The arrival time in milliseconds.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the grouping key of the notification.
+     * @return The grouping key, or <code>null</code> if there is no key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the short text describing the notification.
+     * @return The message, or <code>null</code> if there is no message.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets the window position of the notification.
+     * @return The window position.
+     */
+    public WindowPosition getWindowPosition() {
+        return windowPosition;
+    }
+
+    /**
+     * Gets the display duration of the notification.
+     * @return The display duration in milliseconds.
+     */
+    public int getDuration() {
+        return duration;
+    }
+}
@@ -0,0 +1,292 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>LoadGovernor.java</b>: watches the frame intervals of the animations
+ * and lowers the animation quality while the event dispatch thread is
+ * overloaded.
+ */
+
+package net.sf.jcarrierpigeon;
+
+/**
+ * Watches the frame intervals of the animations and lowers the animation
+ * quality while the event dispatch thread is overloaded. Every frame interval
+ * is fed to #record() and smoothed; when the smoothed interval stays above
+ * the frame budget for a while, the quality drops one step, as defined in
+ * <b>net.sf.jcarrierpigeon.AnimationQuality</b>: first the frame rate is
+ * reduced, then the windows fade instead of sliding, then they are placed
+ * instantly, and finally the animation is suppressed altogether. When the
+ * smoothed interval stays well below the budget for a longer while, the
+ * quality goes up one step. The gap between both thresholds and both delays
+ * avoids flapping between two steps.
+ *
+ * The default governor, shared by every <b>net.sf.jcarrierpigeon.SwingScheduler</b>,
+ * is fed by the built-in animation core on every pulse, so there is nothing
+ * to do but tune it if needed. Check the following example:
+ * @code
+ * LoadGovernor governor = new SwingScheduler().getLoadGovernor();
+ * governor.setFrameBudget(50);
+ * governor.setReducedFrameRate(10);
+ * @endcode
+ * Notifications pick the current quality when they start animating, so a
+ * notification already on screen is never degraded halfway through.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class LoadGovernor {
+
+    // smoothing factor of the frame intervals, as a power of two
+    private static final int SMOOTHING = 3;
+
+    // the frame budget in nanoseconds, and the fraction of it
+    // the smoothed interval must go below in order to recover
+    private long frameBudget;
+    private float recoveryRatio;
+    // how long the load must stay high or low, in nanoseconds,
+    // before the quality changes
+    private long degradeDelay;
+    private long recoveryDelay;
+    // the frame rate of the reduced quality
+    private int reducedFrameRate;
+    // the clock the frames are timed by, or null for System.nanoTime()
+    private Scheduler clock;
+
+    // the current state
+    private AnimationQuality quality;
+    private long smoothed;
+    private long overSince;
+    private long underSince;
+    private long lastSample;
+    private boolean idle;
+
+    /**
+     * Constructor method. The frame budget is 40 milliseconds, twice the
+     * resolution of the built-in animation core; the quality drops after
+     * 250 milliseconds over budget and recovers after 2 seconds under
+     * three quarters of it. The frames are timed by <code>System.nanoTime()</code>.
+     */
+    public LoadGovernor() {
+        this(null);
+    }
+
+    /**
+     * Constructor method. The frames are timed by the clock of the provided
+     * scheduler, so the times given to #record() and #idle() must be in its
+     * scale, converted to nanoseconds.
+     * @param clock The <b>net.sf.jcarrierpigeon.Scheduler</b> object whose
+     * clock is used, or <code>null</code> for <code>System.nanoTime()</code>.
+     */
+    public LoadGovernor(Scheduler clock) {
+        this.clock = clock;
+        this.frameBudget = 40000000L;
+        this.recoveryRatio = 0.75f;
+        this.degradeDelay = 250000000L;
+        this.recoveryDelay = 2000000000L;
+        this.reducedFrameRate = 15;
+        this.quality = AnimationQuality.FULL;
+        this.smoothed = 0;
+        this.overSince = -1;
+        this.underSince = -1;
+        this.lastSample = 0;
+        this.idle = true;
+    }
+
+    /**
+     * Records a frame interval, that is, the time between two consecutive
+     * frames, and updates the quality accordingly.
+     * @param time The time of the frame in nanoseconds, in the same scale of
+     * the clock of this governor.
+     * @param interval The time elapsed since the previous frame in nanoseconds.
+     */
+    public synchronized void record(long time, long interval) {
+
+        // the time spent idle counts as time under budget
+        if (idle) {
+            recover(time);
+            idle = false;
+        }
+        lastSample = time;
+
+        // smooth the interval
+        if (smoothed == 0) {
+            smoothed = interval;
+        } else {
+            smoothed += (interval - smoothed) >> SMOOTHING;
+        }
+
+        // check the thresholds
+        if (smoothed > frameBudget) {
+            underSince = -1;
+            if (overSince < 0) {
+                overSince = time;
+            } else if ((time - overSince >= degradeDelay) && (quality.ordinal() < AnimationQuality.SUPPRESSED.ordinal())) {
+                quality = AnimationQuality.values()[quality.ordinal() + 1];
+                overSince = time;
+            }
+        } else if (smoothed < frameBudget * recoveryRatio) {
+            overSince = -1;
+            if (underSince < 0) {
+                underSince = time;
+            } else if ((time - underSince >= recoveryDelay) && (quality != AnimationQuality.FULL)) {
+                quality = AnimationQuality.values()[quality.ordinal() - 1];
+                underSince = time;
+            }
+        } else {
+            overSince = -1;
+            underSince = -1;
+        }
+    }
+
+    /**
+     * Tells the governor there are no more frames for now, for instance
+     * because every animation is over.
+     * @param time The current time in nanoseconds.
+     */
+    public synchronized void idle(long time) {
+        lastSample = time;
+        idle = true;
+        overSince = -1;
+        underSince = -1;
+        smoothed = 0;
+    }
+
+    /**
+     * Raises the quality one step for each recovery delay elapsed since the
+     * governor went idle.
+     * @param time The current time in nanoseconds.
+     */
+    private void recover(long time) {
+        long steps = (time - lastSample) / recoveryDelay;
+        if (steps > 0) {
+            quality = AnimationQuality.values()[(int) (quality.ordinal() - Math.min(steps, quality.ordinal()))];
+            lastSample += steps * recoveryDelay;
+        }
+    }
+
+    /**
+     * Gets the current animation quality. If the governor is idle, the time
+     * spent idle is taken into account, according to the clock of this governor.
+     * @return The current animation quality.
+     */
+    public synchronized AnimationQuality getQuality() {
+        if (idle) {
+            recover(now());
+        }
+        return quality;
+    }
+
+    /**
+     * Gets the current time of the clock of this governor.
+     * @return The current time in nanoseconds.
+     */
+    private long now() {
+        if (clock == null) {
+            return System.nanoTime();
+        }
+        return clock.currentTimeMillis() * 1000000L;
+    }
+
+    /**
+     * Gets the smoothed frame interval.
+     * @return The smoothed frame interval in milliseconds, or 0 if the
+     * governor is idle.
+     */
+    public synchronized float getFrameInterval() {
+        return smoothed / 1000000f;
+    }
+
+    /**
+     * Sets the frame budget. The quality drops when the frames are further
+     * apart than this budget.
+     * @param milliseconds The frame budget in milliseconds.
+     */
+    public synchronized void setFrameBudget(int milliseconds) {
+        this.frameBudget = Math.max(1, milliseconds) * 1000000L;
+    }
+
+    /**
+     * Sets how long the load must stay over or under budget before the
+     * quality changes one step.
+     * @param degradeMillis The delay before dropping the quality in milliseconds.
+     * @param recoveryMillis The delay before raising the quality in milliseconds.
+     */
+    public synchronized void setDelays(int degradeMillis, int recoveryMillis) {
+        this.degradeDelay = Math.max(0, degradeMillis) * 1000000L;
+        this.recoveryDelay = Math.max(1, recoveryMillis) * 1000000L;
+    }
+
+    /**
+     * Sets the frame rate of the animations running with the reduced quality.
+     * @param framesPerSecond The frame rate in frames per second.
+     */
+    public synchronized void setReducedFrameRate(int framesPerSecond) {
+        this.reducedFrameRate = Math.max(1, framesPerSecond);
+    }
+
+    /**
+     * Gets the frame rate of the animations running with the reduced quality.
+     * @return The frame rate in frames per second.
+     */
+    public synchronized int getReducedFrameRate() {
+        return reducedFrameRate;
+    }
+
+    /**
+     * Sets the quality by hand, for instance in order to start degraded on
+     * a slow session. The governor keeps adjusting it from here.
+     * @param quality The animation quality.
+     */
+    public synchronized void setQuality(AnimationQuality quality) {
+        this.quality = quality;
+        this.overSince = -1;
+        this.underSince = -1;
+        if (idle) {
+            this.lastSample = now();
+        }
+    }
+}
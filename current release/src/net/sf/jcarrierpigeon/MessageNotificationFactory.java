@@ -0,0 +1,117 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>MessageNotificationFactory.java</b>: provides a notification factory
+ * which simply displays the message of each notification.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.awt.Rectangle;
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JWindow;
+
+/**
+ * Provides a notification factory which simply displays the message of each
+ * notification in a <code>javax.swing.JWindow</code> object, or renders it in
+ * memory through <b>net.sf.jcarrierpigeon.HeadlessWindowBackend</b> when
+ * there is no display at all.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class MessageNotificationFactory implements NotificationFactory {
+
+    // the default window size
+    private static final int WIDTH = 300;
+    private static final int HEIGHT = 60;
+
+    private boolean headless;
+    private Rectangle screen;
+
+    /**
+     * Constructor method. Windows are displayed on screen.
+     */
+    public MessageNotificationFactory() {
+        this.headless = false;
+        this.screen = null;
+    }
+
+    /**
+     * Constructor method for notifications rendered in memory.
+     * @param screen The screen bounds of the headless windows.
+     */
+    public MessageNotificationFactory(Rectangle screen) {
+        this.headless = true;
+        this.screen = new Rectangle(screen);
+    }
+
+    /**
+     * Builds a notification displaying the message.
+     * @param data The description of the notification.
+     * @return The notification.
+     */
+    public Notification createNotification(NotificationData data) {
+        Notification note;
+        if (headless) {
+            note = new Notification(new HeadlessWindowBackend(WIDTH, HEIGHT, screen), data.getWindowPosition(),
+                    data.getBorderX(), data.getBorderY(), data.getDuration());
+        } else {
+            JWindow window = new JWindow();
+            JLabel label = new JLabel((data.getMessage() != null) ? data.getMessage() : "");
+            label.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+            window.getContentPane().add(label);
+            window.pack();
+            window.setSize(Math.max(window.getWidth(), WIDTH), Math.max(window.getHeight(), HEIGHT));
+            note = new Notification(window, data.getWindowPosition(), data.getBorderX(), data.getBorderY(),
+                    data.getDuration());
+        }
+        data.applyTo(note);
+        return note;
+    }
+}
@@ -53,12 +53,9 @@
 
 package net.sf.jcarrierpigeon;
 
-import java.awt.GraphicsEnvironment;
 import java.awt.Rectangle;
 import javax.swing.JFrame;
 import javax.swing.JWindow;
-import org.jdesktop.animation.timing.Animator;
-import org.jdesktop.animation.timing.TimingTarget;
 
 /**
  * Provides the notification features to any <code>javax.swing.JFrame</code>
@@ -77,39 +74,105 @@ import org.jdesktop.animation.timing.TimingTarget;
  * NotificationQueue queue = new NotificationQueue();
  * queue.add(note);
  * @endcode
+ * Windows slide in and out of the screen border by default. When per-window
+ * translucency is supported, they may fade in and out instead, which moves
+ * the native window only once; check #setAnimationEffect() and
+ * #setDefaultAnimationEffect(). On remote sessions, or when asked through
+ * #setMotionPreference(), motion is reduced to the bare minimum.
+ *
  * Note that <b>net.sf.jcarrierpigeon.Notification</b> takes the very same
  * parameters of the deprecated <b>net.sf.jcarrierpigeon.CarrierPigeon</b>
  * class. Aside from the addition of <b>net.sf.jcarrierpigeon.NotificationQueue</b>,
  * there is not so much change in code.
  * 
  * @author Paulo Roberto Massa Cereda
- * @version 1.3
+ * @version 1.4
  * @since 1.3
  */
 public class Notification implements TimingTarget {
 
+    // the effect used by notifications with no effect of their own
+    private static volatile AnimationEffect defaultAnimationEffect = AnimationEffect.SLIDE;
+    // how much motion is allowed, for every notification
+    private static volatile MotionPreference motionPreference = MotionPreference.AUTO;
+    // the stall detector watching every notification, if any
+    private static volatile StallDetector stallDetector;
+    // the occupancy shared with other processes, if any
+    private static volatile ScreenOccupancy screenOccupancy;
+    // no content updaters at all
+    private static final ContentUpdater<?>[] NO_UPDATERS = new ContentUpdater<?>[0];
+
     private WindowPosition windowPosition;
     private WindowType windowType;
     private int thisHeight;
     private int thisWidth;
     // window object
-    private JFrame windowJFrame;
-    private JWindow windowJWindow;
+    private WindowBackend window;
     // coordinates
     private double borderX, borderY;
     private double boundX, boundY;
     private double positionX, positionY;
+    // the bounds last set, so unchanged bounds are not set again on
+    // every frame of the display state
+    private int boundsX = Integer.MIN_VALUE, boundsY = Integer.MIN_VALUE;
     // animation control
     private int duration;
     private AnimationFrame animationFrame;
     // animators, each one representing one state
     // on AnimationFrame class
-    private Animator animatorHandlerOnShow;
-    private Animator animatorHandlerOnDisplay;
-    private Animator animatorHandlerOnClose;
+    private Animation animatorHandlerOnShow;
+    private Animation animatorHandlerOnDisplay;
+    private Animation animatorHandlerOnClose;
+    // the scheduler behind the animators
+    private Scheduler scheduler = new SwingScheduler();
     // time in milliseconds to animate windows
     // on show and close events
     private int timeToAnimate = 500;
+    // maximum frames per second of the animations, no limit
+    // other than the scheduler resolution by default
+    private int frameRate = 0;
+    // effective durations of the current animation, which may be
+    // shortened by the queue manager when there is a backlog
+    private int effectiveDuration;
+    private int effectiveTimeToAnimate;
+    // effective frame rate and quality of the current animation,
+    // which may be lowered by the load governor
+    private int effectiveFrameRate;
+    private AnimationQuality quality;
+    // the effect of this notification, or null for the default one,
+    // and whether the current animation is a fade
+    private AnimationEffect animationEffect;
+    private boolean fading;
+    // the area of the corner reserved for this notification, if the
+    // screen occupancy is shared with other processes
+    private ScreenOccupancy occupancy;
+    private ScreenOccupancy.Reservation reservation;
+    // the content updaters attached to this notification
+    private volatile ContentUpdater<?>[] updaters = NO_UPDATERS;
+    // expiry deadline in milliseconds since the epoch, no expiry
+    // at all by default
+    private long deadline = Long.MAX_VALUE;
+    // time to live in milliseconds, if the deadline was set through it
+    private long timeToLive = -1;
+    // index of this notification in the expiry heap of the queue
+    // manager, or -1 if it is not there
+    int expiryIndex = -1;
+    // the handle of this notification, once it is added to a queue
+    // manager or animated
+    NotificationHandle handle;
+    // set when the window is gone
+    private boolean finished = false;
+    // set when dismissed early
+    private boolean dismissed = false;
+    // the journal this notification was recorded into, if any,
+    // and the id of its record
+    NotificationJournal journal;
+    long journalId = -1;
+    // set when this notification summarizes a digest
+    boolean summary = false;
+    // grouping key and a short text describing this notification
+    private String key;
+    private String message;
 
     /**
      * Constructor method for a basic <code>javax.swing.JFrame</code> object.
@@ -137,52 +200,7 @@ public class Notification implements TimingTarget {
      * to multiply it by 1000; 2 seconds times 1000 = 2000 milliseconds.
      */
     public Notification(JFrame window, WindowPosition windowPosition, int borderX, int borderY, int duration) {
-
-        // JFrame object
-        this.windowType = WindowType.JFRAME;
-        this.windowJWindow = null;
-
-        // setting some attributes
-        this.windowPosition = windowPosition;
-        this.windowJFrame = window;
-        this.borderX = borderX;
-        this.borderY = borderY;
-
-        // window attributes
-        this.thisHeight = windowJFrame.getHeight();
-        this.thisWidth = windowJFrame.getWidth();
-
-        // set the animation duration
-        this.duration = duration;
-
-        {
-            // retrieve the screen resolution and set some attributes
-            Rectangle rect = getScreenResolution();
-            this.boundX = rect.getWidth();
-            this.boundY = rect.getHeight();
-        }
-
-        // second calculation: based on the window position and the provided
-        // values, calculate positions on screen and the global payload for
-        // that specific region
-        switch (this.windowPosition) {
-            case BOTTOMRIGHT:
-                this.positionX = this.boundX - (this.thisWidth + this.borderX);
-                this.positionY = this.boundY - (this.thisHeight + this.borderY);
-                break;
-            case BOTTOMLEFT:
-                this.positionX = this.borderX;
-                this.positionY = this.boundY - (this.thisHeight + this.borderY);
-                break;
-            case TOPRIGHT:
-                this.positionX = this.boundX - (this.thisWidth + this.borderX);
-                this.positionY = this.borderY;
-                break;
-            case TOPLEFT:
-                this.positionX = this.borderX;
-                this.positionY = this.borderY;
-                break;
-        }
+        this(new SwingWindowBackend(window), windowPosition, borderX, borderY, duration);
     }
 
     /**
@@ -211,27 +229,55 @@ public class Notification implements TimingTarget {
      * to multiply it by 1000; 2 seconds times 1000 = 2000 milliseconds.
      */
     public Notification(JWindow window, WindowPosition windowPosition, int borderX, int borderY, int duration) {
+        this(new SwingWindowBackend(window), windowPosition, borderX, borderY, duration);
+    }
+
+    /**
+     * Constructor method for any window backend. It basically builds the
+     * notification model according to the provided parameters, exactly as
+     * the other constructors do. This constructor is useful for the
+     * <b>net.sf.jcarrierpigeon.HeadlessWindowBackend</b> object, which renders
+     * the notification in memory, with no display at all. Check the following
+     * example:
+     * @code
+     * HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+     * Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 1000);
+     * NotificationQueue queue = new NotificationQueue();
+     * queue.add(note);
+     * @endcode
+     * @param window The window backend.
+     * @param windowPosition The window position on screen. You may choose one amongst
+     * four states, each one representing the screen corners.
+     * @param borderX The distance in pixels the window must keep from the X axis border. If
+     * the notification is right-aligned, this border will be from the right side, and so forth.
+     * Usually 50 pixels or less is an acceptable value for this parameter.
+     * @param borderY The distance in pixels the window must keep from the Y axis border. If
+     * the notification is aligned from the top, this border will be from the top itself, and so forth.
+     * Usually 50 pixels or less is an acceptable value for this parameter.
+     * @param duration The notification display duration in milliseconds. So if you want 2 seconds, you need
+     * to multiply it by 1000; 2 seconds times 1000 = 2000 milliseconds.
+     */
+    public Notification(WindowBackend window, WindowPosition windowPosition, int borderX, int borderY, int duration) {
 
-        // JFrame object
-        this.windowType = WindowType.JWINDOW;
-        this.windowJFrame = null;
+        // window object
+        this.windowType = window.getWindowType();
+        this.window = window;
 
         // setting some attributes
         this.windowPosition = windowPosition;
-        this.windowJWindow = window;
         this.borderX = borderX;
         this.borderY = borderY;
 
         // window attributes
-        this.thisHeight = windowJWindow.getHeight();
-        this.thisWidth = windowJWindow.getWidth();
+        this.thisHeight = window.getHeight();
+        this.thisWidth = window.getWidth();
 
         // set the animation duration
         this.duration = duration;
 
         {
             // retrieve the screen resolution and set some attributes
-            Rectangle rect = getScreenResolution();
+            Rectangle rect = window.getScreenBounds();
             this.boundX = rect.getWidth();
             this.boundY = rect.getHeight();
         }
@@ -259,15 +305,6 @@ public class Notification implements TimingTarget {
         }
     }
 
-    /**
-     * Calculates the screen size.
-     * @return A <code>java.awt.Rectangle</code> with the exact size of the screen.
-     */
-    private Rectangle getScreenResolution() {
-        GraphicsEnvironment environment = GraphicsEnvironment.getLocalGraphicsEnvironment();
-        return environment.getMaximumWindowBounds();
-    }
-
     /**
      * Calculates the current window position based on the Y axis and the
      * fraction of elapsed time.
@@ -324,19 +361,60 @@ public class Notification implements TimingTarget {
     }
 
     /**
-     * Implements the <code>timingEvent</code> method from <code>org.jdesktop.animation.timing.TimingTarget</code>.
+     * Implements the <code>timingEvent</code> method from <code>net.sf.jcarrierpigeon.TimingTarget</code>.
      * Please don't call this function directly.
      * @param f The continnum interval referring to the animation.
      */
     public void timingEvent(float f) {
 
+        // measure the frame, if there is a stall detector
+        StallDetector detector = stallDetector;
+        if (detector == null) {
+            update(f);
+            return;
+        }
+        long started = detector.enter();
+        try {
+            update(f);
+        } finally {
+            detector.exit(this, StallDetector.Callback.TIMING_EVENT, started);
+        }
+    }
+
+    /**
+     * Updates the window according to the fraction of the current animation.
+     * @param f The continnum interval referring to the animation.
+     */
+    private void update(float f) {
+
+        // a late frame of a cancelled animation
+        if (finished) {
+            return;
+        }
+
+        // render the latest content posted, if any
+        ContentUpdater<?>[] current = updaters;
+        for (int i = 0; i < current.length; i++) {
+            current[i].render();
+        }
+
+        // fade the window in or out, if it's the case
+        if (fading) {
+            if (animationFrame == AnimationFrame.ONSHOW) {
+                window.setOpacity(f);
+            } else if (animationFrame == AnimationFrame.ONCLOSE) {
+                window.setOpacity(1 - f);
+            }
+            return;
+        }
+
         // animate the window based on the Y axis
         setCurrentWindowBounds((int) positionX, calculateCurrentPositionOnY(f), thisWidth, thisHeight);
 
     }
 
     /**
-     * Implements the <code>begin</code> method from <code>org.jdesktop.animation.timing.TimingTarget</code>.
+     * Implements the <code>begin</code> method from <code>net.sf.jcarrierpigeon.TimingTarget</code>.
      * This method is called before animation begins. Please don't call this function directly.
      */
     public void begin() {
@@ -344,41 +422,72 @@ public class Notification implements TimingTarget {
     }
 
     /**
-     * Implements the <code>end</code> method from <code>org.jdesktop.animation.timing.TimingTarget</code>.
+     * Implements the <code>end</code> method from <code>net.sf.jcarrierpigeon.TimingTarget</code>.
      * This method is called after the animation finishes. Please don't call this function directly.
      */
     public void end() {
+        NotificationHandle.holdSteps();
+        try {
+            endStep();
+        } finally {
+            NotificationHandle.releaseSteps();
+        }
+    }
+
+    /**
+     * Ends the current animation step with the lock held. The steps of the
+     * lifecycle reported meanwhile are delivered once the lock is released.
+     */
+    private synchronized void endStep() {
+
+        // measure the step, if there is a stall detector
+        StallDetector detector = stallDetector;
+        if (detector == null) {
+            advance();
+            return;
+        }
+        long started = detector.enter();
+        try {
+            advance();
+        } finally {
+            detector.exit(this, StallDetector.Callback.END, started);
+        }
+    }
+
+    /**
+     * Moves on to the next animation state, disposing the window after the
+     * last one.
+     */
+    private void advance() {
 
         // checks if animation just finished the presenting state
         if (animationFrame == AnimationFrame.ONSHOW) {
 
-            // create a new animation handler
-            animatorHandlerOnDisplay = new Animator(duration, 1, Animator.RepeatBehavior.LOOP, this);
-
             // sets the current animation state
             animationFrame = AnimationFrame.ONDISPLAY;
 
-            // run it
-            animatorHandlerOnDisplay.start();
+            // create a new animation handler and run it
+            animatorHandlerOnDisplay = scheduler.startAnimation(effectiveDuration, 0, effectiveFrameRate, this);
         } else {
 
             // now checking if animation just finished displaying
             if (animationFrame == AnimationFrame.ONDISPLAY) {
 
-                // create a new animation handler
-                animatorHandlerOnClose = new Animator(timeToAnimate, 1, Animator.RepeatBehavior.LOOP, this);
-
                 // sets the current animation state
                 animationFrame = AnimationFrame.ONCLOSE;
 
-                // run it
-                animatorHandlerOnClose.start();
+                // create a new animation handler and run it
+                animatorHandlerOnClose = scheduler.startAnimation(effectiveTimeToAnimate, 0, effectiveFrameRate, this);
             } else {
 
                 // animation is done, so hide and dispose window
                 setCurrentWindowVisible(false);
+                restoreOpacity();
                 disposeCurrentWindow();
-
+                markFinished();
+                if (handle != null) {
+                    handle.fire(dismissed ? NotificationEvent.Type.DISMISSED : NotificationEvent.Type.CLOSED);
+                }
 
             }
         }
@@ -386,7 +495,7 @@ public class Notification implements TimingTarget {
     }
 
     /**
-     * Implements the <code>repeat</code> method from <code>org.jdesktop.animation.timing.TimingTarget</code>.
+     * Implements the <code>repeat</code> method from <code>net.sf.jcarrierpigeon.TimingTarget</code>.
      * This function is called on every animation repetition. Please don't call this function directly.
      */
     public void repeat() {
@@ -403,107 +512,319 @@ public class Notification implements TimingTarget {
      * note.animate();
      * @endcode
      * Wherever possible, please use the new notification queue manager
-     * <b>net.sf.jcarrierpigeon.NotificationQueue</b>.
+     * <b>net.sf.jcarrierpigeon.NotificationQueue</b>, which also enforces
+     * its <b>net.sf.jcarrierpigeon.RateLimiter</b>, if any, while this method
+     * displays the notification right away. A notification is
+     * animated only once: when it is done, its window is disposed and
+     * released, along with its animators, so it retains nothing heavy.
+     * @return A <b>net.sf.jcarrierpigeon.NotificationHandle</b> object, which
+     * tracks the lifecycle of the notification through futures and may be
+     * used to cancel or dismiss it.
+     */
+    public NotificationHandle animate() {
+        NotificationHandle.holdSteps();
+        try {
+            return start();
+        } finally {
+            NotificationHandle.releaseSteps();
+        }
+    }
+
+    /**
+     * Starts the animation with the lock held. The steps of the lifecycle
+     * reported meanwhile are delivered by #animate() once the lock is
+     * released.
+     * @return The handle.
      */
-    public synchronized void animate() {
+    private synchronized NotificationHandle start() {
+        if (finished) {
+            throw new IllegalStateException("The notification is already done, so it cannot be animated again");
+        }
+        if (handle == null) {
+            handle = new NotificationHandle(this, null);
+        }
+        animate(duration, timeToAnimate);
+        handle.fire(NotificationEvent.Type.SHOWN);
+        return handle;
+    }
+
+    /**
+     * Performs the animation using the provided durations instead of the
+     * ones set for this notification. This method is used by the queue
+     * manager in order to shorten notifications when there is a backlog.
+     * @param displayDuration The display duration in milliseconds.
+     * @param animationSpeed The duration of the show and close effects
+     * in milliseconds.
+     * @return <code>true</code> if the animation started, or <code>false</code>
+     * if the notification is already done, for instance because it was
+     * cancelled through #cancel() while waiting in the queue.
+     */
+    synchronized boolean animate(int displayDuration, int animationSpeed) {
+
+        // the window may be gone already
+        if (finished) {
+            return false;
+        }
+
+        // set the effective durations
+        effectiveDuration = displayDuration;
+        effectiveTimeToAnimate = animationSpeed;
+        effectiveFrameRate = frameRate;
+
+        // lower the animation quality if the event dispatch
+        // thread is overloaded
+        quality = scheduler.getLoadGovernor().getQuality();
+        switch (quality) {
+            case REDUCED:
+                int reduced = scheduler.getLoadGovernor().getReducedFrameRate();
+                if ((effectiveFrameRate == 0) || (effectiveFrameRate > reduced)) {
+                    effectiveFrameRate = reduced;
+                }
+                break;
+            case INSTANT:
+                effectiveTimeToAnimate = 0;
+                break;
+            case SUPPRESSED:
+                effectiveTimeToAnimate = 0;
+                effectiveFrameRate = 1;
+                break;
+            default:
+                break;
+        }
+
+        // pick the effect, falling back to sliding if translucency
+        // is not supported
+        AnimationEffect effect = (animationEffect != null) ? animationEffect : defaultAnimationEffect;
+        if (quality == AnimationQuality.FADE) {
+            effect = AnimationEffect.FADE;
+        }
+        fading = false;
+        if ((effect == AnimationEffect.FADE) && (effectiveTimeToAnimate > 0)) {
+            if (window.isTranslucencySupported()) {
+                fading = true;
+            } else if (quality == AnimationQuality.FADE) {
+                effectiveTimeToAnimate = 0;
+            }
+        }
+
+        // reduced motion: a two-step fade, or instant placement, and
+        // one frame per second while displayed
+        if (isMotionReduced()) {
+            if ((effectiveTimeToAnimate > 0) && (window.isTranslucencySupported())) {
+                fading = true;
+                effectiveFrameRate = Math.max(1, 2000 / effectiveTimeToAnimate);
+            } else {
+                fading = false;
+                effectiveTimeToAnimate = 0;
+                effectiveFrameRate = 1;
+            }
+        }
 
         // set the animation state
         animationFrame = AnimationFrame.ONSHOW;
+        dismissed = false;
 
-        // define some window properties
-        setCurrentWindowAlwaysOnTop(true);
-        setCurrentWindowVisible(true);
+        // report clicks
+        if (handle != null) {
+            final NotificationHandle target = handle;
+            window.setClickListener(new Runnable() {
+
+                public void run() {
+                    target.click();
+                }
+            });
+        }
 
-        // defines the animator handler from Timing Framework
-        // first animator handler
-        animatorHandlerOnShow = new Animator(timeToAnimate, 1, Animator.RepeatBehavior.LOOP, this);
+        // stack on top of the notifications of other processes
+        reserveArea();
+
+        // a fading window is placed once, fully transparent
+        if (fading) {
+            window.setOpacity(0);
+            setCurrentWindowBounds((int) positionX, (int) positionY, thisWidth, thisHeight);
+        }
+
+        // define some window properties, measuring how long it takes
+        // to show the window
+        setCurrentWindowAlwaysOnTop(true);
+        StallDetector detector = stallDetector;
+        if (detector == null) {
+            setCurrentWindowVisible(true);
+        } else {
+            long started = detector.enter();
+            try {
+                setCurrentWindowVisible(true);
+            } finally {
+                detector.exit(this, StallDetector.Callback.SHOW, started);
+            }
+        }
 
-        // start animation
-        animatorHandlerOnShow.start();
+        // defines the first animator handler through the
+        // scheduler and start animation
+        animatorHandlerOnShow = scheduler.startAnimation(effectiveTimeToAnimate, 0, effectiveFrameRate, this);
+        return true;
     }
 
     /**
      * Checks if the notification process is still running. It basically calls the
-     * <code>isRunning</code> method from <code>org.jdesktop.animation.timing.Animator</code>.
+     * <code>isRunning</code> method of each animator.
      * @return <code>true</code> if the notification is still running, or <code>false</code>
      * otherwise.
      */
-    public boolean isRunning() {
-        if ((animatorHandlerOnShow.isRunning())
-                || (animatorHandlerOnDisplay.isRunning())
-                || (animatorHandlerOnClose).isRunning()) {
+    public synchronized boolean isRunning() {
+        if (((animatorHandlerOnShow != null) && (animatorHandlerOnShow.isRunning()))
+                || ((animatorHandlerOnDisplay != null) && (animatorHandlerOnDisplay.isRunning()))
+                || ((animatorHandlerOnClose != null) && (animatorHandlerOnClose.isRunning()))) {
             return true;
         } else {
             return false;
         }
     }
 
+    /**
+     * Dismisses the notification early. If the window is being shown or
+     * displayed, it jumps straight to the closing animation, starting from
+     * its current position. Nothing happens if the notification is not
+     * running or if it is already closing. Check the following example:
+     * @code
+     * JWindow window = new JWindow();
+     * Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 10000);
+     * note.animate();
+     * ...
+     * note.dismiss();
+     * @endcode
+     * When using <b>net.sf.jcarrierpigeon.NotificationQueue</b>, please use
+     * the handle returned by NotificationQueue#add() instead.
+     */
+    public synchronized void dismiss() {
+
+        // check if there is something to dismiss
+        if ((finished) || (animationFrame == null) || (animationFrame == AnimationFrame.ONCLOSE)) {
+            return;
+        }
+
+        // stop the current animator, keeping the current position
+        float startFraction = 0;
+        if (animationFrame == AnimationFrame.ONSHOW) {
+            startFraction = 1 - animatorHandlerOnShow.getTimingFraction();
+            animatorHandlerOnShow.cancel();
+        } else {
+            animatorHandlerOnDisplay.cancel();
+        }
+
+        // sets the current animation state
+        animationFrame = AnimationFrame.ONCLOSE;
+        dismissed = true;
+
+        // create a new animation handler and run it
+        animatorHandlerOnClose = scheduler.startAnimation(effectiveTimeToAnimate,
+                Math.max(0, Math.min(1, startFraction)), effectiveFrameRate, this);
+    }
+
+    /**
+     * Cancels the notification. All animators are stopped and the window is
+     * hidden and disposed right away, with no closing animation. Nothing
+     * happens if the window is already disposed. When using
+     * <b>net.sf.jcarrierpigeon.NotificationQueue</b>, please use the handle
+     * returned by NotificationQueue#add() instead.
+     */
+    public void cancel() {
+        NotificationHandle.holdSteps();
+        try {
+            stop();
+        } finally {
+            NotificationHandle.releaseSteps();
+        }
+    }
+
+    /**
+     * Cancels the notification with the lock held. The steps of the
+     * lifecycle reported meanwhile are delivered by #cancel() once the lock
+     * is released.
+     */
+    private synchronized void stop() {
+
+        // check if the window is still there
+        if (finished) {
+            return;
+        }
+
+        // stop the animators, without calling end()
+        if (animatorHandlerOnShow != null) {
+            animatorHandlerOnShow.cancel();
+        }
+        if (animatorHandlerOnDisplay != null) {
+            animatorHandlerOnDisplay.cancel();
+        }
+        if (animatorHandlerOnClose != null) {
+            animatorHandlerOnClose.cancel();
+        }
+
+        // hide and dispose window
+        setCurrentWindowVisible(false);
+        restoreOpacity();
+        disposeCurrentWindow();
+        markFinished();
+        if (handle != null) {
+            handle.fire(NotificationEvent.Type.CANCELLED);
+        }
+    }
+
     /**
      * Sets the bounds of the current window. It's basically a call to the
-     * inner window <code>setBounds</code> method.
+     * window backend <code>setBounds</code> method, skipped when the bounds
+     * did not change since the last call, as in every frame of the display
+     * state; the size of the window never changes.
      * @param x Coordinate X
      * @param y Coordinate Y
      * @param width Width
      * @param height Height
      */
     private void setCurrentWindowBounds(int x, int y, int width, int height) {
-        switch (windowType) {
-            case JFRAME:
-                windowJFrame.setBounds(x, y, width, height);
-                break;
-            case JWINDOW:
-                windowJWindow.setBounds(x, y, width, height);
-                break;
+        if ((x == boundsX) && (y == boundsY)) {
+            return;
         }
+        boundsX = x;
+        boundsY = y;
+        window.setBounds(x, y, width, height);
     }
 
     /**
      * Sets the visibility of the current window. It's basically a call to the
-     * inner window <code>setVisible</code> method.
+     * window backend <code>setVisible</code> method.
      * @param value <code>true</code> if window should be visible, or <code>false</code>
      * otherwise.
      */
     private void setCurrentWindowVisible(boolean value) {
-        switch (windowType) {
-            case JFRAME:
-                windowJFrame.setVisible(value);
-                break;
-            case JWINDOW:
-                windowJWindow.setVisible(value);
-                break;
-        }
+        window.setVisible(value);
     }
 
     /**
      * Sets the window parameter of being on top of other windows. It's basically
-     * a call to the inner window <code>setAlwaysOnTop</code> method.
+     * a call to the window backend <code>setAlwaysOnTop</code> method.
      * @param value <code>true</code> if window should be on top of other windows, or
      * <code>false</code> otherwise.
      */
     private void setCurrentWindowAlwaysOnTop(boolean value) {
-        switch (windowType) {
-            case JFRAME:
-                windowJFrame.setAlwaysOnTop(value);
-                break;
-            case JWINDOW:
-                windowJWindow.setAlwaysOnTop(value);
-                break;
+        window.setAlwaysOnTop(value);
+    }
+
+    /**
+     * Restores the opacity of the current window after a fade, so the window
+     * may be reused.
+     */
+    private void restoreOpacity() {
+        if (fading) {
+            window.setOpacity(1);
         }
     }
 
     /**
-     * Dispose the current window. It's basically a call to the inner window
+     * Dispose the current window. It's basically a call to the window backend
      * <code>dispose</code> method.
      */
     private void disposeCurrentWindow() {
-        switch (windowType) {
-            case JFRAME:
-                windowJFrame.dispose();
-                break;
-            case JWINDOW:
-                windowJWindow.dispose();
-                break;
-        }
+        window.dispose();
     }
 
     /**
@@ -522,4 +843,509 @@ public class Notification implements TimingTarget {
     public void setAnimationSpeed(int milliseconds) {
         this.timeToAnimate = milliseconds;
     }
+
+    /**
+     * Gets the animation speed, that is, the duration of the show and
+     * close effects.
+     * @return The notification effects duration in milliseconds.
+     */
+    public int getAnimationSpeed() {
+        return timeToAnimate;
+    }
+
+    /**
+     * Sets the maximum frame rate of the animations of this notification.
+     * Whatever the frame rate, the window position is calculated from the
+     * time elapsed since the animation started, so the show and close effects
+     * take the same time; a lower frame rate only means fewer window moves,
+     * which is useful for heavy windows or slow displays. Check the following
+     * example:
+     * @code
+     * JWindow window = new JWindow();
+     * Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 1000);
+     * note.setFrameRate(30);
+     * note.animate();
+     * @endcode
+     * @param framesPerSecond The maximum number of frames per second, or 0
+     * for no limit other than the scheduler resolution.
+     */
+    public void setFrameRate(int framesPerSecond) {
+        this.frameRate = Math.max(0, framesPerSecond);
+    }
+
+    /**
+     * Gets the maximum frame rate of the animations of this notification.
+     * @return The maximum number of frames per second, or 0 if there is no
+     * limit.
+     */
+    public int getFrameRate() {
+        return frameRate;
+    }
+
+    /**
+     * Gets the frame rate actually achieved by the current animation of
+     * this notification, or by the last one if the notification is over.
+     * It may be lower than the expected one when the event dispatch thread
+     * is busy, since late frames are skipped.
+     * @return The effective frame rate in frames per second, or 0 if the
+     * notification was not animated yet.
+     */
+    public synchronized float getEffectiveFrameRate() {
+        Animation animation = animatorHandlerOnClose;
+        if (animation == null) {
+            animation = animatorHandlerOnDisplay;
+        }
+        if (animation == null) {
+            animation = animatorHandlerOnShow;
+        }
+        return (animation == null) ? 0 : animation.getFrameRate();
+    }
+
+    /**
+     * Sets the effect used to show and close this notification, overriding
+     * the default one. Check the following example:
+     * @code
+     * JWindow window = new JWindow();
+     * Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 1000);
+     * note.setAnimationEffect(AnimationEffect.FADE);
+     * note.animate();
+     * @endcode
+     * A fading window is moved only once and then only its opacity changes,
+     * which is much cheaper than moving it on every frame, especially over
+     * remote displays. If the window does not support translucency, for
+     * instance a decorated <code>javax.swing.JFrame</code> object or a
+     * screen device without <code>WindowTranslucency.TRANSLUCENT</code>,
+     * it slides instead.
+     * @param effect The animation effect, or <code>null</code> in order to
+     * use the default one.
+     */
+    public void setAnimationEffect(AnimationEffect effect) {
+        this.animationEffect = effect;
+    }
+
+    /**
+     * Gets the effect set for this notification.
+     * @return The animation effect, or <code>null</code> if this notification
+     * uses the default one.
+     */
+    public AnimationEffect getAnimationEffect() {
+        return animationEffect;
+    }
+
+    /**
+     * Sets the effect used by every notification with no effect of its own,
+     * which is <code>AnimationEffect.SLIDE</code> by default.
+     * @param effect The default animation effect.
+     */
+    public static void setDefaultAnimationEffect(AnimationEffect effect) {
+        defaultAnimationEffect = (effect != null) ? effect : AnimationEffect.SLIDE;
+    }
+
+    /**
+     * Gets the effect used by every notification with no effect of its own.
+     * @return The default animation effect.
+     */
+    public static AnimationEffect getDefaultAnimationEffect() {
+        return defaultAnimationEffect;
+    }
+
+    /**
+     * Sets how much motion the notification animations may have. On remote
+     * sessions, such as RDP, VNC or a forwarded X display, every window move
+     * is a network round trip, so a notification sliding in and out may take
+     * hundreds of them. With reduced motion, windows fade in and out in two
+     * steps when translucency is supported, or are placed instantly
+     * otherwise. The default preference, <code>MotionPreference.AUTO</code>,
+     * reduces motion when <b>net.sf.jcarrierpigeon.RemoteSession</b> detects
+     * a remote session, except for headless windows. Check the following
+     * example:
+     * @code
+     * Notification.setMotionPreference(MotionPreference.REDUCED);
+     * @endcode
+     * The preference is taken into account when each notification starts
+     * animating.
+     * @param preference The motion preference.
+     */
+    public static void setMotionPreference(MotionPreference preference) {
+        motionPreference = (preference != null) ? preference : MotionPreference.AUTO;
+    }
+
+    /**
+     * Gets how much motion the notification animations may have.
+     * @return The motion preference.
+     */
+    public static MotionPreference getMotionPreference() {
+        return motionPreference;
+    }
+
+    /**
+     * Sets the stall detector watching the callbacks of every notification,
+     * so the ones stalling the event dispatch thread, for instance because
+     * of an expensive paint method, are reported. Check
+     * <b>net.sf.jcarrierpigeon.StallDetector</b> for an example.
+     * @param detector The stall detector, or <code>null</code> in order to
+     * stop watching.
+     */
+    public static void setStallDetector(StallDetector detector) {
+        stallDetector = detector;
+    }
+
+    /**
+     * Gets the stall detector watching the callbacks of every notification.
+     * @return The stall detector, or <code>null</code> if there is none.
+     */
+    public static StallDetector getStallDetector() {
+        return stallDetector;
+    }
+
+    /**
+     * Sets the screen occupancy shared with other processes, so notifications
+     * of different applications stack instead of overlapping. Check
+     * <b>net.sf.jcarrierpigeon.ScreenOccupancy</b> for an example.
+     * @param occupancy The screen occupancy, or <code>null</code> in order
+     * to stop sharing.
+     */
+    public static void setScreenOccupancy(ScreenOccupancy occupancy) {
+        screenOccupancy = occupancy;
+    }
+
+    /**
+     * Gets the screen occupancy shared with other processes.
+     * @return The screen occupancy, or <code>null</code> if there is none.
+     */
+    public static ScreenOccupancy getScreenOccupancy() {
+        return screenOccupancy;
+    }
+
+    /**
+     * Checks if motion is reduced for this notification, according to the
+     * motion preference.
+     * @return <code>true</code> if motion is reduced, or <code>false</code>
+     * otherwise.
+     */
+    private boolean isMotionReduced() {
+        switch (motionPreference) {
+            case REDUCED:
+                return true;
+            case FULL:
+                return false;
+            default:
+                return (windowType != WindowType.HEADLESS) && (RemoteSession.isRemote());
+        }
+    }
+
+    /**
+     * Gets the quality of the current animation of this notification, as
+     * set by the load governor of its scheduler when the animation started.
+     * @return The animation quality, or <code>null</code> if the notification
+     * was not animated yet.
+     */
+    public synchronized AnimationQuality getAnimationQuality() {
+        return quality;
+    }
+
+    /**
+     * Gets the notification display duration, as provided in the
+     * constructor method.
+     * @return The notification display duration in milliseconds.
+     */
+    public int getDuration() {
+        return duration;
+    }
+
+    /**
+     * Sets the time to live of this notification, counting from now, according
+     * to the clock of its scheduler. If the
+     * notification is still waiting in <b>net.sf.jcarrierpigeon.NotificationQueue</b>
+     * when this time is over, it is discarded instead of being displayed late.
+     * Check the following example:
+     * @code
+     * JWindow window = new JWindow();
+     * Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 1000);
+     * note.setTimeToLive(30000);
+     * NotificationQueue queue = new NotificationQueue();
+     * queue.add(note);
+     * @endcode
+     * Please note this setting is only taken into account by the queue
+     * manager, so it has no effect on notifications already being displayed.
+     * It may be changed while the notification is still waiting in the queue.
+     * @param milliseconds The time to live in milliseconds.
+     */
+    public void setTimeToLive(long milliseconds) {
+        changeDeadline(scheduler.currentTimeMillis() + milliseconds, milliseconds);
+    }
+
+    /**
+     * Sets the expiry deadline of this notification as an absolute time, in
+     * the same scale of the clock of its scheduler, which is
+     * <code>System.currentTimeMillis()</code> by default. It has the
+     * very same effect of #setTimeToLive(), but it is more convenient when
+     * the deadline is already known.
+     * @param timeInMillis The deadline in milliseconds since the epoch. Use
+     * <code>Long.MAX_VALUE</code> to disable the expiry.
+     */
+    public void setDeadline(long timeInMillis) {
+        changeDeadline(timeInMillis, -1);
+    }
+
+    /**
+     * Changes the expiry deadline. If the notification is waiting in a queue
+     * manager, the queue does it, so its expiry heap is kept in order.
+     * @param deadline The new deadline.
+     * @param timeToLive The time to live it came from, or -1 if none.
+     */
+    private void changeDeadline(long deadline, long timeToLive) {
+        NotificationHandle current = handle;
+        if ((current != null) && (current.getQueue() != null)) {
+            current.getQueue().reschedule(this, deadline, timeToLive);
+        } else {
+            assignDeadline(deadline, timeToLive);
+        }
+    }
+
+    /**
+     * Assigns the expiry deadline, with no further checks.
+     * @param deadline The new deadline.
+     * @param timeToLive The time to live it came from, or -1 if none.
+     */
+    void assignDeadline(long deadline, long timeToLive) {
+        this.deadline = deadline;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Gets the expiry deadline of this notification.
+     * @return The deadline in milliseconds since the epoch, or
+     * <code>Long.MAX_VALUE</code> if this notification never expires.
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Checks if this notification has an expiry deadline.
+     * @return <code>true</code> if this notification may expire, or
+     * <code>false</code> otherwise.
+     */
+    public boolean hasDeadline() {
+        return deadline != Long.MAX_VALUE;
+    }
+
+    /**
+     * Sets the scheduler behind the animations of this notification, which
+     * is a <b>net.sf.jcarrierpigeon.SwingScheduler</b> object by default.
+     * Notifications added to <b>net.sf.jcarrierpigeon.NotificationQueue</b>
+     * take the scheduler of the queue, so there is no need of calling this
+     * method in that case. If the time to live was already set, it is counted
+     * again from now, according to the new clock.
+     * @param scheduler The <b>net.sf.jcarrierpigeon.Scheduler</b> object.
+     */
+    public synchronized void setScheduler(Scheduler scheduler) {
+        if (this.scheduler != scheduler) {
+            this.scheduler = scheduler;
+            if (timeToLive >= 0) {
+                this.deadline = scheduler.currentTimeMillis() + timeToLive;
+            }
+        }
+    }
+
+    /**
+     * Sets the grouping key of this notification. Notifications sharing the
+     * same key are handled together by the queue manager, for instance when
+     * a burst of them is collapsed into a single summary notification. Check
+     * the following example:
+     * @code
+     * JWindow window = new JWindow();
+     * Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 1000);
+     * note.setKey("mail");
+     * note.setMessage("New message from John");
+     * @endcode
+     * @param key The grouping key, or <code>null</code> for no key at all.
+     */
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Gets the grouping key of this notification.
+     * @return The grouping key, or <code>null</code> if there is no key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Sets a short text describing this notification. The window content is
+     * still up to you; this text is used when the notification is listed
+     * instead of being displayed, for instance in a summary notification.
+     * @param message A short text describing this notification.
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Gets the short text describing this notification.
+     * @return The text describing this notification, or <code>null</code>
+     * if there is no text.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets the window position on screen.
+     * @return The window position.
+     */
+    public WindowPosition getWindowPosition() {
+        return windowPosition;
+    }
+
+    /**
+     * Gets the window backend of this notification.
+     * @return The window backend, or <code>null</code> once the notification
+     * is done and its resources are released.
+     */
+    WindowBackend getWindowBackend() {
+        return window;
+    }
+
+    /**
+     * Checks if this notification is done, that is, if its window is gone,
+     * no matter if it was displayed, cancelled or discarded.
+     * @return <code>true</code> if the notification is done, or
+     * <code>false</code> otherwise.
+     */
+    synchronized boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Gets the distance in pixels the window keeps from the X axis border.
+     * @return The distance in pixels.
+     */
+    int getBorderX() {
+        return (int) borderX;
+    }
+
+    /**
+     * Gets the distance in pixels the window keeps from the Y axis border.
+     * @return The distance in pixels.
+     */
+    int getBorderY() {
+        return (int) borderY;
+    }
+
+    /**
+     * Checks if the expiry deadline of this notification is over.
+     * @param now The current time in milliseconds since the epoch.
+     * @return <code>true</code> if the notification is expired, or
+     * <code>false</code> otherwise.
+     */
+    boolean isExpiredAt(long now) {
+        return deadline <= now;
+    }
+
+    /**
+     * Attaches a content updater to this notification, so its content is
+     * rendered on each frame.
+     * @param updater The content updater.
+     */
+    synchronized void addUpdater(ContentUpdater<?> updater) {
+        if (finished) {
+            return;
+        }
+        ContentUpdater<?>[] grown = new ContentUpdater<?>[updaters.length + 1];
+        System.arraycopy(updaters, 0, grown, 0, updaters.length);
+        grown[updaters.length] = updater;
+        updaters = grown;
+    }
+
+    /**
+     * Reserves an area of the corner in the shared screen occupancy, if
+     * there is one, moving the window away from the corner past the areas
+     * reserved by other notifications. The window stays at the corner if
+     * there is no room left.
+     */
+    private void reserveArea() {
+        ScreenOccupancy shared = screenOccupancy;
+        if ((shared == null) || (reservation != null)) {
+            return;
+        }
+        reservation = shared.reserve(windowPosition, (int) (thisHeight + borderY), (int) boundY);
+        if (reservation == null) {
+            return;
+        }
+        occupancy = shared;
+        int offset = shared.getOffset(reservation);
+        switch (windowPosition) {
+            case BOTTOMRIGHT:
+            case BOTTOMLEFT:
+                positionY -= offset;
+                break;
+            default:
+                positionY += offset;
+                break;
+        }
+    }
+
+    /**
+     * Releases the area reserved in the shared screen occupancy, if any,
+     * moving the window position back to the corner.
+     */
+    private void releaseArea() {
+        if (reservation == null) {
+            return;
+        }
+        int offset = occupancy.getOffset(reservation);
+        switch (windowPosition) {
+            case BOTTOMRIGHT:
+            case BOTTOMLEFT:
+                positionY += offset;
+                break;
+            default:
+                positionY -= offset;
+                break;
+        }
+        occupancy.release(reservation);
+        occupancy = null;
+        reservation = null;
+    }
+
+    /**
+     * Marks this notification as done, telling the journal if there is one.
+     */
+    private void markFinished() {
+        finished = true;
+        releaseArea();
+        if (handle != null) {
+            window.setClickListener(null);
+        }
+
+        // release the window, the animators and the updaters, so a finished
+        // notification retains nothing heavy, no matter who keeps it
+        window = null;
+        animatorHandlerOnShow = null;
+        animatorHandlerOnDisplay = null;
+        animatorHandlerOnClose = null;
+        updaters = NO_UPDATERS;
+        if (journal != null) {
+            journal.done(journalId);
+            journal = null;
+        }
+    }
+
+    /**
+     * Discards this notification without displaying it. The window is
+     * disposed, exactly as it would be after the animation is done. This
+     * method is used by the queue manager for purged notifications, and
+     * nothing happens if the notification is already done.
+     */
+    synchronized void discard() {
+        if (finished) {
+            return;
+        }
+        disposeCurrentWindow();
+        markFinished();
+    }
 }
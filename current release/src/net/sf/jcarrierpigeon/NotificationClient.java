@@ -0,0 +1,296 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>NotificationClient.java</b>: sends notifications to a notification
+ * daemon running in another process.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Sends notifications to a <b>net.sf.jcarrierpigeon.NotificationDaemon</b>
+ * object running in another process, which displays them. Check the
+ * following example:
+ * @code
+ * NotificationClient client = NotificationClient.connect(NotificationDaemon.DEFAULT_PORT);
+ * client.send(new NotificationData("build", "Build finished", WindowPosition.BOTTOMRIGHT, 25, 25, 5000));
+ * ...
+ * client.close();
+ * @endcode
+ * Sending a notification only encodes it into a buffer in memory, which
+ * takes a few microseconds; a daemon thread writes the buffer to the socket
+ * in batches, swapping it with a second buffer, so the caller never waits for
+ * the network unless both buffers are full. Errors of the writer thread are
+ * reported by the next call to #send(). This class is thread safe.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class NotificationClient {
+
+    // the initial size of each buffer
+    private static final int BUFFER_SIZE = 65536;
+
+    private final SocketChannel channel;
+    // the buffer being filled and the one being written
+    private final Object lock = new Object();
+    private ByteBuffer active;
+    private ByteBuffer spare;
+    private boolean writing;
+    private boolean closed;
+    private IOException failure;
+    private long sent;
+    private final Thread writer;
+
+    /**
+     * Constructor method.
+     * @param channel The connected channel, already greeted.
+     */
+    private NotificationClient(SocketChannel channel) {
+        this.channel = channel;
+        this.active = ByteBuffer.allocate(BUFFER_SIZE);
+        this.spare = ByteBuffer.allocate(BUFFER_SIZE);
+        this.writing = false;
+        this.closed = false;
+        this.failure = null;
+        this.sent = 0;
+        this.writer = new Thread(new Runnable() {
+
+            public void run() {
+                write();
+            }
+        }, "JCarrierPigeon client");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Connects to a daemon on the local host.
+     * @param port The port of the daemon.
+     * @return The client.
+     * @throws IOException If there is no daemon listening on that port.
+     */
+    public static NotificationClient connect(int port) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            channel.socket().setTcpNoDelay(true);
+            ByteBuffer greeting = ByteBuffer.allocate(8);
+            greeting.putInt(NotificationDaemon.MAGIC);
+            greeting.putInt(NotificationDaemon.VERSION);
+            greeting.flip();
+            while (greeting.hasRemaining()) {
+                channel.write(greeting);
+            }
+        } catch (IOException exception) {
+            channel.close();
+            throw exception;
+        }
+        return new NotificationClient(channel);
+    }
+
+    /**
+     * Sends a notification. It is buffered and written to the daemon shortly.
+     * @param data The description of the notification.
+     * @throws IOException If the connection is closed or broken.
+     */
+    public void send(NotificationData data) throws IOException {
+        int size = 4 + data.getEncodedSize();
+        if (size - 4 > NotificationDaemon.MAXIMUM_FRAME) {
+            throw new IOException("The notification is too large to be sent");
+        }
+        synchronized (lock) {
+            check();
+
+            // wait for the writer if the buffer is full, or grow it if it
+            // cannot hold this notification at all
+            while (active.remaining() < size) {
+                if (active.position() == 0) {
+                    active = ByteBuffer.allocate(size);
+                } else {
+                    lock.notifyAll();
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while sending a notification");
+                    }
+                    check();
+                }
+            }
+
+            // encode it, waking up the writer if it is idle
+            boolean empty = active.position() == 0;
+            active.putInt(size - 4);
+            data.encode(active);
+            sent++;
+            if ((empty) && (!writing)) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Checks if the client may still send notifications.
+     * @throws IOException If the connection is closed or broken.
+     */
+    private void check() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new IOException("The client is closed");
+        }
+    }
+
+    /**
+     * Waits until every notification sent so far is written to the daemon.
+     * @throws IOException If the connection is broken.
+     */
+    public void flush() throws IOException {
+        synchronized (lock) {
+            while (((active.position() > 0) || (writing)) && (failure == null)) {
+                lock.notifyAll();
+                try {
+                    lock.wait();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while flushing notifications");
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Writes every notification sent so far and closes the connection.
+     * @throws IOException If the connection is broken.
+     */
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            synchronized (lock) {
+                closed = true;
+                lock.notifyAll();
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * Gets the number of notifications sent so far.
+     * @return The number of notifications.
+     */
+    public long getSentCount() {
+        synchronized (lock) {
+            return sent;
+        }
+    }
+
+    /**
+     * Writes the buffers to the socket until the client is closed. This
+     * method is run by the writer thread.
+     */
+    private void write() {
+        while (true) {
+
+            // take the filled buffer, leaving the spare one in its place
+            ByteBuffer batch;
+            synchronized (lock) {
+                while ((active.position() == 0) && (!closed)) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException exception) {
+                        return;
+                    }
+                }
+                if (active.position() == 0) {
+                    return;
+                }
+                batch = active;
+                active = spare;
+                spare = null;
+                writing = true;
+                lock.notifyAll();
+            }
+
+            // write it, with no lock held
+            IOException error = null;
+            batch.flip();
+            try {
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+            } catch (IOException exception) {
+                error = exception;
+            }
+            batch.clear();
+
+            // give the buffer back
+            synchronized (lock) {
+                spare = batch;
+                writing = false;
+                if (error != null) {
+                    failure = error;
+                }
+                lock.notifyAll();
+                if (error != null) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,354 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>NotificationDaemon.java</b>: owns the screen on behalf of several
+ * applications, displaying the notifications they send over a loopback
+ * socket.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.SwingUtilities;
+
+/**
+ * Owns the screen on behalf of several applications. When many applications
+ * on the same workstation display notifications on their own, their windows
+ * overlap, and each one pays for the whole Swing startup just for that. With
+ * a daemon, a single process owns the queue manager and the screen, and the
+ * other ones send their notifications through <b>net.sf.jcarrierpigeon.NotificationClient</b>.
+ * Check the following example:
+ * @code
+ * NotificationDaemon daemon = new NotificationDaemon(new NotificationQueue(),
+ *         new MessageNotificationFactory(), NotificationDaemon.DEFAULT_PORT);
+ * daemon.start();
+ * @endcode
+ * The daemon only listens on the loopback interface. Each client connection
+ * starts with a short greeting, followed by a stream of frames, each one
+ * holding the length and the compact binary encoding of a
+ * <b>net.sf.jcarrierpigeon.NotificationData</b> object. Every connection is
+ * served by its own daemon thread, up to 16 connections by default, so the
+ * ones beyond the limit are closed right away. The reader threads only decode
+ * the frames; the notifications are built through the factory and added to
+ * the queue on the event dispatch thread, in batches, and a reader waits
+ * whenever 256 frames of its connection are still pending, so a runaway
+ * client cannot flood the event queue. TCP on the loopback interface is used
+ * instead of Unix domain sockets, which are only available from Java 16 on;
+ * there is no authentication, so any local process may display notifications.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class NotificationDaemon {
+
+    /**
+     * The default port of the daemon.
+     */
+    public static final int DEFAULT_PORT = 47474;
+
+    // the greeting of the protocol and the largest frame accepted
+    static final int MAGIC = 0x4a435044;
+    static final int VERSION = 1;
+    static final int MAXIMUM_FRAME = 1 << 20;
+    // the largest number of frames of a connection waiting for
+    // the event dispatch thread
+    private static final int MAXIMUM_PENDING = 256;
+
+    private final NotificationQueue queue;
+    private final NotificationFactory factory;
+    private final int port;
+    private ServerSocket server;
+    private volatile boolean running;
+    // the open connections and their limit
+    private final AtomicInteger connections;
+    private volatile int maximumConnections;
+    // figures
+    private final AtomicLong received;
+    private final AtomicLong rejected;
+
+    /**
+     * Constructor method.
+     * @param queue The queue manager which displays the notifications.
+     * @param factory The factory which builds each notification.
+     * @param port The port to listen on, or 0 for any free port.
+     */
+    public NotificationDaemon(NotificationQueue queue, NotificationFactory factory, int port) {
+        this.queue = queue;
+        this.factory = factory;
+        this.port = port;
+        this.running = false;
+        this.connections = new AtomicInteger();
+        this.maximumConnections = 16;
+        this.received = new AtomicLong();
+        this.rejected = new AtomicLong();
+    }
+
+    /**
+     * Starts listening. If another daemon is already listening on the same
+     * port, an exception is thrown, so the caller may become a client instead.
+     * @throws IOException If the port cannot be bound.
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        server = new ServerSocket();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 50);
+        running = true;
+        Thread acceptor = new Thread(new Runnable() {
+
+            public void run() {
+                accept();
+            }
+        }, "JCarrierPigeon daemon");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Stops listening. Connections already open are closed by their clients.
+     * @throws IOException If the socket cannot be closed.
+     */
+    public synchronized void close() throws IOException {
+        running = false;
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    /**
+     * Gets the port the daemon is listening on.
+     * @return The port, or -1 if the daemon is not running.
+     */
+    public synchronized int getPort() {
+        return (server != null) ? server.getLocalPort() : -1;
+    }
+
+    /**
+     * Sets the largest number of connections served at the same time. The
+     * connections beyond it are closed right away and counted as rejected.
+     * @param maximum The largest number of connections, 16 by default.
+     */
+    public void setMaximumConnections(int maximum) {
+        this.maximumConnections = Math.max(1, maximum);
+    }
+
+    /**
+     * Gets the number of connections being served.
+     * @return The number of connections.
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Gets the number of notifications received so far.
+     * @return The number of notifications.
+     */
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    /**
+     * Gets the number of connections rejected so far, because of a bad
+     * greeting, a malformed frame or too many connections.
+     * @return The number of connections.
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Accepts connections until the daemon is closed.
+     */
+    private void accept() {
+        while (running) {
+            final Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException exception) {
+                return;
+            }
+
+            // check the limit
+            if (connections.incrementAndGet() > maximumConnections) {
+                connections.decrementAndGet();
+                rejected.incrementAndGet();
+                try {
+                    socket.close();
+                } catch (IOException exception) {
+                    // nothing else to do
+                }
+                continue;
+            }
+            Thread reader = new Thread(new Runnable() {
+
+                public void run() {
+                    try {
+                        serve(socket);
+                    } finally {
+                        connections.decrementAndGet();
+                    }
+                }
+            }, "JCarrierPigeon daemon connection");
+            reader.setDaemon(true);
+            reader.start();
+        }
+    }
+
+    /**
+     * Serves a client connection until it is closed.
+     * @param socket The connection.
+     */
+    private void serve(Socket socket) {
+        try {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 65536));
+
+            // check the greeting
+            if ((input.readInt() != MAGIC) || (input.readInt() != VERSION)) {
+                rejected.incrementAndGet();
+                return;
+            }
+
+            // read the frames
+            Delivery delivery = new Delivery();
+            byte[] frame = new byte[256];
+            while (running) {
+                int length;
+                try {
+                    length = input.readInt();
+                } catch (EOFException exception) {
+                    return;
+                }
+                if ((length <= 0) || (length > MAXIMUM_FRAME)) {
+                    rejected.incrementAndGet();
+                    return;
+                }
+                if (frame.length < length) {
+                    frame = new byte[Math.max(length, frame.length * 2)];
+                }
+                input.readFully(frame, 0, length);
+                NotificationData data;
+                try {
+                    data = NotificationData.decode(ByteBuffer.wrap(frame, 0, length));
+                } catch (RuntimeException exception) {
+                    rejected.incrementAndGet();
+                    return;
+                }
+                delivery.offer(data);
+            }
+        } catch (IOException exception) {
+            // the client is gone
+        } catch (InterruptedException exception) {
+            // the daemon is gone
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException exception) {
+                // nothing else to do
+            }
+        }
+    }
+
+    /**
+     * Hands the frames of a connection over to the event dispatch thread,
+     * which builds the notifications and adds them to the queue.
+     */
+    private class Delivery implements Runnable {
+
+        // the frames waiting for the event dispatch thread, and
+        // whether they are already posted to it
+        private final ArrayDeque<NotificationData> pending = new ArrayDeque<NotificationData>();
+        private boolean posted = false;
+
+        /**
+         * Adds a frame, waiting while too many of them are pending. This
+         * method is called by the reader thread.
+         * @param data The notification data.
+         * @throws InterruptedException If the reader thread is interrupted.
+         */
+        synchronized void offer(NotificationData data) throws InterruptedException {
+            while (pending.size() >= MAXIMUM_PENDING) {
+                wait();
+            }
+            pending.add(data);
+            if (!posted) {
+                posted = true;
+                SwingUtilities.invokeLater(this);
+            }
+        }
+
+        /**
+         * Builds and adds every pending notification. This method is called
+         * on the event dispatch thread.
+         */
+        public void run() {
+            NotificationData[] batch;
+            synchronized (this) {
+                batch = pending.toArray(new NotificationData[pending.size()]);
+                pending.clear();
+                posted = false;
+                notifyAll();
+            }
+            for (NotificationData data : batch) {
+                queue.add(factory.createNotification(data));
+                received.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>NotificationData.java</b>: describes a notification without its
+ * window, so it may be stored, sent or scheduled and rebuilt later.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Describes a notification without its window, that is, everything but the
+ * window content. Windows cannot be stored or sent to another process, so
+ * whenever a notification has to outlive its window, it is kept as this
+ * description and rebuilt later through <b>net.sf.jcarrierpigeon.NotificationFactory</b>.
+ * The very same compact binary encoding is used by the journal and by the
+ * daemon protocol.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class NotificationData {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    // size of the encoding without the strings
+    private static final int FIXED_SIZE = 33;
+
+    private String key;
+    private String message;
+    private WindowPosition windowPosition;
+    private int borderX;
+    private int borderY;
+    private int duration;
+    private int animationSpeed;
+    private long deadline;
+    // the encoded strings, created on demand
+    private byte[] keyBytes;
+    private byte[] messageBytes;
+
+    /**
+     * Constructor method. The animation speed is 500 milliseconds and there
+     * is no expiry deadline.
+     * @param key The grouping key, or <code>null</code>.
+     * @param message The message, or <code>null</code>.
+     * @param windowPosition The window position.
+     * @param borderX The distance in pixels the window must keep from the X axis border.
+     * @param borderY The distance in pixels the window must keep from the Y axis border.
+     * @param duration The notification display duration in milliseconds.
+     */
+    public NotificationData(String key, String message, WindowPosition windowPosition, int borderX, int borderY, int duration) {
+        this(key, message, windowPosition, borderX, borderY, duration, 500, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructor method.
+     * @param key The grouping key, or <code>null</code>.
+     * @param message The message, or <code>null</code>.
+     * @param windowPosition The window position.
+     * @param borderX The distance in pixels the window must keep from the X axis border.
+     * @param borderY The distance in pixels the window must keep from the Y axis border.
+     * @param duration The notification display duration in milliseconds.
+     * @param animationSpeed The duration of the show and close effects in milliseconds.
+     * @param deadline The expiry deadline in milliseconds, or <code>Long.MAX_VALUE</code>
+     * for no expiry at all.
+     */
+    public NotificationData(String key, String message, WindowPosition windowPosition, int borderX, int borderY,
+            int duration, int animationSpeed, long deadline) {
+        this.key = key;
+        this.message = message;
+        this.windowPosition = windowPosition;
+        this.borderX = borderX;
+        this.borderY = borderY;
+        this.duration = duration;
+        this.animationSpeed = animationSpeed;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Constructor method. Describes an existing notification.
+     * @param notification The notification.
+     */
+    public NotificationData(Notification notification) {
+        this(notification.getKey(), notification.getMessage(), notification.getWindowPosition(),
+                notification.getBorderX(), notification.getBorderY(), notification.getDuration(),
+                notification.getAnimationSpeed(), notification.getDeadline());
+    }
+
+    /**
+     * Sets the attributes of a freshly built notification according to
+     * this description, that is, the key, the message, the animation speed
+     * and the deadline.
+     * @param notification The notification.
+     */
+    public void applyTo(Notification notification) {
+        notification.setKey(key);
+        notification.setMessage(message);
+        notification.setAnimationSpeed(animationSpeed);
+        if (deadline != Long.MAX_VALUE) {
+            notification.setDeadline(deadline);
+        }
+    }
+
+    /**
+     * Gets the size of the binary encoding of this description.
+     * @return The size in bytes.
+     */
+    int getEncodedSize() {
+        if ((keyBytes == null) && (key != null)) {
+            keyBytes = key.getBytes(UTF8);
+        }
+        if ((messageBytes == null) && (message != null)) {
+            messageBytes = message.getBytes(UTF8);
+        }
+        return FIXED_SIZE + ((keyBytes != null) ? keyBytes.length : 0) + ((messageBytes != null) ? messageBytes.length : 0);
+    }
+
+    /**
+     * Writes the binary encoding of this description. The buffer must have
+     * at least #getEncodedSize() bytes remaining.
+     * @param buffer The buffer.
+     */
+    void encode(ByteBuffer buffer) {
+        getEncodedSize();
+        buffer.putLong(deadline);
+        buffer.putInt(duration);
+        buffer.putInt(animationSpeed);
+        buffer.putInt(borderX);
+        buffer.putInt(borderY);
+        buffer.put((byte) windowPosition.ordinal());
+        encode(buffer, keyBytes);
+        encode(buffer, messageBytes);
+    }
+
+    /**
+     * Writes a string.
+     * @param buffer The buffer.
+     * @param bytes The UTF-8 bytes of the string, or <code>null</code>.
+     */
+    private static void encode(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    /**
+     * Reads a description from its binary encoding. The encoding may come
+     * from another process, so nothing in it is trusted: a malformed one is
+     * rejected before anything is allocated for it.
+     * @param buffer The buffer.
+     * @return The description.
+     * @throws IllegalArgumentException If the encoding is malformed.
+     * @throws java.nio.BufferUnderflowException If the encoding is truncated.
+     */
+    static NotificationData decode(ByteBuffer buffer) {
+        long deadline = buffer.getLong();
+        int duration = buffer.getInt();
+        int animationSpeed = buffer.getInt();
+        int borderX = buffer.getInt();
+        int borderY = buffer.getInt();
+        int ordinal = buffer.get();
+        WindowPosition[] positions = WindowPosition.values();
+        if ((ordinal < 0) || (ordinal >= positions.length)) {
+            throw new IllegalArgumentException("Invalid window position " + ordinal);
+        }
+        WindowPosition position = positions[ordinal];
+        String key = decodeString(buffer);
+        String message = decodeString(buffer);
+        return new NotificationData(key, message, position, borderX, borderY, duration, animationSpeed, deadline);
+    }
+
+    /**
+     * Reads a string.
+     * @param buffer The buffer.
+     * @return The string, or <code>null</code>.
+     */
+    private static String decodeString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+
+        // never trust the length before allocating
+        if ((length < 0) || (length > buffer.remaining())) {
+            throw new IllegalArgumentException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    /**
+     * Gets the grouping key.
+     * @return The grouping key, or <code>null</code> if there is no key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the message.
+     * @return The message, or <code>null</code> if there is no message.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets the window position.
+     * @return The window position.
+     */
+    public WindowPosition getWindowPosition() {
+        return windowPosition;
+    }
+
+    /**
+     * Gets the distance in pixels the window keeps from the X axis border.
+     * @return The distance in pixels.
+     */
+    public int getBorderX() {
+        return borderX;
+    }
+
+    /**
+     * Gets the distance in pixels the window keeps from the Y axis border.
+     * @return The distance in pixels.
+     */
+    public int getBorderY() {
+        return borderY;
+    }
+
+    /**
+     * Gets the display duration.
+     * @return The display duration in milliseconds.
+     */
+    public int getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the duration of the show and close effects.
+     * @return The animation speed in milliseconds.
+     */
+    public int getAnimationSpeed() {
+        return animationSpeed;
+    }
+
+    /**
+     * Gets the expiry deadline.
+     * @return The deadline in milliseconds, or <code>Long.MAX_VALUE</code>
+     * if there is no expiry at all.
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+}
@@ -0,0 +1,268 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>NotificationDigest.java</b>: collects a burst of notifications sharing
+ * the same grouping key and builds a single summary notification for them.
+ * This class is used internally by the notification queue manager when the
+ * digest mode is enabled.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.AbstractListModel;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JWindow;
+
+/**
+ * Collects a burst of notifications sharing the same grouping key and builds
+ * a single summary notification for them. Each digest covers a window of
+ * time starting at the first arrival of its group; the queue manager counts
+ * the arrivals and, once the threshold is exceeded, the remaining ones are
+ * collected here instead of being displayed. When the window is over, the
+ * collected notifications are replaced by a single summary notification,
+ * such as <i>47 new events</i>, which can be expanded into a scrollable list.
+ *
+ * Only the messages of the collected notifications are kept, since their
+ * windows are disposed right away. The list is backed by a
+ * <code>javax.swing.JList</code>, which only renders the visible rows, so
+ * digests with thousands of entries are still cheap.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+class NotificationDigest {
+
+    // the grouping key and the window of time
+    private String key;
+    private long windowStart;
+    private int arrivals;
+    // collected messages
+    private List<String> messages;
+    // the first collected notification, used as a template
+    // for the summary notification
+    private WindowPosition windowPosition;
+    private int borderX;
+    private int borderY;
+    private int duration;
+    private boolean headless;
+    private Rectangle screen;
+
+    /**
+     * Constructor method. Starts a new window of time for the provided key.
+     * @param key The grouping key.
+     * @param now The current time in milliseconds.
+     */
+    NotificationDigest(String key, long now) {
+        this.key = key;
+        this.windowStart = now;
+        this.arrivals = 0;
+        this.messages = new ArrayList<String>();
+    }
+
+    /**
+     * Counts a new arrival for this group.
+     * @return The number of arrivals in the current window of time.
+     */
+    int arrive() {
+        arrivals++;
+        return arrivals;
+    }
+
+    /**
+     * Checks if the window of time of this digest is over.
+     * @param now The current time in milliseconds.
+     * @param window The length of the window in milliseconds.
+     * @return <code>true</code> if the window is over, or <code>false</code>
+     * otherwise.
+     */
+    boolean isOver(long now, long window) {
+        return (now - windowStart) >= window;
+    }
+
+    /**
+     * Collects the notification. Only its message is kept, so the window
+     * itself is discarded by the queue manager.
+     * @param notification The notification to be collected.
+     */
+    void collect(Notification notification) {
+
+        // the first collected notification acts as a template
+        if (messages.isEmpty()) {
+            windowPosition = notification.getWindowPosition();
+            borderX = notification.getBorderX();
+            borderY = notification.getBorderY();
+            duration = notification.getDuration();
+            WindowBackend backend = notification.getWindowBackend();
+            headless = (backend.getWindowType() == WindowType.HEADLESS);
+            screen = headless ? backend.getScreenBounds() : null;
+        }
+
+        // keep the message
+        String message = notification.getMessage();
+        if (message == null) {
+            message = (key.length() == 0) ? "Event" : key;
+        }
+        messages.add(message);
+    }
+
+    /**
+     * Checks if there are collected notifications.
+     * @return <code>true</code> if at least one notification was collected, or
+     * <code>false</code> otherwise.
+     */
+    boolean hasCollected() {
+        return !messages.isEmpty();
+    }
+
+    /**
+     * Gets the number of collected notifications.
+     * @return The number of collected notifications.
+     */
+    int size() {
+        return messages.size();
+    }
+
+    /**
+     * Gets the grouping key of this digest.
+     * @return The grouping key.
+     */
+    String getKey() {
+        return key;
+    }
+
+    /**
+     * Builds the summary notification. It has a label with the number of
+     * collected notifications and a button which opens the scrollable list
+     * of their messages. If the collected notifications were rendered in
+     * memory, so is the summary notification.
+     * @return The summary notification.
+     */
+    Notification createSummary() {
+
+        // the text of the summary
+        final String text = messages.size() + ((messages.size() == 1) ? " new event" : " new events")
+                + ((key.length() == 0) ? "" : " (" + key + ")");
+
+        // no display at all, so no window either
+        if (headless) {
+            Notification summary = new Notification(new HeadlessWindowBackend(250, 50, screen),
+                    windowPosition, borderX, borderY, duration);
+            summary.setKey(key);
+            summary.setMessage(text);
+            summary.summary = true;
+            return summary;
+        }
+
+        // the list model, backed by the collected messages
+        final List<String> items = messages;
+        final AbstractListModel<String> model = new AbstractListModel<String>() {
+
+            public int getSize() {
+                return items.size();
+            }
+
+            public String getElementAt(int index) {
+                return items.get(index);
+            }
+        };
+
+        // build the window
+        JWindow window = new JWindow();
+        JPanel panel = new JPanel(new BorderLayout(10, 0));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        panel.add(new JLabel(text), BorderLayout.CENTER);
+        JButton button = new JButton("Show");
+        button.addActionListener(new ActionListener() {
+
+            public void actionPerformed(ActionEvent e) {
+                showList(text, model);
+            }
+        });
+        panel.add(button, BorderLayout.EAST);
+        window.getContentPane().add(panel);
+        window.pack();
+        window.setSize(Math.max(window.getWidth(), 250), window.getHeight());
+
+        // build the notification
+        Notification summary = new Notification(window, windowPosition, borderX, borderY, duration);
+        summary.setKey(key);
+        summary.setMessage(text);
+        summary.summary = true;
+        return summary;
+    }
+
+    /**
+     * Shows the scrollable list of collected messages.
+     * @param title The title of the list window.
+     * @param model The list model.
+     */
+    private static void showList(String title, AbstractListModel<String> model) {
+        JFrame frame = new JFrame(title);
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        JList<String> list = new JList<String>(model);
+        JScrollPane scroll = new JScrollPane(list);
+        scroll.setPreferredSize(new Dimension(350, 300));
+        frame.getContentPane().add(scroll);
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        frame.setAlwaysOnTop(true);
+        frame.setVisible(true);
+    }
+}
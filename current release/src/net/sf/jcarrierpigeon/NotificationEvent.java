@@ -0,0 +1,141 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>NotificationEvent.java</b>: describes a step of the lifecycle of a
+ * notification managed by the queue manager.
+ */
+
+package net.sf.jcarrierpigeon;
+
+/**
+ * Describes a step of the lifecycle of a notification managed by
+ * <b>net.sf.jcarrierpigeon.NotificationQueue</b>, as reported to
+ * <b>net.sf.jcarrierpigeon.NotificationListener</b> objects.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class NotificationEvent {
+
+    /**
+     * Provides an enumeration for the steps of the lifecycle.
+     */
+    public enum Type {
+
+        /**
+         * The notification left the queue and is being displayed.
+         */
+        SHOWN,
+        /**
+         * The notification was displayed and closed after its duration.
+         */
+        CLOSED,
+        /**
+         * The notification was dismissed through its handle, either while
+         * waiting or while displayed, and it is closed.
+         */
+        DISMISSED,
+        /**
+         * The notification was cancelled through its handle.
+         */
+        CANCELLED,
+        /**
+         * The notification expired before being displayed.
+         */
+        EXPIRED,
+        /**
+         * The notification was dropped by the rate limiter.
+         */
+        DROPPED,
+        /**
+         * The notification was collected into a digest, whose summary is
+         * displayed instead.
+         */
+        DIGESTED
+    }
+
+    private final Type type;
+    private final Notification notification;
+    private final long time;
+
+    /**
+     * Constructor method.
+     * @param type The step of the lifecycle.
+     * @param notification The notification.
+     * @param time The time of the event in milliseconds.
+     */
+    NotificationEvent(Type type, Notification notification, long time) {
+        this.type = type;
+        this.notification = notification;
+        this.time = time;
+    }
+
+    /**
+     * Gets the step of the lifecycle.
+     * @return The step of the lifecycle.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the notification.
+     * @return The notification.
+     */
+    public Notification getNotification() {
+        return notification;
+    }
+
+    /**
+     * Gets the time of the event, according to the scheduler of the queue
+     * manager.
+     * @return The time in milliseconds.
+     */
+    public long getTime() {
+        return time;
+    }
+}
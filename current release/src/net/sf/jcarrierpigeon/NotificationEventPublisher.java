@@ -0,0 +1,302 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>NotificationEventPublisher.java</b>: publishes the lifecycle of the
+ * notifications managed by the queue manager as a reactive stream.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the lifecycle of the notifications managed by the queue manager,
+ * that is, when each one is shown, closed, dismissed, cancelled, expired,
+ * dropped or collected into a digest, as a reactive stream. Check the following example:
+ * @code
+ * NotificationQueue queue = new NotificationQueue();
+ * NotificationEventPublisher publisher = new NotificationEventPublisher(queue);
+ * publisher.subscribe(subscriber);
+ * ...
+ * publisher.close();
+ * @endcode
+ * The queue manager cannot wait for subscribers, so each subscription buffers
+ * the events not requested yet, up to 256 by default; when the buffer is
+ * full, the oldest event is dropped and counted by #getDroppedCount(). Events
+ * are delivered on the thread reporting them, usually the event dispatch
+ * thread, or on the thread requesting more, never on two threads at once.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class NotificationEventPublisher implements Flow.Publisher<NotificationEvent> {
+
+    // the default size of the buffer of each subscription
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+
+    private final NotificationQueue queue;
+    private final int bufferSize;
+    private final CopyOnWriteArrayList<EventSubscription> subscriptions;
+    private final AtomicLong dropped;
+    private volatile boolean closed;
+
+    /**
+     * Constructor method, buffering up to 256 events per subscription.
+     * @param queue The queue manager.
+     */
+    public NotificationEventPublisher(NotificationQueue queue) {
+        this(queue, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor method.
+     * @param queue The queue manager.
+     * @param bufferSize The maximum number of events buffered per subscription.
+     */
+    public NotificationEventPublisher(NotificationQueue queue, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("The buffer size must be positive");
+        }
+        this.queue = queue;
+        this.bufferSize = bufferSize;
+        this.subscriptions = new CopyOnWriteArrayList<EventSubscription>();
+        this.dropped = new AtomicLong();
+        this.closed = false;
+    }
+
+    /**
+     * Implements the <code>subscribe</code> method from <code>java.util.concurrent.Flow.Publisher</code>.
+     * Subscribers only receive the events reported after they subscribe.
+     * @param subscriber The subscriber.
+     */
+    public void subscribe(Flow.Subscriber<? super NotificationEvent> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("The subscriber cannot be null");
+        }
+        EventSubscription subscription = new EventSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        if (closed) {
+            subscription.complete();
+            return;
+        }
+        subscriptions.add(subscription);
+        queue.addNotificationListener(subscription);
+    }
+
+    /**
+     * Completes every subscription, once the events already buffered are
+     * delivered. Nothing is published after this call.
+     */
+    public void close() {
+        closed = true;
+        for (EventSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * Gets the number of events dropped because a subscriber did not request
+     * them in time.
+     * @return The number of events.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * A subscription, listening to the queue.
+     */
+    private final class EventSubscription implements Flow.Subscription, NotificationListener {
+
+        private final Flow.Subscriber<? super NotificationEvent> subscriber;
+        // events not delivered yet, and how many may be delivered
+        private final ArrayDeque<NotificationEvent> buffer;
+        private long demand;
+        private boolean completed;
+        private boolean cancelled;
+        private Throwable error;
+        // the number of pending drain requests; only the thread raising it
+        // from zero delivers
+        private final AtomicInteger work;
+
+        /**
+         * Constructor method.
+         * @param subscriber The subscriber.
+         */
+        EventSubscription(Flow.Subscriber<? super NotificationEvent> subscriber) {
+            this.subscriber = subscriber;
+            this.buffer = new ArrayDeque<NotificationEvent>();
+            this.demand = 0;
+            this.completed = false;
+            this.cancelled = false;
+            this.error = null;
+            this.work = new AtomicInteger();
+        }
+
+        /**
+         * Buffers an event and delivers what may be delivered.
+         * @param event The event.
+         */
+        public void notificationChanged(NotificationEvent event) {
+            synchronized (this) {
+                if ((cancelled) || (completed)) {
+                    return;
+                }
+                if (buffer.size() == bufferSize) {
+                    buffer.poll();
+                    dropped.incrementAndGet();
+                }
+                buffer.offer(event);
+            }
+            drain();
+        }
+
+        /**
+         * Implements the <code>request</code> method from <code>java.util.concurrent.Flow.Subscription</code>.
+         * @param n The number of events.
+         */
+        public void request(long n) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                if (n <= 0) {
+                    error = new IllegalArgumentException("The number of requested events must be positive");
+                } else {
+                    demand = (demand + n < 0) ? Long.MAX_VALUE : demand + n;
+                }
+            }
+            drain();
+        }
+
+        /**
+         * Implements the <code>cancel</code> method from <code>java.util.concurrent.Flow.Subscription</code>.
+         */
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                buffer.clear();
+            }
+            detach();
+        }
+
+        /**
+         * Completes the subscription after the buffered events.
+         */
+        void complete() {
+            synchronized (this) {
+                completed = true;
+            }
+            drain();
+        }
+
+        /**
+         * Stops listening to the queue.
+         */
+        private void detach() {
+            queue.removeNotificationListener(this);
+            subscriptions.remove(this);
+        }
+
+        /**
+         * Delivers the buffered events, as many as requested, then the end of
+         * the stream if it is the case.
+         */
+        private void drain() {
+            if (work.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            while (true) {
+                while (true) {
+                    NotificationEvent event;
+                    Throwable failure = null;
+                    boolean done = false;
+                    synchronized (this) {
+                        if (cancelled) {
+                            break;
+                        }
+                        if (error != null) {
+                            failure = error;
+                            cancelled = true;
+                            buffer.clear();
+                        } else if ((buffer.isEmpty()) && (completed)) {
+                            done = true;
+                            cancelled = true;
+                        }
+                        if ((failure == null) && (!done) && ((demand == 0) || (buffer.isEmpty()))) {
+                            break;
+                        }
+                        event = buffer.poll();
+                        if ((event != null) && (demand != Long.MAX_VALUE)) {
+                            demand--;
+                        }
+                    }
+                    if (failure != null) {
+                        detach();
+                        subscriber.onError(failure);
+                        break;
+                    }
+                    if (done) {
+                        detach();
+                        subscriber.onComplete();
+                        break;
+                    }
+                    subscriber.onNext(event);
+                }
+                missed = work.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
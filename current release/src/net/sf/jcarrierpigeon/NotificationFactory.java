@@ -0,0 +1,85 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>NotificationFactory.java</b>: provides the interface for rebuilding a
+ * notification from its description.
+ */
+
+package net.sf.jcarrierpigeon;
+
+/**
+ * Provides the interface for rebuilding a notification, window included,
+ * from its description. Notifications restored from a journal, received
+ * from another process or fired by a schedule are built through this
+ * interface, so the window content is up to the application. Check the
+ * following example:
+ * @code
+ * NotificationFactory factory = new NotificationFactory() {
+ *     public Notification createNotification(NotificationData data) {
+ *         JWindow window = new MyNotificationWindow(data.getMessage());
+ *         Notification note = new Notification(window, data.getWindowPosition(),
+ *                 data.getBorderX(), data.getBorderY(), data.getDuration());
+ *         data.applyTo(note);
+ *         return note;
+ *     }
+ * };
+ * @endcode
+ * <b>net.sf.jcarrierpigeon.MessageNotificationFactory</b> is a ready to use
+ * implementation, which simply displays the message.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public interface NotificationFactory {
+
+    /**
+     * Builds a notification from its description.
+     * @param data The description of the notification.
+     * @return The notification, ready to be displayed.
+     */
+    Notification createNotification(NotificationData data);
+}
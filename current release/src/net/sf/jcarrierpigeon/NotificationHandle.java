@@ -0,0 +1,418 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>NotificationHandle.java</b>: provides a handle to a notification added
+ * to the queue manager, in order to cancel it or dismiss it early.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Provides a handle to a notification added to
+ * <b>net.sf.jcarrierpigeon.NotificationQueue</b>. A handle is returned by
+ * NotificationQueue#add() and it allows the notification to be cancelled or
+ * dismissed early, no matter if it is still waiting in the queue or already
+ * on display. Check the following example:
+ * @code
+ * JWindow window = new JWindow();
+ * Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 1000);
+ * NotificationQueue queue = new NotificationQueue();
+ * NotificationHandle handle = queue.add(note);
+ * ...
+ * handle.dismiss();
+ * @endcode
+ * The handle is also the node of the queue itself, so removing a waiting
+ * notification takes constant time, no matter how long the queue is.
+ *
+ * The lifecycle of the notification is also available as futures, so work
+ * may be chained to it without polling and without blocking any thread:
+ * @code
+ * NotificationHandle handle = queue.add(note);
+ * handle.getClicked().thenRun(new Runnable() {
+ *
+ *     public void run() {
+ *         openBuildLog();
+ *     }
+ * });
+ * @endcode
+ * Futures are completed on the thread of the animation, usually the event
+ * dispatch thread, so actions chained without an executor should be quick.
+ * They are completed, and the listeners of the queue are called, only after
+ * the queue manager and the notification have released their locks, so
+ * chained actions and listeners may call back into both freely.
+ * Notification#animate() returns a handle as well, with no queue behind it.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class NotificationHandle {
+
+    // the steps reported by each thread while holding the locks of the
+    // queue or of a notification, delivered once they are released
+    private static final ThreadLocal<PendingSteps> pendingSteps = new ThreadLocal<PendingSteps>() {
+
+        protected PendingSteps initialValue() {
+            return new PendingSteps();
+        }
+    };
+
+    // the notification and its queue
+    private Notification notification;
+    private NotificationQueue queue;
+    // links of the queue
+    NotificationHandle previous;
+    NotificationHandle next;
+    boolean queued;
+    // set when cancelled or dismissed
+    private volatile boolean cancelled;
+    // the lifecycle so far, and the futures, created on demand since
+    // most notifications are never tracked
+    private NotificationEvent.Type state;
+    private boolean wasClicked;
+    private CompletableFuture<NotificationHandle> shown;
+    private CompletableFuture<NotificationEvent.Type> closed;
+    private CompletableFuture<NotificationHandle> clicked;
+
+    /**
+     * Constructor method. Handles are only created by the queue manager and
+     * by Notification#animate().
+     * @param notification The notification.
+     * @param queue The queue manager, or <code>null</code> if there is none.
+     */
+    NotificationHandle(Notification notification, NotificationQueue queue) {
+        this.notification = notification;
+        this.queue = queue;
+        this.previous = null;
+        this.next = null;
+        this.queued = false;
+        this.cancelled = false;
+        this.state = null;
+        this.wasClicked = false;
+        this.shown = null;
+        this.closed = null;
+        this.clicked = null;
+    }
+
+    /**
+     * Gets the notification of this handle.
+     * @return The notification.
+     */
+    public Notification getNotification() {
+        return notification;
+    }
+
+    /**
+     * Gets the queue manager of this handle.
+     * @return The queue manager, or <code>null</code> if there is none.
+     */
+    NotificationQueue getQueue() {
+        return queue;
+    }
+
+    /**
+     * Checks if the notification is still waiting in the queue.
+     * @return <code>true</code> if the notification is waiting to be displayed,
+     * or <code>false</code> otherwise.
+     */
+    public boolean isQueued() {
+        if (queue == null) {
+            return false;
+        }
+        synchronized (queue) {
+            return queued;
+        }
+    }
+
+    /**
+     * Checks if the notification was cancelled or dismissed through this handle.
+     * @return <code>true</code> if the notification was cancelled or dismissed,
+     * or <code>false</code> otherwise.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Cancels the notification. If it is still waiting in the queue, it is
+     * removed and its window is disposed without being displayed. If it is
+     * already on display, the animation is stopped and the window is hidden
+     * and disposed right away.
+     */
+    public void cancel() {
+        cancelled = true;
+        if (queue == null) {
+            notification.cancel();
+        } else {
+            queue.cancel(this, false);
+        }
+    }
+
+    /**
+     * Dismisses the notification. If it is still waiting in the queue, it
+     * is removed exactly as in #cancel(). If it is already on display, it
+     * jumps straight to the closing animation.
+     */
+    public void dismiss() {
+        cancelled = true;
+        if (queue == null) {
+            notification.dismiss();
+        } else {
+            queue.cancel(this, true);
+        }
+    }
+
+    /**
+     * Gets the future completed when the notification is shown. It is
+     * cancelled if the notification is never shown, because it was cancelled,
+     * dismissed, expired or dropped while waiting.
+     * @return The future, completed with this handle.
+     */
+    public synchronized CompletableFuture<NotificationHandle> getShown() {
+        if (shown == null) {
+            shown = new CompletableFuture<NotificationHandle>();
+            if (state == NotificationEvent.Type.SHOWN) {
+                shown.complete(this);
+            } else if (state != null) {
+                shown.cancel(false);
+            }
+        }
+        return shown;
+    }
+
+    /**
+     * Gets the future completed when the notification is gone, either closed
+     * after being displayed or never displayed at all.
+     * @return The future, completed with the last step of the lifecycle:
+     * <code>CLOSED</code>, <code>DISMISSED</code>, <code>CANCELLED</code>,
+     * <code>EXPIRED</code>, <code>DROPPED</code> or <code>DIGESTED</code>.
+     */
+    public synchronized CompletableFuture<NotificationEvent.Type> getClosed() {
+        if (closed == null) {
+            closed = new CompletableFuture<NotificationEvent.Type>();
+            if ((state != null) && (state != NotificationEvent.Type.SHOWN)) {
+                closed.complete(state);
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Gets the future completed when the user clicks the notification for
+     * the first time. It is cancelled if the notification is gone without
+     * being clicked.
+     * @return The future, completed with this handle.
+     */
+    public synchronized CompletableFuture<NotificationHandle> getClicked() {
+        if (clicked == null) {
+            clicked = new CompletableFuture<NotificationHandle>();
+            if (wasClicked) {
+                clicked.complete(this);
+            } else if ((state != null) && (state != NotificationEvent.Type.SHOWN)) {
+                clicked.cancel(false);
+            }
+        }
+        return clicked;
+    }
+
+    /**
+     * Reports a step of the lifecycle of the notification. The step is
+     * recorded right away, while the futures are completed and the listeners
+     * of the queue, if there is one, are told when the current thread no
+     * longer holds the locks of the library, as marked by #holdSteps().
+     * @param type The step of the lifecycle.
+     */
+    void fire(NotificationEvent.Type type) {
+        synchronized (this) {
+            if ((state != null) && (state != NotificationEvent.Type.SHOWN)) {
+                return;
+            }
+            state = type;
+        }
+        pendingSteps.get().post(this, type);
+    }
+
+    /**
+     * Reports a click of the user on the notification, the same way as
+     * #fire().
+     */
+    void click() {
+        synchronized (this) {
+            if ((wasClicked) || ((state != null) && (state != NotificationEvent.Type.SHOWN))) {
+                return;
+            }
+            wasClicked = true;
+        }
+        pendingSteps.get().post(this, null);
+    }
+
+    /**
+     * Marks the current thread as about to take the locks of the library,
+     * deferring the delivery of the steps it reports. Every call must be
+     * matched by a call to #releaseSteps(), in a <code>finally</code> block,
+     * made without any lock of the library held.
+     */
+    static void holdSteps() {
+        pendingSteps.get().depth++;
+    }
+
+    /**
+     * Marks the current thread as done with the locks taken since the
+     * matching #holdSteps(), delivering the deferred steps once the
+     * outermost of them is released.
+     */
+    static void releaseSteps() {
+        PendingSteps pending = pendingSteps.get();
+        pending.depth--;
+        if (pending.depth == 0) {
+            pending.drain();
+        }
+    }
+
+    /**
+     * Delivers a step, completing the futures created so far and telling
+     * the listeners of the queue. No lock is held here, since the futures
+     * run the chained actions.
+     * @param type The step of the lifecycle, or <code>null</code> for a click.
+     */
+    private void deliver(NotificationEvent.Type type) {
+        CompletableFuture<NotificationHandle> shownFuture;
+        CompletableFuture<NotificationEvent.Type> closedFuture;
+        CompletableFuture<NotificationHandle> clickedFuture;
+        synchronized (this) {
+            shownFuture = shown;
+            closedFuture = closed;
+            clickedFuture = clicked;
+        }
+        if (type == null) {
+            if (clickedFuture != null) {
+                clickedFuture.complete(this);
+            }
+            return;
+        }
+        if (type == NotificationEvent.Type.SHOWN) {
+            if (shownFuture != null) {
+                shownFuture.complete(this);
+            }
+        } else {
+            if (shownFuture != null) {
+                shownFuture.cancel(false);
+            }
+            if (clickedFuture != null) {
+                clickedFuture.cancel(false);
+            }
+            if (closedFuture != null) {
+                closedFuture.complete(type);
+            }
+        }
+        if (queue != null) {
+            queue.fireEvent(type, notification);
+        }
+    }
+
+    /**
+     * The steps reported by a thread and not delivered yet, along with how
+     * deep that thread is in the locks of the library.
+     */
+    private static final class PendingSteps {
+
+        private int depth;
+        private final ArrayDeque<Step> steps = new ArrayDeque<Step>();
+
+        /**
+         * Delivers the step right away if no lock of the library is held,
+         * or keeps it for later.
+         * @param handle The handle.
+         * @param type The step of the lifecycle, or <code>null</code> for a click.
+         */
+        void post(NotificationHandle handle, NotificationEvent.Type type) {
+            if (depth == 0) {
+                handle.deliver(type);
+            } else {
+                steps.add(new Step(handle, type));
+            }
+        }
+
+        /**
+         * Delivers the steps kept so far, in order. A failing listener or
+         * chained action does not keep the remaining steps from being
+         * delivered; the first failure is thrown at the end.
+         */
+        void drain() {
+            RuntimeException failure = null;
+            Step step;
+            while ((step = steps.poll()) != null) {
+                try {
+                    step.handle.deliver(step.type);
+                } catch (RuntimeException exception) {
+                    if (failure == null) {
+                        failure = exception;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * A step kept for later.
+     */
+    private static final class Step {
+
+        private final NotificationHandle handle;
+        private final NotificationEvent.Type type;
+
+        Step(NotificationHandle handle, NotificationEvent.Type type) {
+            this.handle = handle;
+            this.type = type;
+        }
+    }
+}
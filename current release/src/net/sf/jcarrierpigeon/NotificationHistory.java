@@ -0,0 +1,516 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>NotificationHistory.java</b>: records every notification going through
+ * the queue manager, so users may check what they missed.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.awt.Dimension;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.AbstractListModel;
+import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.JScrollPane;
+import javax.swing.Timer;
+
+/**
+ * Records every notification going through the queue manager, so users may
+ * check what they missed after the windows are gone. Only the metadata and
+ * the message of each notification are kept, never the window. Check the
+ * following example:
+ * @code
+ * NotificationHistory history = new NotificationHistory(10000);
+ * NotificationQueue queue = new NotificationQueue();
+ * queue.setHistory(history);
+ * ...
+ * List<HistoryEntry> mail = history.find("mail", from, to, 50);
+ * JComponent panel = history.createPanel(null);
+ * @endcode
+ * The history is an append-only log kept in a ring of primitive arrays, so
+ * recording a notification allocates nothing but the first time a key is
+ * seen. When the capacity is reached, the oldest entries are evicted. Keys
+ * are interned into a dictionary and each one has its own list of sequence
+ * numbers, so queries by key only walk the entries of that key; since
+ * entries are kept in arrival order and their times never go backwards,
+ * time ranges are found through binary search. If the clock steps back, for
+ * instance when the system time is adjusted, the new entries take the time
+ * of the newest one until the clock catches up. Entries are only turned into <b>net.sf.jcarrierpigeon.HistoryEntry</b>
+ * objects when they are looked up.
+ *
+ * The history panel is a <code>javax.swing.JList</code> with fixed cell
+ * sizes over the log itself, newest first, so only the visible rows are ever
+ * materialized, no matter how many entries there are. This class is thread
+ * safe.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class NotificationHistory {
+
+    // window positions, indexed by ordinal
+    private static final WindowPosition[] POSITIONS = WindowPosition.values();
+
+    // the ring of entries; the entry with sequence s is
+    // at index s % capacity
+    private final int capacity;
+    private final long[] times;
+    private final int[] keys;
+    private final String[] messages;
+    private final byte[] positions;
+    private final int[] durations;
+    // sequence of the oldest entry kept and of the next entry,
+    // and the time of the newest entry
+    private long first;
+    private long next;
+    private long last;
+    // the key dictionary and the index of each key
+    private final Map<String, Integer> keyIds;
+    private KeyIndex[] indexes;
+    private int[] freeIds;
+    private int freeCount;
+    private int keyCount;
+
+    /**
+     * Constructor method.
+     * @param capacity The maximum number of entries kept. When it is reached,
+     * the oldest entries are evicted.
+     */
+    public NotificationHistory(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.times = new long[this.capacity];
+        this.keys = new int[this.capacity];
+        this.messages = new String[this.capacity];
+        this.positions = new byte[this.capacity];
+        this.durations = new int[this.capacity];
+        this.first = 0;
+        this.next = 0;
+        this.last = Long.MIN_VALUE;
+        this.keyIds = new HashMap<String, Integer>();
+        this.indexes = new KeyIndex[16];
+        this.freeIds = new int[16];
+        this.freeCount = 0;
+        this.keyCount = 0;
+    }
+
+    /**
+     * Records a notification.
+     * @param notification The notification.
+     * @param time The arrival time in milliseconds. If it is earlier than
+     * the time of the newest entry, the latter is taken instead, so the
+     * entries stay sorted by time.
+     * @return The sequence number of the new entry.
+     */
+    public synchronized long record(Notification notification, long time) {
+
+        // evict the oldest entry if the ring is full
+        if (next - first == capacity) {
+            evict();
+        }
+
+        // append
+        long sequence = next++;
+        int slot = (int) (sequence % capacity);
+        int id = intern(notification.getKey());
+        last = Math.max(last, time);
+        times[slot] = last;
+        keys[slot] = id;
+        messages[slot] = notification.getMessage();
+        positions[slot] = (byte) notification.getWindowPosition().ordinal();
+        durations[slot] = notification.getDuration();
+        if (id >= 0) {
+            indexes[id].add(sequence);
+        }
+        return sequence;
+    }
+
+    /**
+     * Evicts the oldest entry.
+     */
+    private void evict() {
+        int slot = (int) (first % capacity);
+        int id = keys[slot];
+        messages[slot] = null;
+        first++;
+        if (id >= 0) {
+            KeyIndex index = indexes[id];
+            index.removeFirst();
+            if (index.size() == 0) {
+
+                // the key is gone, so recycle its id
+                keyIds.remove(index.key);
+                indexes[id] = null;
+                if (freeCount == freeIds.length) {
+                    int[] grown = new int[freeCount * 2];
+                    System.arraycopy(freeIds, 0, grown, 0, freeCount);
+                    freeIds = grown;
+                }
+                freeIds[freeCount++] = id;
+            }
+        }
+    }
+
+    /**
+     * Gets the id of a key, creating its index if needed.
+     * @param key The key.
+     * @return The id, or -1 if there is no key.
+     */
+    private int intern(String key) {
+        if (key == null) {
+            return -1;
+        }
+        Integer known = keyIds.get(key);
+        if (known != null) {
+            return known.intValue();
+        }
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            id = keyCount++;
+            if (id == indexes.length) {
+                KeyIndex[] grown = new KeyIndex[id * 2];
+                System.arraycopy(indexes, 0, grown, 0, id);
+                indexes = grown;
+            }
+        }
+        indexes[id] = new KeyIndex(key);
+        keyIds.put(key, Integer.valueOf(id));
+        return id;
+    }
+
+    /**
+     * Gets the number of entries kept.
+     * @return The number of entries.
+     */
+    public synchronized int size() {
+        return (int) (next - first);
+    }
+
+    /**
+     * Gets the number of entries kept for a key.
+     * @param key The grouping key, or <code>null</code> for every entry.
+     * @return The number of entries.
+     */
+    public synchronized int size(String key) {
+        if (key == null) {
+            return size();
+        }
+        KeyIndex index = find(key);
+        return (index == null) ? 0 : index.size();
+    }
+
+    /**
+     * Gets the maximum number of entries kept.
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the total number of notifications recorded so far, including the
+     * evicted ones.
+     * @return The number of notifications recorded.
+     */
+    public synchronized long getRecordedCount() {
+        return next;
+    }
+
+    /**
+     * Gets an entry by its sequence number.
+     * @param sequence The sequence number.
+     * @return The entry, or <code>null</code> if it was evicted or if it
+     * does not exist.
+     */
+    public synchronized HistoryEntry get(long sequence) {
+        if ((sequence < first) || (sequence >= next)) {
+            return null;
+        }
+        return entry(sequence);
+    }
+
+    /**
+     * Gets one of the most recent entries, counting from the newest one.
+     * @param key The grouping key, or <code>null</code> for every entry.
+     * @param index The index, 0 being the newest entry.
+     * @return The entry, or <code>null</code> if there is no such entry.
+     */
+    public synchronized HistoryEntry getRecent(String key, int index) {
+        if (index < 0) {
+            return null;
+        }
+        if (key == null) {
+            return get(next - 1 - index);
+        }
+        KeyIndex keyIndex = find(key);
+        if ((keyIndex == null) || (index >= keyIndex.size())) {
+            return null;
+        }
+        return entry(keyIndex.get(keyIndex.size() - 1 - index));
+    }
+
+    /**
+     * Finds the entries which arrived within a range of time, newest first.
+     * @param key The grouping key, or <code>null</code> for every entry.
+     * @param from The beginning of the range in milliseconds, inclusive.
+     * @param to The end of the range in milliseconds, inclusive.
+     * @param limit The maximum number of entries.
+     * @return The entries found.
+     */
+    public synchronized List<HistoryEntry> find(String key, long from, long to, int limit) {
+        List<HistoryEntry> result = new ArrayList<HistoryEntry>();
+        if (key == null) {
+
+            // binary search over the whole log
+            long low = first;
+            long high = next;
+            while (low < high) {
+                long middle = (low + high) >>> 1;
+                if (times[(int) (middle % capacity)] <= to) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            for (long sequence = low - 1; (sequence >= first) && (result.size() < limit); sequence--) {
+                if (times[(int) (sequence % capacity)] < from) {
+                    break;
+                }
+                result.add(entry(sequence));
+            }
+        } else {
+
+            // binary search over the entries of the key
+            KeyIndex index = find(key);
+            if (index == null) {
+                return result;
+            }
+            int low = 0;
+            int high = index.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (times[(int) (index.get(middle) % capacity)] <= to) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            for (int i = low - 1; (i >= 0) && (result.size() < limit); i--) {
+                long sequence = index.get(i);
+                if (times[(int) (sequence % capacity)] < from) {
+                    break;
+                }
+                result.add(entry(sequence));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the index of a key.
+     * @param key The key.
+     * @return The index, or <code>null</code> if the key is unknown.
+     */
+    private KeyIndex find(String key) {
+        Integer id = keyIds.get(key);
+        return (id == null) ? null : indexes[id.intValue()];
+    }
+
+    /**
+     * Builds an entry.
+     * @param sequence The sequence number of a kept entry.
+     * @return The entry.
+     */
+    private HistoryEntry entry(long sequence) {
+        int slot = (int) (sequence % capacity);
+        int id = keys[slot];
+        return new HistoryEntry(sequence, times[slot], (id >= 0) ? indexes[id].key : null,
+                messages[slot], POSITIONS[positions[slot]], durations[slot]);
+    }
+
+    /**
+     * Creates a panel listing the history, newest first. Only the visible
+     * rows are rendered, and the list follows new entries while the panel
+     * is displayed. This method should be called on the event dispatch thread.
+     * @param key The grouping key, or <code>null</code> for every entry.
+     * @return The panel.
+     */
+    public JComponent createPanel(final String key) {
+
+        // the list model, reading straight from the log
+        final HistoryListModel model = new HistoryListModel(this, key);
+
+        // fixed cell sizes, so the list never measures every row
+        JList<String> list = new JList<String>(model);
+        list.setPrototypeCellValue("00:00:00 PM  [notification key] a notification message of a usual length");
+
+        // follow the log while displayed
+        final Timer timer = new Timer(500, new ActionListener() {
+
+            public void actionPerformed(ActionEvent e) {
+                model.refresh();
+            }
+        });
+        JScrollPane scroll = new JScrollPane(list) {
+
+            public void addNotify() {
+                super.addNotify();
+                timer.start();
+            }
+
+            public void removeNotify() {
+                timer.stop();
+                super.removeNotify();
+            }
+        };
+        scroll.setPreferredSize(new Dimension(400, 300));
+        return scroll;
+    }
+
+    /**
+     * The list model of the history panel, newest first.
+     */
+    private static final class HistoryListModel extends AbstractListModel<String> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final NotificationHistory history;
+        private final String key;
+        private final DateFormat format;
+        private int size;
+        private long recorded;
+
+        HistoryListModel(NotificationHistory history, String key) {
+            this.history = history;
+            this.key = key;
+            this.format = DateFormat.getTimeInstance();
+            this.size = history.size(key);
+            this.recorded = history.getRecordedCount();
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public String getElementAt(int index) {
+            HistoryEntry entry = history.getRecent(key, index);
+            if (entry == null) {
+                return "";
+            }
+            return format.format(new Date(entry.getTime())) + "  "
+                    + ((entry.getKey() != null) ? "[" + entry.getKey() + "] " : "")
+                    + ((entry.getMessage() != null) ? entry.getMessage() : "");
+        }
+
+        /**
+         * Takes the new entries, if any, which are on top of the list.
+         */
+        void refresh() {
+            long count = history.getRecordedCount();
+            if (count == recorded) {
+                return;
+            }
+            recorded = count;
+            int previous = size;
+            size = history.size(key);
+            if (size > 0) {
+                fireContentsChanged(this, 0, Math.max(previous, size) - 1);
+            }
+        }
+    }
+
+    /**
+     * The sequence numbers of the entries of a single key, in arrival order.
+     */
+    private static final class KeyIndex {
+
+        final String key;
+        private long[] sequences;
+        private int head;
+        private int tail;
+
+        KeyIndex(String key) {
+            this.key = key;
+            this.sequences = new long[4];
+            this.head = 0;
+            this.tail = 0;
+        }
+
+        void add(long sequence) {
+            if (tail == sequences.length) {
+                int count = tail - head;
+                long[] target = (count * 2 > sequences.length) ? new long[sequences.length * 2] : sequences;
+                System.arraycopy(sequences, head, target, 0, count);
+                sequences = target;
+                head = 0;
+                tail = count;
+            }
+            sequences[tail++] = sequence;
+        }
+
+        void removeFirst() {
+            head++;
+        }
+
+        long get(int index) {
+            return sequences[head + index];
+        }
+
+        int size() {
+            return tail - head;
+        }
+    }
+}
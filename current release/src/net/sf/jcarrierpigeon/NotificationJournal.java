@@ -0,0 +1,572 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>NotificationJournal.java</b>: keeps a durable journal of the
+ * notifications added to the queue manager, so pending notifications
+ * survive a restart.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps a durable journal of the notifications added to the queue manager,
+ * so the ones still pending, or being displayed, survive a restart or a
+ * crash. Check the following example:
+ * @code
+ * NotificationJournal journal = new NotificationJournal(new File("notifications.journal"));
+ * NotificationQueue queue = new NotificationQueue();
+ * journal.restore(queue, new MessageNotificationFactory());
+ * queue.setJournal(journal);
+ * @endcode
+ * The journal is an append-only file with two kinds of records: one when a
+ * notification is added, describing it, and one when it is done, that is,
+ * displayed and closed, cancelled, expired or discarded. Notifications whose
+ * first record has no matching second record are the ones restored.
+ *
+ * The file is memory-mapped, so appending a record is just a few writes to
+ * memory; the mapping grows by doubling. Records are flushed to disk in
+ * batches by a daemon thread, every 100 milliseconds by default, so a crash
+ * may lose the last batch at most. Each record carries its length and a
+ * CRC-32 checksum, so a record torn by a crash is detected and everything
+ * from it on is ignored. When the journal is opened, the records of the
+ * notifications still alive are copied into a fresh file, which replaces the
+ * old one in a single atomic rename, so the journal never grows beyond the
+ * live notifications and the records appended since then, and a crash while
+ * compacting leaves either the old file or the new one in place.
+ *
+ * The journal also keeps the schedule of
+ * <b>net.sf.jcarrierpigeon.NotificationTimer</b>, when set to it: one record
+ * when a notification is scheduled, or repeated, and one when it is done or
+ * cancelled.
+ *
+ * Collected notifications of a digest are considered done as soon as they
+ * are collected. If the mapping cannot grow any further, for instance when
+ * the disk is full or the file would exceed 2 GB, the journal stops taking
+ * records, so the queue manager goes on without it; check #isOpen() and
+ * #getFailure() in order to find out. This class is thread safe.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class NotificationJournal {
+
+    // file header and record types
+    private static final int MAGIC = 0x4a43504a;
+    private static final int VERSION = 1;
+    private static final byte ADDED = 1;
+    private static final byte DONE = 2;
+    private static final byte SCHEDULED = 3;
+    // sizes of the header and of the record framing, that is, the
+    // length before and the checksum after the record
+    private static final int HEADER_SIZE = 8;
+    private static final int FRAMING_SIZE = 8;
+    // the initial size of the mapping
+    private static final int INITIAL_SIZE = 1 << 20;
+
+    private final File file;
+    private final RandomAccessFile access;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    // scratch space for encoding records
+    private ByteBuffer record;
+    private final CRC32 crc;
+    // the next record id
+    private long nextId;
+    // records recovered when the journal was opened, by id
+    private Map<Long, NotificationData> recovered;
+    private Map<Long, ScheduledNotification> schedules;
+    // the flusher
+    private volatile boolean dirty;
+    private volatile boolean open;
+    private final Thread flusher;
+    // the reason the journal stopped taking records, if any,
+    // and whether the file was closed
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * Constructor method. Records are flushed every 100 milliseconds.
+     * @param file The journal file. It is created if needed.
+     * @throws IOException If the file cannot be read or written.
+     */
+    public NotificationJournal(File file) throws IOException {
+        this(file, 100);
+    }
+
+    /**
+     * Constructor method. The existing records are read, the ones of the
+     * notifications still alive are kept for #restore(), and the file is
+     * compacted.
+     * @param file The journal file. It is created if needed.
+     * @param syncInterval The interval between flushes to disk in milliseconds.
+     * @throws IOException If the file cannot be read or written.
+     */
+    public NotificationJournal(File file, final int syncInterval) throws IOException {
+        this.file = file;
+        this.crc = new CRC32();
+        this.record = ByteBuffer.allocate(256);
+        this.nextId = 0;
+        this.recovered = new LinkedHashMap<Long, NotificationData>();
+        this.schedules = new LinkedHashMap<Long, ScheduledNotification>();
+
+        // read what is there and compact it into a fresh file
+        if (file.exists()) {
+            read();
+        }
+        File fresh = new File(file.getPath() + ".tmp");
+        write(fresh);
+        try {
+            Files.move(fresh.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException exception) {
+
+            // the file system cannot rename atomically, so at least
+            // never go through a state with no journal at all
+            Files.move(fresh.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // map the compacted file and move to its end
+        this.access = new RandomAccessFile(file, "rw");
+        this.channel = access.getChannel();
+        long size = channel.size();
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappingSize(INITIAL_SIZE, size));
+        this.buffer.position((int) size);
+        this.open = true;
+        this.dirty = false;
+        this.failure = null;
+        this.closed = false;
+
+        // flush in batches
+        this.flusher = new Thread(new Runnable() {
+
+            public void run() {
+                while (open) {
+                    try {
+                        Thread.sleep(Math.max(1, syncInterval));
+                    } catch (InterruptedException exception) {
+                        return;
+                    }
+                    sync();
+                }
+            }
+        }, "JCarrierPigeon journal");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Reads the existing file, keeping the notifications still alive. The
+     * file is read into memory rather than mapped, since a mapping would
+     * keep it open until collected, and a mapped file cannot be replaced on
+     * some platforms.
+     * @throws IOException If the file cannot be read.
+     */
+    private void read() throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            FileChannel source = input.getChannel();
+            if (source.size() < HEADER_SIZE) {
+                return;
+            }
+            if (source.size() > Integer.MAX_VALUE) {
+                throw new IOException("The journal file " + file + " is too large");
+            }
+            ByteBuffer data = ByteBuffer.allocate((int) source.size());
+            while ((data.hasRemaining()) && (source.read(data) >= 0)) {
+                // keep reading
+            }
+            data.flip();
+            if ((data.getInt() != MAGIC) || (data.getInt() != VERSION)) {
+                throw new IOException("The file " + file + " is not a notification journal");
+            }
+            while (data.remaining() >= FRAMING_SIZE) {
+
+                // check the framing, stopping at the end or at a torn record
+                int length = data.getInt(data.position());
+                if ((length <= 0) || (length > data.remaining() - FRAMING_SIZE)) {
+                    break;
+                }
+                crc.reset();
+                for (int i = 0; i < length; i++) {
+                    crc.update(data.get(data.position() + 4 + i));
+                }
+                if ((int) crc.getValue() != data.getInt(data.position() + 4 + length)) {
+                    break;
+                }
+
+                // decode the record
+                data.getInt();
+                int end = data.position() + length;
+                byte type = data.get();
+                long id = data.getLong();
+                if (type == ADDED) {
+                    recovered.put(Long.valueOf(id), NotificationData.decode(data));
+                } else if (type == DONE) {
+                    recovered.remove(Long.valueOf(id));
+                    schedules.remove(Long.valueOf(id));
+                } else if (type == SCHEDULED) {
+                    long time = data.getLong();
+                    long period = data.getLong();
+                    ScheduledNotification scheduled = new ScheduledNotification(NotificationData.decode(data), time, period);
+                    scheduled.journalId = id;
+                    schedules.put(Long.valueOf(id), scheduled);
+                }
+                nextId = Math.max(nextId, id + 1);
+                data.position(end + 4);
+            }
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Writes a fresh file with the notifications still alive.
+     * @param target The file.
+     * @throws IOException If the file cannot be written.
+     */
+    private void write(File target) throws IOException {
+        RandomAccessFile output = new RandomAccessFile(target, "rw");
+        try {
+            output.setLength(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.flip();
+            FileChannel destination = output.getChannel();
+            destination.write(header);
+            for (Map.Entry<Long, NotificationData> entry : recovered.entrySet()) {
+                encodeAdded(entry.getKey().longValue(), entry.getValue());
+                writeRecord(destination);
+            }
+            for (ScheduledNotification scheduled : schedules.values()) {
+                encodeScheduled(scheduled);
+                writeRecord(destination);
+            }
+            destination.force(true);
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Writes the record in the scratch space to a channel, with its length
+     * and checksum.
+     * @param destination The channel.
+     * @throws IOException If the channel cannot be written.
+     */
+    private void writeRecord(FileChannel destination) throws IOException {
+        int length = record.remaining();
+        ByteBuffer framed = ByteBuffer.allocate(length + FRAMING_SIZE);
+        framed.putInt(length);
+        framed.put(record.array(), 0, length);
+        framed.putInt(checksum());
+        framed.flip();
+        destination.write(framed);
+    }
+
+    /**
+     * Restores the notifications which were still pending or being displayed
+     * when the journal was last used, adding them to the queue. Their records
+     * are kept, so they are only done when they are done in the queue. This
+     * method should be called before the journal is set to the queue, and
+     * only once.
+     * @param queue The queue manager.
+     * @param factory The factory which rebuilds each notification.
+     * @return The number of notifications restored.
+     */
+    public int restore(NotificationQueue queue, NotificationFactory factory) {
+        List<Map.Entry<Long, NotificationData>> entries;
+        synchronized (this) {
+            entries = new ArrayList<Map.Entry<Long, NotificationData>>(recovered.entrySet());
+            recovered.clear();
+        }
+        for (Map.Entry<Long, NotificationData> entry : entries) {
+            Notification notification = factory.createNotification(entry.getValue());
+            notification.journal = this;
+            notification.journalId = entry.getKey().longValue();
+            queue.add(notification);
+        }
+        return entries.size();
+    }
+
+    /**
+     * Schedules again the notifications which were still scheduled when the
+     * journal was last used. Their records are kept, and they are due at the
+     * same times, so the ones missed meanwhile are added to the queue on the
+     * next tick of the timer. This method should be called before the journal
+     * is set to the timer, and only once.
+     * @param timer The timer.
+     * @return The number of notifications scheduled.
+     */
+    public int restore(NotificationTimer timer) {
+        List<ScheduledNotification> entries;
+        synchronized (this) {
+            entries = new ArrayList<ScheduledNotification>(schedules.values());
+            schedules.clear();
+        }
+        for (ScheduledNotification scheduled : entries) {
+            scheduled.journal = this;
+            timer.add(scheduled);
+        }
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of notifications waiting to be restored.
+     * @return The number of notifications.
+     */
+    public synchronized int getRecoveredCount() {
+        return recovered.size();
+    }
+
+    /**
+     * Gets the number of scheduled notifications waiting to be restored.
+     * @return The number of scheduled notifications.
+     */
+    public synchronized int getRecoveredScheduleCount() {
+        return schedules.size();
+    }
+
+    /**
+     * Appends the record of a new notification.
+     * @param notification The notification.
+     * @return The id of the record.
+     */
+    synchronized long append(Notification notification) {
+        long id = nextId++;
+        if (open) {
+            encodeAdded(id, new NotificationData(notification));
+            put();
+        }
+        return id;
+    }
+
+    /**
+     * Appends the record of a notification which is done.
+     * @param id The id returned by #append().
+     */
+    synchronized void done(long id) {
+        if (open) {
+            record.clear();
+            record.put(DONE);
+            record.putLong(id);
+            record.flip();
+            put();
+        }
+    }
+
+    /**
+     * Appends the record of a scheduled notification, or of its next
+     * repetition, assigning its id the first time.
+     * @param scheduled The scheduled notification.
+     */
+    synchronized void schedule(ScheduledNotification scheduled) {
+        if (scheduled.journalId < 0) {
+            scheduled.journalId = nextId++;
+        }
+        if (open) {
+            encodeScheduled(scheduled);
+            put();
+        }
+    }
+
+    /**
+     * Encodes the record of a scheduled notification into the scratch space.
+     * @param scheduled The scheduled notification.
+     */
+    private void encodeScheduled(ScheduledNotification scheduled) {
+        NotificationData data = scheduled.getData();
+        int size = 25 + data.getEncodedSize();
+        if (record.capacity() < size) {
+            record = ByteBuffer.allocate(Math.max(size, record.capacity() * 2));
+        }
+        record.clear();
+        record.put(SCHEDULED);
+        record.putLong(scheduled.journalId);
+        record.putLong(scheduled.time);
+        record.putLong(scheduled.period);
+        data.encode(record);
+        record.flip();
+    }
+
+    /**
+     * Encodes the record of a new notification into the scratch space.
+     * @param id The record id.
+     * @param data The notification.
+     */
+    private void encodeAdded(long id, NotificationData data) {
+        int size = 9 + data.getEncodedSize();
+        if (record.capacity() < size) {
+            record = ByteBuffer.allocate(Math.max(size, record.capacity() * 2));
+        }
+        record.clear();
+        record.put(ADDED);
+        record.putLong(id);
+        data.encode(record);
+        record.flip();
+    }
+
+    /**
+     * Calculates the checksum of the record in the scratch space.
+     * @return The CRC-32 checksum.
+     */
+    private int checksum() {
+        crc.reset();
+        crc.update(record.array(), 0, record.remaining());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Appends the record in the scratch space to the mapping, with its
+     * length and checksum, growing the mapping if needed.
+     */
+    private void put() {
+        int length = record.remaining();
+        if (buffer.remaining() < length + FRAMING_SIZE) {
+            try {
+                int position = buffer.position();
+                long needed = (long) position + length + FRAMING_SIZE;
+                long size = mappingSize(buffer.capacity() * 2L, needed);
+                if (size < needed) {
+                    throw new IOException("The journal file " + file + " is too large");
+                }
+                buffer.force();
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.position(position);
+            } catch (IOException exception) {
+
+                // nowhere to write, so the journal stops here, keeping
+                // the reason for #getFailure()
+                failure = exception;
+                open = false;
+                return;
+            }
+        }
+        buffer.putInt(length);
+        buffer.put(record.array(), 0, length);
+        buffer.putInt(checksum());
+        dirty = true;
+    }
+
+    /**
+     * Calculates the size of the mapping, which grows by doubling but
+     * cannot go beyond the largest buffer.
+     * @param minimum The minimum size.
+     * @param needed The size needed by the records.
+     * @return The size of the mapping in bytes.
+     */
+    private static long mappingSize(long minimum, long needed) {
+        return Math.min(Integer.MAX_VALUE, Math.max(minimum, needed * 2));
+    }
+
+    /**
+     * Checks if the journal is still taking records, that is, if it was
+     * neither closed nor stopped by a failure.
+     * @return <code>true</code> if the journal is open, or <code>false</code>
+     * otherwise.
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Gets the reason the journal stopped taking records on its own.
+     * @return The exception, or <code>null</code> if there was no failure.
+     */
+    public synchronized IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Flushes the records appended so far to disk. This method is called
+     * periodically, so there is usually no need of calling it by hand.
+     */
+    public void sync() {
+        MappedByteBuffer current;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            current = buffer;
+        }
+        current.force();
+    }
+
+    /**
+     * Flushes the records appended so far and closes the journal. Records
+     * appended after this call are ignored.
+     * @throws IOException If the file cannot be closed.
+     */
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            open = false;
+        }
+        flusher.interrupt();
+        buffer.force();
+        channel.close();
+        access.close();
+    }
+}
@@ -54,9 +54,10 @@ package net.sf.jcarrierpigeon;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.LinkedList;
-import java.util.Queue;
-import javax.swing.Timer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Handles the display of notifications. This class was created to act as a
@@ -82,26 +83,120 @@ import javax.swing.Timer;
  * until there is no notifications in display. Please note this is a simple
  * <i>first in first out</i> queue, so no priorities are estabilished when
  * adding notifications.
+ *
+ * Notifications may also carry an expiry deadline, set through
+ * Notification#setTimeToLive() or Notification#setDeadline(). A notification
+ * whose deadline is over while it is still waiting in the queue is discarded
+ * instead of being displayed late. Expired notifications are purged eagerly
+ * by the queue timer, through a heap ordered by deadline, and lazily when
+ * polling the next notification to be displayed.
+ *
+ * When there is a backlog, the adaptive duration mode, enabled through
+ * #setAdaptiveDuration(), shortens the display duration and the animation
+ * speed of each notification so the queue is drained within a maximum time.
+ * The durations effectively used are reported by #getMetrics().
+ *
+ * Bursts of notifications may also be collapsed into a single summary
+ * notification through the digest mode, enabled by #setDigest().
+ *
+ * The #add() method returns a <b>net.sf.jcarrierpigeon.NotificationHandle</b>
+ * object, which cancels a waiting notification in constant time or dismisses
+ * a notification already on display.
+ *
+ * Every notification added to the queue may also be recorded into a
+ * <b>net.sf.jcarrierpigeon.NotificationHistory</b> object, set through
+ * #setHistory(), so users may check what they missed, and into a durable
+ * <b>net.sf.jcarrierpigeon.NotificationJournal</b> object, set through
+ * #setJournal(), so pending notifications survive a restart.
+ *
+ * The lifecycle of the notifications, that is, when each one is shown,
+ * closed, dismissed, cancelled, expired, dropped or collected into a digest,
+ * is reported to the
+ * <b>net.sf.jcarrierpigeon.NotificationListener</b> objects added through
+ * #addNotificationListener(). Reactive pipelines may use
+ * <b>net.sf.jcarrierpigeon.NotificationSubscriber</b> and
+ * <b>net.sf.jcarrierpigeon.NotificationEventPublisher</b> instead.
  * 
  * @author Paulo Roberto Massa Cereda
- * @version 1.3
+ * @version 1.4
  * @since 1.3
  */
 public class NotificationQueue implements ActionListener {
 
-    // a queue, a timer and a notification
-    private Queue queue;
-    private Timer timer;
+    // a queue, a timer and a notification; the queue is a linked list of
+    // handles, so any of them may be removed in constant time
+    private NotificationHandle head;
+    private NotificationHandle tail;
+    private RepeatingTask timer;
+    // the clock and the timers behind this queue
+    private Scheduler scheduler;
     private Notification current;
+    // queued notifications with a deadline, ordered by expiry
+    private ExpiryHeap expiryHeap;
+    // number of queued notifications
+    private int pending;
+    // adaptive duration settings
+    private boolean adaptiveDuration;
+    private long maximumDrainTime;
+    private int minimumDuration;
+    private int minimumAnimationSpeed;
+    // digest mode settings and the open digests, one per key
+    private int digestThreshold;
+    private long digestWindow;
+    private Map<String, NotificationDigest> digests;
+    // the rate limiter, if any, and the notification held back by it
+    private RateLimiter rateLimiter;
+    private Notification held;
+    // figures about this queue
+    private NotificationQueueMetrics metrics;
+    // the history of notifications and the journal, if any
+    private NotificationHistory history;
+    private NotificationJournal journal;
+    // the lifecycle listeners, which are called once the locks of the
+    // queue and of the notifications are released
+    private final CopyOnWriteArrayList<NotificationListener> listeners;
 
     /**
      * Constructor method. Nothing new here, just instantiate
-     * the local attributes.
+     * the local attributes. The queue runs on the wall clock and
+     * on Swing timers.
      */
     public NotificationQueue() {
-        queue = new LinkedList();
-        timer = new Timer(50, this);
+        this(new SwingScheduler());
+    }
+
+    /**
+     * Constructor method for a custom scheduler. Every notification added to
+     * this queue runs on the very same scheduler. Check the following example:
+     * @code
+     * VirtualScheduler scheduler = new VirtualScheduler();
+     * NotificationQueue queue = new NotificationQueue(scheduler);
+     * queue.add(note);
+     * scheduler.advance(10000);
+     * @endcode
+     * @param scheduler The <b>net.sf.jcarrierpigeon.Scheduler</b> object.
+     */
+    public NotificationQueue(Scheduler scheduler) {
+        this.scheduler = scheduler;
+        head = null;
+        tail = null;
+        timer = scheduler.createTimer(50, this);
         current = null;
+        expiryHeap = new ExpiryHeap();
+        pending = 0;
+        adaptiveDuration = false;
+        maximumDrainTime = 60000;
+        minimumDuration = 1000;
+        minimumAnimationSpeed = 100;
+        digestThreshold = 0;
+        digestWindow = 5000;
+        digests = new HashMap<String, NotificationDigest>();
+        rateLimiter = null;
+        held = null;
+        metrics = new NotificationQueueMetrics();
+        history = null;
+        journal = null;
+        listeners = new CopyOnWriteArrayList<NotificationListener>();
     }
 
     /**
@@ -114,21 +209,95 @@ public class NotificationQueue implements ActionListener {
      * NotificationQueue queue = new NotificationQueue();
      * queue.add(note);
      * @endcode
+     * If the notification is already expired, it is discarded right away. If
+     * the digest mode is enabled and the notification is part of a burst, it
+     * is collected into a summary notification instead. A notification which
+     * is already done, that is, displayed, cancelled or discarded, cannot be
+     * added, and an <code>IllegalStateException</code> is thrown.
      * @param notification The <b>net.sf.jcarrierpigeon.Notification</b>
      * object.
+     * @return A <b>net.sf.jcarrierpigeon.NotificationHandle</b> object, which
+     * may be used to cancel or dismiss the notification.
      */
-    public synchronized void add(Notification notification) {
+    public NotificationHandle add(Notification notification) {
+        NotificationHandle.holdSteps();
+        try {
+            return enqueue(notification);
+        } finally {
+            NotificationHandle.releaseSteps();
+        }
+    }
+
+    /**
+     * Adds the notification with the lock held. The steps of the lifecycle
+     * reported meanwhile are delivered by #add() once the lock is released.
+     * @param notification The notification.
+     * @return The handle.
+     */
+    private synchronized NotificationHandle enqueue(Notification notification) {
+
+        // check if the notification is already done
+        if (notification.isFinished()) {
+            throw new IllegalStateException("The notification is already done, so it cannot be added");
+        }
+
+        // create the handle
+        NotificationHandle handle = new NotificationHandle(notification, this);
+        notification.handle = handle;
+        notification.setScheduler(scheduler);
+
+        // record the notification
+        long now = scheduler.currentTimeMillis();
+        if (history != null) {
+            history.record(notification, now);
+        }
+
+        // check if the notification is already expired
+        if (notification.isExpiredAt(now)) {
+
+            // no need to queue it at all
+            expire(notification);
+            return handle;
+        }
+
+        // make it durable, unless it was restored from the journal
+        if ((journal != null) && (notification.journal == null) && (notification.journalId < 0)) {
+            notification.journalId = journal.append(notification);
+            notification.journal = journal;
+        }
+
+        // check if the notification belongs to a burst
+        if ((digestThreshold > 0) && (collect(notification, now))) {
+            return handle;
+        }
+
+        // go on
+        offer(notification);
+        return handle;
+    }
+
+    /**
+     * Shows the notification right away or put it in the queue.
+     * @param notification The notification.
+     */
+    private void offer(Notification notification) {
+
+        // summary notifications are not created through add()
+        if (notification.handle == null) {
+            notification.handle = new NotificationHandle(notification, this);
+            notification.setScheduler(scheduler);
+        }
+
         // check if queue is empty and there is no
         // current notification
-        if (queue.isEmpty() && (current == null)) {
+        if ((pending == 0) && (current == null) && (held == null)) {
 
             // show notification
-            current = notification;
-            current.animate();
+            show(notification, scheduler.currentTimeMillis());
         }
         else {
             // there are other notifications, so we need to wait
-            queue.offer(notification);
+            link(notification.handle);
 
             // check if timer is not running
             if (timer.isRunning() == false) {
@@ -139,35 +308,689 @@ public class NotificationQueue implements ActionListener {
         }
     }
 
+    /**
+     * Gets the number of notifications waiting in the queue. The notification
+     * currently on display is not taken into account, as well as the expired
+     * ones.
+     * @return The number of notifications waiting to be displayed.
+     */
+    public synchronized int size() {
+        return pending;
+    }
+
     /**
      * Implements the <code>ActionListener</code> for our timer. It will trigger
      * notifications and process the queue.
      * @param e The event.
      */
     public void actionPerformed(ActionEvent e) {
+        NotificationHandle.holdSteps();
+        try {
+            process();
+        } finally {
+            NotificationHandle.releaseSteps();
+        }
+    }
+
+    /**
+     * Processes the queue with the lock held. The steps of the lifecycle
+     * reported meanwhile are delivered once the lock is released.
+     */
+    private synchronized void process() {
+
+        // get rid of the expired notifications first
+        long now = scheduler.currentTimeMillis();
+        purgeExpired(now);
+
+        // replace the bursts by their summaries
+        if (!digests.isEmpty()) {
+            flushDigests(now, false);
+        }
+
+        // check if there is no notification running, releasing the
+        // last one
+        if ((current == null) || (!current.isRunning())) {
+            current = null;
+
+            // the notification held back by the rate limiter comes first;
+            // it was counted once when held back, and its deadline still
+            // applies while waiting for the rate
+            if (held != null) {
+                Notification next = held;
+                if (next.isFinished()) {
+
+                    // cancelled through Notification#cancel() meanwhile
+                    held = null;
+                }
+                else if (next.isExpiredAt(now)) {
+                    held = null;
+                    expire(next);
+                }
+                else {
+
+                    // try again
+                    if ((rateLimiter == null) || (rateLimiter.tryAcquire(next, now))) {
+                        held = null;
+                        display(next, now);
+                    }
+                }
+            }
+            else {
+
+                // check if queue is not empty
+                if (pending > 0) {
+
+                    // poll a notification from the queue
+                    Notification next = pollLive(now);
+
+                    // check if there is something to show
+                    if (next != null) {
+
+                        // animate
+                        show(next, now);
+                    }
+                }
+            }
+        }
+
+        // if the queue is empty, there are no open digests and the last
+        // notification was released
+        if ((pending == 0) && (held == null) && (digests.isEmpty()) && (current == null)) {
+
+            // stop the timer
+            timer.stop();
+        }
+    }
+
+    /**
+     * Displays the notification. If the adaptive duration mode is enabled,
+     * the display duration and the animation speed are shortened according
+     * to the backlog, so that the whole queue is displayed within the maximum
+     * drain time. Consider \f$ n \f$ as the backlog, including the notification
+     * being displayed, \f$ t \f$ as the maximum drain time, and \f$ d \f$ and
+     * \f$ a \f$ as the display duration and the animation speed of the
+     * notification. Each notification has a budget of \f$ t / n \f$ and the
+     * nominal cost of \f$ c = d + 2a \f$, so both durations are scaled by
+     * \f$ s = \min(1, t / (n c)) \f$, never going below the configured floors.
+     *
+     * If there is a rate limiter and the rate is exceeded, the notification
+     * is held back, collected into a digest or discarded, according to the
+     * overflow policy of the limiter.
+     * @param notification The notification to be displayed.
+     * @param now The current time in milliseconds.
+     */
+    private void show(Notification notification, long now) {
+
+        // check the rate
+        if ((rateLimiter != null) && (!rateLimiter.tryAcquire(notification, now))) {
+            overflow(notification, now);
+            return;
+        }
+        display(notification, now);
+    }
+
+    /**
+     * Displays the notification once the rate allows it, shortening its
+     * durations if the adaptive duration mode is enabled.
+     * @param notification The notification to be displayed.
+     * @param now The current time in milliseconds.
+     */
+    private void display(Notification notification, long now) {
+
+        // nominal values
+        int duration = notification.getDuration();
+        int animationSpeed = notification.getAnimationSpeed();
+        int backlog = pending + 1;
+        double scale = 1.0;
+
+        // check if we need to shorten things
+        if (adaptiveDuration) {
+            double cost = duration + (2.0 * animationSpeed);
+            double budget = (double) maximumDrainTime / backlog;
+            if ((cost > 0) && (budget < cost)) {
+                scale = budget / cost;
+                duration = scaleDuration(duration, scale, minimumDuration);
+                animationSpeed = scaleDuration(animationSpeed, scale, minimumAnimationSpeed);
+            }
+        }
+
+        // animate, unless it was cancelled through Notification#cancel()
+        // after being polled, and record
+        if (!notification.animate(duration, animationSpeed)) {
+            return;
+        }
+        metrics.recordDisplayed(backlog, duration, animationSpeed, scale);
+        current = notification;
+        notification.handle.fire(NotificationEvent.Type.SHOWN);
+
+        // the timer releases the notification once it is done
+        if (timer.isRunning() == false) {
+            timer.start();
+        }
+    }
+
+    /**
+     * Handles a notification exceeding the rate, according to the overflow
+     * policy of the rate limiter. Summary notifications are never collected
+     * into another digest, so they are held back instead.
+     * @param notification The notification exceeding the rate.
+     * @param now The current time in milliseconds.
+     */
+    private void overflow(Notification notification, long now) {
+        metrics.recordRateLimited();
+        OverflowPolicy policy = rateLimiter.getOverflowPolicy();
+        if ((policy == OverflowPolicy.DIGEST) && (notification.summary)) {
+            policy = OverflowPolicy.QUEUE;
+        }
+        switch (policy) {
+            case QUEUE:
+                held = notification;
+                break;
+            case DIGEST:
+                String key = (notification.getKey() == null) ? "" : notification.getKey();
+                collectInto(digestFor(key, now), notification);
+                break;
+            case DROP:
+                notification.discard();
+                metrics.recordDropped();
+                notification.handle.fire(NotificationEvent.Type.DROPPED);
+                break;
+        }
+
+        // the timer will try again later
+        if (timer.isRunning() == false) {
+            timer.start();
+        }
+    }
+
+    /**
+     * Scales a duration, respecting the provided floor. A duration already
+     * shorter than the floor is kept as it is.
+     * @param value The nominal duration in milliseconds.
+     * @param scale The scale factor.
+     * @param floor The minimum duration in milliseconds.
+     * @return The scaled duration in milliseconds.
+     */
+    private static int scaleDuration(int value, double scale, int floor) {
+        int result = (int) Math.round(value * scale);
+        if (result < floor) {
+            result = Math.min(value, floor);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the arrival of a notification in its group and collects it into
+     * the group digest if the threshold is exceeded within the current window
+     * of time.
+     * @param notification The notification.
+     * @param now The current time in milliseconds.
+     * @return <code>true</code> if the notification was collected, or
+     * <code>false</code> if it should be displayed as usual.
+     */
+    private boolean collect(Notification notification, long now) {
+
+        // get the digest of this group
+        String key = (notification.getKey() == null) ? "" : notification.getKey();
+        NotificationDigest digest = digestFor(key, now);
+
+        // check the threshold
+        if (digest.arrive() > digestThreshold) {
+            collectInto(digest, notification);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the digest of the provided group, starting a new window of time
+     * if there is no digest or if the current window is over.
+     * @param key The grouping key.
+     * @param now The current time in milliseconds.
+     * @return The digest.
+     */
+    private NotificationDigest digestFor(String key, long now) {
+
+        // get the digest of this group
+        NotificationDigest digest = digests.get(key);
+
+        // check if a new window of time should be started
+        if ((digest != null) && (digest.isOver(now, digestWindow))) {
+            digests.remove(key);
+            if (digest.hasCollected()) {
+                offer(digest.createSummary());
+            }
+            digest = null;
+        }
+        if (digest == null) {
+            digest = new NotificationDigest(key, now);
+            digests.put(key, digest);
+        }
+        return digest;
+    }
+
+    /**
+     * Collects the notification into the digest. The window of the
+     * notification is no longer needed, so it is discarded.
+     * @param digest The digest.
+     * @param notification The notification.
+     */
+    private void collectInto(NotificationDigest digest, Notification notification) {
+
+        // nothing to collect if it was cancelled through Notification#cancel()
+        if (notification.isFinished()) {
+            return;
+        }
+
+        // collect it
+        digest.collect(notification);
+        notification.discard();
+        metrics.recordDigested();
+        notification.handle.fire(NotificationEvent.Type.DIGESTED);
+
+        // the timer will flush this digest later
+        if (timer.isRunning() == false) {
+            timer.start();
+        }
+    }
+
+    /**
+     * Replaces the collected notifications of each digest by a summary
+     * notification, once the window of time of the digest is over.
+     * @param now The current time in milliseconds.
+     * @param force <code>true</code> if every digest should be flushed, even
+     * if its window of time is not over.
+     */
+    private void flushDigests(long now, boolean force) {
+        Iterator<NotificationDigest> iterator = digests.values().iterator();
+        while (iterator.hasNext()) {
+            NotificationDigest digest = iterator.next();
+            if ((force) || (digest.isOver(now, digestWindow))) {
+                iterator.remove();
+                if (digest.hasCollected()) {
+                    offer(digest.createSummary());
+                }
+            }
+        }
+    }
 
-        // there is a current notification going on
-        if (current != null) {
+    /**
+     * Appends the handle to the end of the queue, keeping track of the
+     * deadline of its notification, if any.
+     * @param handle The handle.
+     */
+    private void link(NotificationHandle handle) {
+        handle.previous = tail;
+        handle.next = null;
+        if (tail == null) {
+            head = handle;
+        } else {
+            tail.next = handle;
+        }
+        tail = handle;
+        handle.queued = true;
+        pending++;
+        if (handle.getNotification().hasDeadline()) {
+            expiryHeap.add(handle.getNotification());
+        }
+    }
 
-            // check if queue is not empty and there is no
-            // notification running
-            if ((!queue.isEmpty()) && (!current.isRunning())) {
+    /**
+     * Removes the handle from the queue, wherever it is. It takes constant
+     * time, aside from the expiry heap, which takes logarithmic time.
+     * @param handle The handle.
+     */
+    private void unlink(NotificationHandle handle) {
+        if (handle.previous == null) {
+            head = handle.next;
+        } else {
+            handle.previous.next = handle.next;
+        }
+        if (handle.next == null) {
+            tail = handle.previous;
+        } else {
+            handle.next.previous = handle.previous;
+        }
+        handle.previous = null;
+        handle.next = null;
+        handle.queued = false;
+        pending--;
+        expiryHeap.remove(handle.getNotification());
+    }
 
-                // poll a notification from the queue
-                current = (Notification) queue.poll();
+    /**
+     * Changes the expiry deadline of a notification of this queue. If it is
+     * still waiting, it takes its new place in the expiry heap, or leaves
+     * the heap if it no longer expires.
+     * @param notification The notification.
+     * @param deadline The new deadline.
+     * @param timeToLive The time to live it came from, or -1 if none.
+     */
+    synchronized void reschedule(Notification notification, long deadline, long timeToLive) {
+        expiryHeap.remove(notification);
+        notification.assignDeadline(deadline, timeToLive);
+        if ((notification.handle.queued) && (notification.hasDeadline())) {
+            expiryHeap.add(notification);
+        }
+    }
+
+    /**
+     * Purges every notification whose deadline is over. Since the expiry heap
+     * is ordered by deadline, each purged notification costs a logarithmic
+     * time and the check itself is constant when nothing is expired.
+     * @param now The current time in milliseconds.
+     */
+    private void purgeExpired(long now) {
+        Notification first = expiryHeap.peek();
+        while ((first != null) && (first.isExpiredAt(now))) {
+            unlink(first.handle);
+            expire(first);
+            first = expiryHeap.peek();
+        }
+    }
+
+    /**
+     * Polls the next notification to be displayed, lazily purging the ones
+     * expired since the last sweep.
+     * @param now The current time in milliseconds.
+     * @return The next notification, or <code>null</code> if there is none.
+     */
+    private Notification pollLive(long now) {
+        while (head != null) {
+
+            // the notification is no longer waiting
+            Notification notification = head.getNotification();
+            unlink(head);
 
-                // animate
-                current.animate();
+            // check if it expired since the last sweep, skipping it if it
+            // was cancelled through Notification#cancel() while waiting,
+            // since its window is gone already
+            if (notification.isExpiredAt(now)) {
+                expire(notification);
+            } else if (!notification.isFinished()) {
+                return notification;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Discards the expired notification.
+     * @param notification The expired notification.
+     */
+    private void expire(Notification notification) {
+        notification.discard();
+        metrics.recordExpired();
+        notification.handle.fire(NotificationEvent.Type.EXPIRED);
+    }
+
+    /**
+     * Cancels or dismisses the notification of the handle. A waiting
+     * notification is removed from the queue in constant time and discarded;
+     * a notification on display is either dismissed, jumping straight to the
+     * closing animation, or cancelled, releasing its window right away.
+     * @param handle The handle.
+     * @param dismiss <code>true</code> if a notification on display should
+     * be dismissed, or <code>false</code> if it should be cancelled.
+     */
+    void cancel(NotificationHandle handle, boolean dismiss) {
+        NotificationHandle.holdSteps();
+        try {
+            remove(handle, dismiss);
+        } finally {
+            NotificationHandle.releaseSteps();
+        }
+    }
+
+    /**
+     * Cancels or dismisses the notification of the handle with the lock
+     * held. The steps of the lifecycle reported meanwhile are delivered once
+     * the lock is released.
+     * @param handle The handle.
+     * @param dismiss <code>true</code> if a notification on display should
+     * be dismissed, or <code>false</code> if it should be cancelled.
+     */
+    private synchronized void remove(NotificationHandle handle, boolean dismiss) {
+        Notification notification = handle.getNotification();
+        NotificationEvent.Type type = dismiss ? NotificationEvent.Type.DISMISSED : NotificationEvent.Type.CANCELLED;
+
+        // check if the notification is still waiting
+        if (handle.queued) {
+            unlink(handle);
+            notification.discard();
+            metrics.recordCancelled();
+            handle.fire(type);
+        }
+        else {
+
+            // check if the notification is held back by the rate limiter
+            if (notification == held) {
+                held = null;
+                notification.discard();
+                metrics.recordCancelled();
+                handle.fire(type);
             }
             else {
 
-                // if the queue is empty
-                if (queue.isEmpty()) {
+                // check if the notification is on display, which reports
+                // its event itself
+                if (notification == current) {
+                    if (dismiss) {
+                        notification.dismiss();
+                    } else {
+                        notification.cancel();
+                    }
+                    metrics.recordCancelled();
+                }
+            }
+        }
+    }
+
+    /**
+     * Enables or disables the adaptive duration mode. When enabled, the
+     * display duration and the animation speed of each notification are
+     * shortened proportionally to the backlog, so the whole queue may be
+     * displayed within the maximum drain time. Check the following example:
+     * @code
+     * NotificationQueue queue = new NotificationQueue();
+     * queue.setAdaptiveDuration(true);
+     * queue.setMaximumDrainTime(30000);
+     * queue.setMinimumDuration(750);
+     * @endcode
+     * This mode is disabled by default.
+     * @param value <code>true</code> if the adaptive duration mode should be
+     * enabled, or <code>false</code> otherwise.
+     */
+    public synchronized void setAdaptiveDuration(boolean value) {
+        this.adaptiveDuration = value;
+    }
+
+    /**
+     * Checks if the adaptive duration mode is enabled.
+     * @return <code>true</code> if the adaptive duration mode is enabled, or
+     * <code>false</code> otherwise.
+     */
+    public synchronized boolean isAdaptiveDuration() {
+        return adaptiveDuration;
+    }
+
+    /**
+     * Sets the maximum time the queue should take to display all of its
+     * notifications when the adaptive duration mode is enabled. The default
+     * value is 60 seconds.
+     * @param milliseconds The maximum drain time in milliseconds.
+     */
+    public synchronized void setMaximumDrainTime(long milliseconds) {
+        this.maximumDrainTime = milliseconds;
+    }
 
-                    // stop the timer
-                    timer.stop();
+    /**
+     * Sets the floor for the display duration when the adaptive duration
+     * mode is enabled. The default value is 1 second.
+     * @param milliseconds The minimum display duration in milliseconds.
+     */
+    public synchronized void setMinimumDuration(int milliseconds) {
+        this.minimumDuration = milliseconds;
+    }
+
+    /**
+     * Sets the floor for the show and close effects when the adaptive
+     * duration mode is enabled. The default value is 100 milliseconds.
+     * @param milliseconds The minimum animation speed in milliseconds.
+     */
+    public synchronized void setMinimumAnimationSpeed(int milliseconds) {
+        this.minimumAnimationSpeed = milliseconds;
+    }
+
+    /**
+     * Enables the digest mode. When more than <code>threshold</code>
+     * notifications sharing the same grouping key arrive within a window of
+     * time, the remaining ones are not displayed individually; instead, they
+     * are collected into a single summary notification, such as <i>47 new
+     * events</i>, displayed when the window is over. The summary can be
+     * expanded into a scrollable list of the collected messages. Check the
+     * following example:
+     * @code
+     * NotificationQueue queue = new NotificationQueue();
+     * queue.setDigest(5, 10000);
+     * ...
+     * note.setKey("build");
+     * note.setMessage("Build #42 finished");
+     * queue.add(note);
+     * @endcode
+     * Notifications are grouped through Notification#setKey(), and the ones
+     * without a key belong to the same group.
+     * @param threshold The number of notifications of a group displayed
+     * individually within a window of time. Use 0 to disable the digest mode.
+     * @param windowInMillis The length of the window of time in milliseconds.
+     */
+    public void setDigest(int threshold, long windowInMillis) {
+        NotificationHandle.holdSteps();
+        try {
+            synchronized (this) {
+
+                // release the current bursts before changing the rules
+                if ((threshold == 0) && (!digests.isEmpty())) {
+                    flushDigests(scheduler.currentTimeMillis(), true);
                 }
+                this.digestThreshold = threshold;
+                this.digestWindow = windowInMillis;
             }
+        } finally {
+            NotificationHandle.releaseSteps();
+        }
+    }
+
+    /**
+     * Sets the rate limiter of this queue. Every notification about to be
+     * displayed takes a token from the limiter, and the ones exceeding the
+     * rate are handled according to its overflow policy. Check the following
+     * example:
+     * @code
+     * RateLimiter limiter = new RateLimiter(OverflowPolicy.QUEUE);
+     * limiter.setPositionRate(2, 5);
+     * NotificationQueue queue = new NotificationQueue();
+     * queue.setRateLimiter(limiter);
+     * @endcode
+     * @param rateLimiter The <b>net.sf.jcarrierpigeon.RateLimiter</b> object,
+     * or <code>null</code> for no limit at all.
+     */
+    public synchronized void setRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Sets the history of this queue. Every notification added from now on is
+     * recorded into it, including the ones which expire or are collected into
+     * a digest before being displayed. Check the following example:
+     * @code
+     * NotificationHistory history = new NotificationHistory(10000);
+     * NotificationQueue queue = new NotificationQueue();
+     * queue.setHistory(history);
+     * @endcode
+     * The very same history may be shared by several queues.
+     * @param history The <b>net.sf.jcarrierpigeon.NotificationHistory</b>
+     * object, or <code>null</code> in order to stop recording.
+     */
+    public synchronized void setHistory(NotificationHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Gets the history of this queue.
+     * @return The <b>net.sf.jcarrierpigeon.NotificationHistory</b> object,
+     * or <code>null</code> if there is none.
+     */
+    public synchronized NotificationHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Sets the journal of this queue. Every notification added from now on is
+     * recorded into it until it is done, so it may be restored after a restart
+     * through NotificationJournal#restore(). Check the following example:
+     * @code
+     * NotificationJournal journal = new NotificationJournal(new File("notifications.journal"));
+     * NotificationQueue queue = new NotificationQueue();
+     * journal.restore(queue, new MessageNotificationFactory());
+     * queue.setJournal(journal);
+     * @endcode
+     * @param journal The <b>net.sf.jcarrierpigeon.NotificationJournal</b>
+     * object, or <code>null</code> in order to stop recording.
+     */
+    public synchronized void setJournal(NotificationJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Gets the journal of this queue.
+     * @return The <b>net.sf.jcarrierpigeon.NotificationJournal</b> object,
+     * or <code>null</code> if there is none.
+     */
+    public synchronized NotificationJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Gets the metrics of this queue, such as the durations effectively used
+     * by the adaptive duration mode.
+     * @return The <b>net.sf.jcarrierpigeon.NotificationQueueMetrics</b> object
+     * of this queue.
+     */
+    public NotificationQueueMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Adds a listener of the lifecycle of the notifications of this queue.
+     * @param listener The <b>net.sf.jcarrierpigeon.NotificationListener</b>
+     * object.
+     */
+    public void addNotificationListener(NotificationListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener of the lifecycle of the notifications of this queue.
+     * @param listener The <b>net.sf.jcarrierpigeon.NotificationListener</b>
+     * object.
+     */
+    public void removeNotificationListener(NotificationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reports a step of the lifecycle of a notification to the listeners.
+     * @param type The step of the lifecycle.
+     * @param notification The notification.
+     */
+    void fireEvent(NotificationEvent.Type type, Notification notification) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        NotificationEvent event = new NotificationEvent(type, notification, scheduler.currentTimeMillis());
+        for (NotificationListener listener : listeners) {
+            listener.notificationChanged(event);
         }
     }
 
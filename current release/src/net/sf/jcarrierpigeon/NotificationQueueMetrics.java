@@ -0,0 +1,233 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>NotificationQueueMetrics.java</b>: provides some figures about the
+ * work done by a notification queue manager, such as how many notifications
+ * were displayed or expired and the durations effectively used.
+ */
+
+package net.sf.jcarrierpigeon;
+
+/**
+ * Provides some figures about the work done by a notification queue manager.
+ * An instance of this class is obtained through NotificationQueue#getMetrics()
+ * and it is updated by the queue itself, so the values are always the current
+ * ones. Check the following example:
+ * @code
+ * NotificationQueue queue = new NotificationQueue();
+ * queue.setAdaptiveDuration(true);
+ * ...
+ * NotificationQueueMetrics metrics = queue.getMetrics();
+ * System.out.println(metrics.getLastEffectiveDuration());
+ * @endcode
+ * The values are only updated by the queue manager, but they may be read
+ * from any thread.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class NotificationQueueMetrics {
+
+    // counters
+    private volatile long displayedCount;
+    private volatile long expiredCount;
+    private volatile long digestedCount;
+    private volatile long rateLimitedCount;
+    private volatile long droppedCount;
+    private volatile long cancelledCount;
+    // figures from the last displayed notification
+    private volatile int lastBacklog;
+    private volatile int lastEffectiveDuration;
+    private volatile int lastEffectiveAnimationSpeed;
+    private volatile double lastScale = 1.0;
+
+    /**
+     * Constructor method. Only the queue manager creates metrics.
+     */
+    NotificationQueueMetrics() {
+    }
+
+    /**
+     * Records a notification being displayed.
+     * @param backlog The number of notifications in the queue, including
+     * the one being displayed.
+     * @param duration The effective display duration in milliseconds.
+     * @param animationSpeed The effective duration of the show and close
+     * effects in milliseconds.
+     * @param scale The factor applied to the nominal durations.
+     */
+    void recordDisplayed(int backlog, int duration, int animationSpeed, double scale) {
+        lastBacklog = backlog;
+        lastEffectiveDuration = duration;
+        lastEffectiveAnimationSpeed = animationSpeed;
+        lastScale = scale;
+        displayedCount++;
+    }
+
+    /**
+     * Records a notification being discarded because it expired.
+     */
+    void recordExpired() {
+        expiredCount++;
+    }
+
+    /**
+     * Records a notification being collected into a summary notification.
+     */
+    void recordDigested() {
+        digestedCount++;
+    }
+
+    /**
+     * Records a notification exceeding the rate of the rate limiter.
+     */
+    void recordRateLimited() {
+        rateLimitedCount++;
+    }
+
+    /**
+     * Records a notification being discarded by the rate limiter.
+     */
+    void recordDropped() {
+        droppedCount++;
+    }
+
+    /**
+     * Records a notification being cancelled or dismissed through its handle.
+     */
+    void recordCancelled() {
+        cancelledCount++;
+    }
+
+    /**
+     * Gets the number of notifications displayed so far.
+     * @return The number of displayed notifications.
+     */
+    public long getDisplayedCount() {
+        return displayedCount;
+    }
+
+    /**
+     * Gets the number of notifications discarded because they expired.
+     * @return The number of expired notifications.
+     */
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+
+    /**
+     * Gets the number of notifications collected into summary notifications
+     * instead of being displayed individually.
+     * @return The number of collected notifications.
+     */
+    public long getDigestedCount() {
+        return digestedCount;
+    }
+
+    /**
+     * Gets the number of notifications which exceeded the rate of the rate
+     * limiter. A notification held back is counted only once, however long
+     * it waits for the rate.
+     * @return The number of notifications which exceeded the rate.
+     */
+    public long getRateLimitedCount() {
+        return rateLimitedCount;
+    }
+
+    /**
+     * Gets the number of notifications discarded by the rate limiter.
+     * @return The number of dropped notifications.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Gets the number of notifications cancelled or dismissed through their
+     * handles, either waiting in the queue or on display.
+     * @return The number of cancelled notifications.
+     */
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+
+    /**
+     * Gets the backlog when the last notification was displayed, that is, the
+     * number of notifications in the queue including the displayed one.
+     * @return The backlog depth.
+     */
+    public int getLastBacklog() {
+        return lastBacklog;
+    }
+
+    /**
+     * Gets the display duration effectively used by the last notification.
+     * @return The duration in milliseconds.
+     */
+    public int getLastEffectiveDuration() {
+        return lastEffectiveDuration;
+    }
+
+    /**
+     * Gets the duration of the show and close effects effectively used by
+     * the last notification.
+     * @return The duration in milliseconds.
+     */
+    public int getLastEffectiveAnimationSpeed() {
+        return lastEffectiveAnimationSpeed;
+    }
+
+    /**
+     * Gets the factor applied to the nominal durations of the last
+     * notification. A value of <code>1.0</code> means the notification
+     * was not shortened at all.
+     * @return The factor, on a continuum interval, 0 < x <= 1.
+     */
+    public double getLastScale() {
+        return lastScale;
+    }
+}
@@ -0,0 +1,249 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>NotificationSender.java</b>: sends a notification from the command
+ * line, through a running daemon or directly.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Sends a notification from the command line, for shell scripts and
+ * scheduled jobs. Check the following example:
+ * @code
+ * java -jar JCarrierPigeon.jar -k backup -p bottomright -d 5000 Backup finished
+ * @endcode
+ * If a <b>net.sf.jcarrierpigeon.NotificationDaemon</b> object is listening
+ * on the port, the notification is sent to it and the command returns right
+ * away; otherwise, the notification is displayed by the command itself,
+ * which returns when it is closed. The following options are available:
+ * <code>-k</code> for the grouping key, <code>-p</code> for the window
+ * position, <code>-b</code> for the border in pixels, <code>-d</code> for the
+ * display duration in milliseconds, <code>-a</code> for the animation speed
+ * in milliseconds, <code>--port</code> for the daemon port,
+ * <code>--direct</code> in order not to look for a daemon and
+ * <code>--dry-run</code> in order to print the notification and not send it.
+ * <p>
+ * Startup time matters more than anything else here, so the path sending to
+ * a daemon loads no AWT or Swing class at all: they are only referenced by a
+ * nested class, loaded when the notification is displayed directly. This
+ * path also uses no reflection, resources or dynamic class loading, so it
+ * can be compiled ahead of time into a native image as it is. The startup
+ * of a regular JVM can be improved with a class data sharing archive, built
+ * by the <code>cds-archive</code> target of the build file:
+ * @code
+ * java -XX:SharedArchiveFile=dist/JCarrierPigeon.jsa -jar dist/JCarrierPigeon.jar Build finished
+ * @endcode
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public final class NotificationSender {
+
+    // exit statuses
+    private static final int SUCCESS = 0;
+    private static final int FAILURE = 1;
+    private static final int USAGE = 2;
+
+    /**
+     * Private constructor, this class is not meant to be instantiated.
+     */
+    private NotificationSender() {
+    }
+
+    /**
+     * Sends a notification according to the command line arguments, then
+     * exits.
+     * @param args The command line arguments.
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out));
+    }
+
+    /**
+     * Sends a notification according to the command line arguments.
+     * @param args The command line arguments.
+     * @param out The stream messages are printed to.
+     * @return The exit status: 0 on success, 1 if the notification could not
+     * be sent and 2 if the arguments are wrong.
+     */
+    public static int run(String[] args, PrintStream out) {
+
+        // parse the options
+        String key = null;
+        WindowPosition position = WindowPosition.BOTTOMRIGHT;
+        int border = 25;
+        int duration = 5000;
+        int animationSpeed = 500;
+        int port = NotificationDaemon.DEFAULT_PORT;
+        boolean direct = false;
+        boolean dryRun = false;
+        StringBuilder message = new StringBuilder();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if ((message.length() == 0) && (arg.startsWith("-")) && (!arg.equals("-"))) {
+                    if (arg.equals("--")) {
+                        // everything else is the message
+                        for (i++; i < args.length; i++) {
+                            append(message, args[i]);
+                        }
+                    } else if (arg.equals("--direct")) {
+                        direct = true;
+                    } else if (arg.equals("--dry-run")) {
+                        dryRun = true;
+                    } else if ((arg.equals("-h")) || (arg.equals("--help"))) {
+                        usage(out);
+                        return SUCCESS;
+                    } else if (i + 1 == args.length) {
+                        throw new IllegalArgumentException("Missing value for " + arg);
+                    } else if (arg.equals("-k")) {
+                        key = args[++i];
+                    } else if (arg.equals("-p")) {
+                        position = WindowPosition.valueOf(args[++i].toUpperCase());
+                    } else if (arg.equals("-b")) {
+                        border = Integer.parseInt(args[++i]);
+                    } else if (arg.equals("-d")) {
+                        duration = Integer.parseInt(args[++i]);
+                    } else if (arg.equals("-a")) {
+                        animationSpeed = Integer.parseInt(args[++i]);
+                    } else if (arg.equals("--port")) {
+                        port = Integer.parseInt(args[++i]);
+                    } else {
+                        throw new IllegalArgumentException("Unknown option " + arg);
+                    }
+                } else {
+                    append(message, arg);
+                }
+            }
+            if (message.length() == 0) {
+                throw new IllegalArgumentException("Missing message");
+            }
+        } catch (IllegalArgumentException exception) {
+            out.println(exception.getMessage());
+            usage(out);
+            return USAGE;
+        }
+        NotificationData data = new NotificationData(key, message.toString(), position, border, border,
+                duration, animationSpeed, Long.MAX_VALUE);
+
+        // print it, encoding it as it would be sent
+        if (dryRun) {
+            ByteBuffer buffer = ByteBuffer.allocate(data.getEncodedSize());
+            data.encode(buffer);
+            out.println(data.getWindowPosition() + " " + data.getDuration() + " ms, " + buffer.position()
+                    + " bytes: " + data.getMessage());
+            return SUCCESS;
+        }
+
+        // send it to the daemon, if there is one
+        if (!direct) {
+            NotificationClient client;
+            try {
+                client = NotificationClient.connect(port);
+            } catch (IOException exception) {
+                client = null;
+            }
+            if (client != null) {
+                try {
+                    client.send(data);
+                    client.close();
+                    return SUCCESS;
+                } catch (IOException exception) {
+                    out.println("Could not send the notification: " + exception.getMessage());
+                    return FAILURE;
+                }
+            }
+        }
+
+        // or display it
+        Display.show(data);
+        return SUCCESS;
+    }
+
+    /**
+     * Appends a word to the message.
+     * @param message The message.
+     * @param word The word.
+     */
+    private static void append(StringBuilder message, String word) {
+        if (message.length() > 0) {
+            message.append(' ');
+        }
+        message.append(word);
+    }
+
+    /**
+     * Prints the usage.
+     * @param out The stream.
+     */
+    private static void usage(PrintStream out) {
+        out.println("usage: java -jar JCarrierPigeon.jar [-k key] [-p position] [-b border] [-d duration]");
+        out.println("       [-a speed] [--port port] [--direct] [--dry-run] message");
+    }
+
+    /**
+     * Displays notifications directly. This is the only part of the class
+     * referencing AWT and Swing, so they are not loaded when there is a
+     * daemon.
+     */
+    private static final class Display {
+
+        /**
+         * Displays a notification and waits until it is closed.
+         * @param data The description of the notification.
+         */
+        static void show(NotificationData data) {
+            Notification note = new MessageNotificationFactory().createNotification(data);
+            note.animate().getClosed().join();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>NotificationSubscriber.java</b>: feeds the queue manager from a
+ * reactive stream, with backpressure.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Feeds the queue manager from a reactive stream of notifications, with
+ * backpressure. Check the following example:
+ * @code
+ * NotificationQueue queue = new NotificationQueue();
+ * publisher.subscribe(new NotificationSubscriber(queue, new MessageNotificationFactory(), 10));
+ * @endcode
+ * The subscriber requests just enough items to keep the queue at its
+ * capacity: it requests more each time a notification leaves the queue,
+ * that is, when it is shown, cancelled, expired or dropped, so items flow at
+ * the pace notifications are displayed, and producers upstream slow down
+ * instead of flooding the queue. Items are described by
+ * <b>net.sf.jcarrierpigeon.NotificationData</b> objects and built by a
+ * <b>net.sf.jcarrierpigeon.NotificationFactory</b> object as they arrive.
+ * The capacity only counts notifications waiting in the queue, including the
+ * ones added by other means.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class NotificationSubscriber implements Flow.Subscriber<NotificationData> {
+
+    private final NotificationQueue queue;
+    private final NotificationFactory factory;
+    private final int capacity;
+    private final NotificationListener listener;
+    // the subscription and the items requested but not received yet
+    private Flow.Subscription subscription;
+    private long outstanding;
+    private boolean terminated;
+    private Throwable error;
+
+    /**
+     * Constructor method.
+     * @param queue The queue manager.
+     * @param factory The factory which builds each notification.
+     * @param capacity The maximum number of notifications waiting in the queue.
+     */
+    public NotificationSubscriber(NotificationQueue queue, NotificationFactory factory, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive");
+        }
+        this.queue = queue;
+        this.factory = factory;
+        this.capacity = capacity;
+        this.listener = new NotificationListener() {
+
+            public void notificationChanged(NotificationEvent event) {
+                replenish();
+            }
+        };
+        this.subscription = null;
+        this.outstanding = 0;
+        this.terminated = false;
+        this.error = null;
+    }
+
+    /**
+     * Implements the <code>onSubscribe</code> method from <code>java.util.concurrent.Flow.Subscriber</code>.
+     * Please don't call this function directly.
+     * @param subscription The subscription.
+     */
+    public void onSubscribe(Flow.Subscription subscription) {
+        synchronized (this) {
+
+            // a subscriber takes a single subscription
+            if ((this.subscription != null) || (terminated)) {
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+        }
+        queue.addNotificationListener(listener);
+        replenish();
+    }
+
+    /**
+     * Implements the <code>onNext</code> method from <code>java.util.concurrent.Flow.Subscriber</code>.
+     * Please don't call this function directly.
+     * @param item The description of the notification.
+     */
+    public void onNext(NotificationData item) {
+        synchronized (this) {
+            if (terminated) {
+                return;
+            }
+            if (outstanding > 0) {
+                outstanding--;
+            }
+        }
+        queue.add(factory.createNotification(item));
+    }
+
+    /**
+     * Implements the <code>onError</code> method from <code>java.util.concurrent.Flow.Subscriber</code>.
+     * Please don't call this function directly.
+     * @param throwable The error.
+     */
+    public void onError(Throwable throwable) {
+        synchronized (this) {
+            error = throwable;
+        }
+        terminate();
+    }
+
+    /**
+     * Implements the <code>onComplete</code> method from <code>java.util.concurrent.Flow.Subscriber</code>.
+     * Please don't call this function directly.
+     */
+    public void onComplete() {
+        terminate();
+    }
+
+    /**
+     * Cancels the subscription. Notifications already in the queue are not
+     * affected.
+     */
+    public void cancel() {
+        Flow.Subscription current;
+        synchronized (this) {
+            current = subscription;
+        }
+        terminate();
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    /**
+     * Checks if the stream is over, because it completed, failed or was
+     * cancelled.
+     * @return <code>true</code> if the stream is over, or <code>false</code>
+     * otherwise.
+     */
+    public synchronized boolean isTerminated() {
+        return terminated;
+    }
+
+    /**
+     * Gets the error which ended the stream.
+     * @return The error, or <code>null</code> if there is none.
+     */
+    public synchronized Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Stops taking items.
+     */
+    private void terminate() {
+        synchronized (this) {
+            terminated = true;
+        }
+        queue.removeNotificationListener(listener);
+    }
+
+    /**
+     * Requests enough items to fill the queue up to its capacity, counting
+     * the ones already requested. The queue reports events once its lock is
+     * released, so it may be checked here; the request is made without the
+     * lock of this subscriber, since the publisher may deliver the items
+     * right away.
+     */
+    private void replenish() {
+        int waiting = queue.size();
+        Flow.Subscription current;
+        long wanted;
+        synchronized (this) {
+            if ((terminated) || (subscription == null)) {
+                return;
+            }
+            wanted = capacity - waiting - outstanding;
+            if (wanted <= 0) {
+                return;
+            }
+            outstanding += wanted;
+            current = subscription;
+        }
+        current.request(wanted);
+    }
+}
@@ -0,0 +1,430 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>NotificationTimer.java</b>: schedules notifications to be added to
+ * the queue manager later, once or repeatedly.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schedules notifications to be added to the queue manager later, once or
+ * repeatedly. Check the following example:
+ * @code
+ * NotificationQueue queue = new NotificationQueue();
+ * NotificationTimer timer = new NotificationTimer(queue, new MessageNotificationFactory());
+ * timer.schedule(new NotificationData("tea", "Your tea is ready", WindowPosition.BOTTOMRIGHT, 25, 25, 5000), 3 * 60 * 1000);
+ * timer.scheduleAtFixedRate(new NotificationData("stretch", "Time to stretch", WindowPosition.BOTTOMRIGHT, 25, 25, 5000),
+ *         60 * 60 * 1000, 60 * 60 * 1000);
+ * @endcode
+ * Notifications are described by <b>net.sf.jcarrierpigeon.NotificationData</b>
+ * objects and built by a <b>net.sf.jcarrierpigeon.NotificationFactory</b>
+ * object when they are due, so no window exists while they wait.
+ * <p>
+ * The notifications are kept in a hierarchical timing wheel: four wheels of
+ * 64 slots, the first one with one slot per tick of the timer, 50
+ * milliseconds by default, and each of the others with one slot per turn of
+ * the previous one. A notification is linked into the slot of the smallest
+ * wheel that reaches its time, and it moves down to a smaller wheel when its
+ * slot comes up, so scheduling and cancelling take constant time, and each
+ * tick only touches the notifications which are due. With the default tick,
+ * the wheels reach more than nine days; notifications further away wait in
+ * the last slot of the largest wheel and are placed again on each turn. The
+ * timer only ticks while there are notifications scheduled.
+ * <p>
+ * When a journal is set through #setJournal(), the schedule is kept in it
+ * too, and NotificationJournal#restore() schedules it again after a restart;
+ * notifications missed while the application was not running are added to
+ * the queue right away, repeating ones only once. This class is thread safe.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class NotificationTimer implements ActionListener {
+
+    // the default tick, in milliseconds
+    public static final int DEFAULT_RESOLUTION = 50;
+
+    // four wheels of 64 slots
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    // the number of ticks the wheels reach
+    private static final long RANGE = 1L << (BITS * LEVELS);
+
+    private final NotificationQueue queue;
+    private final NotificationFactory factory;
+    private final Scheduler scheduler;
+    private final int resolution;
+    // the heads of the slots, wheel after wheel; the previous link of a
+    // head points to the tail of its slot
+    private final ScheduledNotification[] slots;
+    // the time of tick 0 and the last tick processed
+    private final long origin;
+    private long currentTick;
+    private int size;
+    private final RepeatingTask task;
+    private NotificationJournal journal;
+
+    /**
+     * Constructor method. The timer ticks every 50 milliseconds, through the
+     * event dispatch thread.
+     * @param queue The queue manager the notifications are added to.
+     * @param factory The factory which builds each notification when it is due.
+     */
+    public NotificationTimer(NotificationQueue queue, NotificationFactory factory) {
+        this(queue, factory, new SwingScheduler(), DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * Constructor method.
+     * @param queue The queue manager the notifications are added to.
+     * @param factory The factory which builds each notification when it is due.
+     * @param scheduler The scheduler providing the clock and the ticks, usually
+     * the same one of the queue manager.
+     * @param resolution The tick in milliseconds.
+     */
+    public NotificationTimer(NotificationQueue queue, NotificationFactory factory, Scheduler scheduler, int resolution) {
+        if (resolution <= 0) {
+            throw new IllegalArgumentException("The resolution must be positive");
+        }
+        this.queue = queue;
+        this.factory = factory;
+        this.scheduler = scheduler;
+        this.resolution = resolution;
+        this.slots = new ScheduledNotification[LEVELS * SLOTS];
+        this.origin = scheduler.currentTimeMillis();
+        this.currentTick = 0;
+        this.size = 0;
+        this.task = scheduler.createTimer(resolution, this);
+        this.journal = null;
+    }
+
+    /**
+     * Schedules a notification to be added to the queue after a delay.
+     * @param data The description of the notification.
+     * @param delay The delay in milliseconds.
+     * @return The handle of the scheduled notification.
+     */
+    public ScheduledNotification schedule(NotificationData data, long delay) {
+        return scheduleAt(data, scheduler.currentTimeMillis() + Math.max(0, delay));
+    }
+
+    /**
+     * Schedules a notification to be added to the queue at a given time.
+     * @param data The description of the notification.
+     * @param time The time in milliseconds since the epoch, or rather, of
+     * the clock of the scheduler.
+     * @return The handle of the scheduled notification.
+     */
+    public ScheduledNotification scheduleAt(NotificationData data, long time) {
+        ScheduledNotification scheduled = new ScheduledNotification(data, time, 0);
+        add(scheduled);
+        return scheduled;
+    }
+
+    /**
+     * Schedules a notification to be added to the queue repeatedly, until it
+     * is cancelled. Repetitions missed because the application was busy or
+     * not running are skipped, so the notification is added once and then
+     * repeats at the same rate.
+     * @param data The description of the notification.
+     * @param initialDelay The delay of the first repetition in milliseconds.
+     * @param period The interval between repetitions in milliseconds.
+     * @return The handle of the scheduled notification.
+     */
+    public ScheduledNotification scheduleAtFixedRate(NotificationData data, long initialDelay, long period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("The period must be positive");
+        }
+        ScheduledNotification scheduled = new ScheduledNotification(data,
+                scheduler.currentTimeMillis() + Math.max(0, initialDelay), period);
+        add(scheduled);
+        return scheduled;
+    }
+
+    /**
+     * Gets the number of notifications scheduled.
+     * @return The number of notifications.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Sets the journal keeping the schedule, so it survives a restart. The
+     * notifications already scheduled are not recorded, so the journal should
+     * be set, after NotificationJournal#restore(), before scheduling anything.
+     * @param journal The journal, or <code>null</code> in order to stop recording.
+     */
+    public synchronized void setJournal(NotificationJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Gets the journal keeping the schedule.
+     * @return The journal, or <code>null</code> if there is none.
+     */
+    public synchronized NotificationJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Adds a notification to the wheels, recording it in the journal if it
+     * is not recorded yet.
+     * @param scheduled The scheduled notification.
+     */
+    synchronized void add(ScheduledNotification scheduled) {
+        if (scheduled.isCancelled()) {
+            return;
+        }
+        if ((journal != null) && (scheduled.journal == null)) {
+            scheduled.journal = journal;
+            journal.schedule(scheduled);
+        }
+
+        // an idle timer does not tick, so move it to the current time
+        if (size == 0) {
+            currentTick = Math.max(currentTick, (scheduler.currentTimeMillis() - origin) / resolution);
+        }
+        scheduled.timer = this;
+        scheduled.tick = tickOf(scheduled.time);
+        link(scheduled);
+        size++;
+        if (!task.isRunning()) {
+            task.start();
+        }
+    }
+
+    /**
+     * Removes a notification from the wheels. Nothing happens if it is not
+     * there anymore.
+     * @param scheduled The scheduled notification.
+     */
+    synchronized void cancel(ScheduledNotification scheduled) {
+        if (scheduled.slot < 0) {
+            return;
+        }
+        unlink(scheduled);
+        size--;
+        scheduled.timer = null;
+        if (scheduled.journal != null) {
+            scheduled.journal.done(scheduled.journalId);
+            scheduled.journal = null;
+        }
+    }
+
+    /**
+     * Converts a time into the first tick at or after it.
+     * @param time The time in milliseconds.
+     * @return The tick.
+     */
+    private long tickOf(long time) {
+        long elapsed = time - origin;
+        if (elapsed <= 0) {
+            return 0;
+        }
+        return (elapsed + resolution - 1) / resolution;
+    }
+
+    /**
+     * Links a notification into the slot of the smallest wheel which reaches
+     * its tick. Notifications already due go to the next tick.
+     * @param scheduled The scheduled notification.
+     */
+    private void link(ScheduledNotification scheduled) {
+        long tick = Math.max(scheduled.tick, currentTick + 1);
+        long delta = tick - currentTick;
+        int level = 0;
+        while ((level < LEVELS - 1) && (delta >= (1L << (BITS * (level + 1))))) {
+            level++;
+        }
+        if (delta >= RANGE) {
+            tick = currentTick + RANGE - 1;
+        }
+        int index = level * SLOTS + (int) ((tick >>> (BITS * level)) & MASK);
+
+        // append to the tail
+        ScheduledNotification head = slots[index];
+        scheduled.next = null;
+        if (head == null) {
+            scheduled.previous = scheduled;
+            slots[index] = scheduled;
+        } else {
+            ScheduledNotification tail = head.previous;
+            tail.next = scheduled;
+            scheduled.previous = tail;
+            head.previous = scheduled;
+        }
+        scheduled.slot = index;
+    }
+
+    /**
+     * Unlinks a notification from its slot.
+     * @param scheduled The scheduled notification.
+     */
+    private void unlink(ScheduledNotification scheduled) {
+        int index = scheduled.slot;
+        ScheduledNotification head = slots[index];
+        if (scheduled == head) {
+            slots[index] = scheduled.next;
+            if (scheduled.next != null) {
+                scheduled.next.previous = scheduled.previous;
+            }
+        } else {
+            scheduled.previous.next = scheduled.next;
+            if (scheduled.next != null) {
+                scheduled.next.previous = scheduled.previous;
+            } else {
+                head.previous = scheduled.previous;
+            }
+        }
+        scheduled.previous = null;
+        scheduled.next = null;
+        scheduled.slot = -1;
+    }
+
+    /**
+     * Detaches the whole list of a slot.
+     * @param index The slot index.
+     * @return The head of the list, or <code>null</code> if it is empty.
+     */
+    private ScheduledNotification detach(int index) {
+        ScheduledNotification head = slots[index];
+        slots[index] = null;
+        for (ScheduledNotification current = head; current != null; current = current.next) {
+            current.slot = -1;
+        }
+        return head;
+    }
+
+    /**
+     * Implements the <code>actionPerformed</code> method from <code>java.awt.event.ActionListener</code>.
+     * Please don't call this function directly.
+     * @param e The event.
+     */
+    public void actionPerformed(ActionEvent e) {
+
+        // collect the notifications which are due, with the lock held
+        List<NotificationData> due = new ArrayList<NotificationData>();
+        synchronized (this) {
+            long now = scheduler.currentTimeMillis();
+            long target = (now - origin) / resolution;
+            while ((currentTick < target) && (size > 0)) {
+                tick(now, due);
+            }
+            currentTick = Math.max(currentTick, target);
+            if (size == 0) {
+                task.stop();
+            }
+        }
+
+        // and add them to the queue, without it
+        for (NotificationData data : due) {
+            queue.add(factory.createNotification(data));
+        }
+    }
+
+    /**
+     * Processes the next tick: the slots of the larger wheels coming up are
+     * moved down, from the largest wheel to the smallest, then the
+     * notifications of the current slot of the first wheel are due.
+     * @param now The current time.
+     * @param due The list of notifications which are due.
+     */
+    private void tick(long now, List<NotificationData> due) {
+        currentTick++;
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                ScheduledNotification current = detach(level * SLOTS + (int) ((currentTick >>> (BITS * level)) & MASK));
+                while (current != null) {
+                    ScheduledNotification next = current.next;
+                    link(current);
+                    current = next;
+                }
+            }
+        }
+        ScheduledNotification current = detach((int) (currentTick & MASK));
+        while (current != null) {
+            ScheduledNotification next = current.next;
+            if (current.tick > currentTick) {
+
+                // too far away for the wheels, so placed again
+                link(current);
+            } else if (current.period > 0) {
+
+                // skip the repetitions which were missed
+                due.add(current.getData());
+                current.time += current.period;
+                if (current.time <= now) {
+                    current.time += ((now - current.time) / current.period + 1) * current.period;
+                }
+                current.tick = tickOf(current.time);
+                link(current);
+                if (current.journal != null) {
+                    current.journal.schedule(current);
+                }
+            } else {
+                due.add(current.getData());
+                size--;
+                current.timer = null;
+                current.done = true;
+                if (current.journal != null) {
+                    current.journal.done(current.journalId);
+                    current.journal = null;
+                }
+            }
+            current = next;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>RateLimiter.java</b>: limits the rate in which notifications are
+ * displayed, per source and per window position.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Limits the rate in which notifications are displayed, per source and per
+ * window position. Each notification displayed by the queue manager takes a
+ * token from the bucket of its source, that is, its grouping key, and from
+ * the bucket of its window position; if any of them is empty, the
+ * notification is handled according to the <b>net.sf.jcarrierpigeon.OverflowPolicy</b>
+ * of the limiter. This caps the creation of native windows and the animation
+ * work at a sustainable rate, no matter how fast notifications are produced.
+ * Check the following example:
+ * @code
+ * RateLimiter limiter = new RateLimiter(OverflowPolicy.DIGEST);
+ * limiter.setSourceRate(1, 3);
+ * limiter.setPositionRate(2, 5);
+ * NotificationQueue queue = new NotificationQueue();
+ * queue.setRateLimiter(limiter);
+ * @endcode
+ * Here each source may display a burst of 3 notifications and then 1 per
+ * second, while each screen corner may display a burst of 5 notifications
+ * and then 2 per second. Both limits are disabled by default.
+ *
+ * Please note the limiter is enforced by the queue manager only, since the
+ * excess has to be held, collected or dropped somewhere: notifications
+ * animated directly through Notification#animate(), or through the old
+ * <b>net.sf.jcarrierpigeon.CarrierPigeon</b> class, are not limited at all.
+ * A producer which may run away should add its notifications to a queue.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class RateLimiter {
+
+    // maximum number of idle source buckets kept around
+    private static final int MAXIMUM_IDLE_SOURCES = 1024;
+
+    // what to do with the excess
+    private OverflowPolicy overflowPolicy;
+    // settings, a rate of zero means no limit
+    private double sourceRate;
+    private int sourceBurst;
+    private double positionRate;
+    private int positionBurst;
+    // the buckets themselves
+    private Map<String, TokenBucket> sourceBuckets;
+    private Map<WindowPosition, TokenBucket> positionBuckets;
+
+    /**
+     * Constructor method. Both limits are disabled until set.
+     * @param overflowPolicy What to do with the notifications exceeding
+     * the rate.
+     */
+    public RateLimiter(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+        this.sourceRate = 0;
+        this.sourceBurst = 1;
+        this.positionRate = 0;
+        this.positionBurst = 1;
+        this.sourceBuckets = new HashMap<String, TokenBucket>();
+        this.positionBuckets = new EnumMap<WindowPosition, TokenBucket>(WindowPosition.class);
+    }
+
+    /**
+     * Sets the limit for each source, that is, for each grouping key set
+     * through Notification#setKey(). Notifications without a key share
+     * the same bucket.
+     * @param ratePerSecond The sustained rate in notifications per second.
+     * Use 0 to disable this limit.
+     * @param burst The number of notifications allowed at once.
+     */
+    public synchronized void setSourceRate(double ratePerSecond, int burst) {
+        this.sourceRate = ratePerSecond;
+        this.sourceBurst = burst;
+        sourceBuckets.clear();
+    }
+
+    /**
+     * Sets the limit for each window position, that is, for each corner
+     * of the screen.
+     * @param ratePerSecond The sustained rate in notifications per second.
+     * Use 0 to disable this limit.
+     * @param burst The number of notifications allowed at once.
+     */
+    public synchronized void setPositionRate(double ratePerSecond, int burst) {
+        this.positionRate = ratePerSecond;
+        this.positionBurst = burst;
+        positionBuckets.clear();
+    }
+
+    /**
+     * Gets the overflow policy of this limiter.
+     * @return What happens to the notifications exceeding the rate.
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Tries to take a token for the notification. Tokens are only taken if
+     * both the source and the window position allow it.
+     * @param notification The notification about to be displayed.
+     * @param now The current time in milliseconds.
+     * @return <code>true</code> if the notification may be displayed, or
+     * <code>false</code> otherwise.
+     */
+    synchronized boolean tryAcquire(Notification notification, long now) {
+
+        // get the buckets, if any
+        TokenBucket source = null;
+        if (sourceRate > 0) {
+            String key = (notification.getKey() == null) ? "" : notification.getKey();
+            source = sourceBuckets.get(key);
+            if (source == null) {
+                evictIdleSources(now);
+                source = new TokenBucket(sourceRate, sourceBurst, now);
+                sourceBuckets.put(key, source);
+            }
+        }
+        TokenBucket position = null;
+        if (positionRate > 0) {
+            position = positionBuckets.get(notification.getWindowPosition());
+            if (position == null) {
+                position = new TokenBucket(positionRate, positionBurst, now);
+                positionBuckets.put(notification.getWindowPosition(), position);
+            }
+        }
+
+        // both must allow it
+        if (((source != null) && (!source.isAvailable(now)))
+                || ((position != null) && (!position.isAvailable(now)))) {
+            return false;
+        }
+
+        // take the tokens
+        if (source != null) {
+            source.take();
+        }
+        if (position != null) {
+            position.take();
+        }
+        return true;
+    }
+
+    /**
+     * Throws away the full source buckets when there are too many of them.
+     * A full bucket behaves exactly as a new one, so the rate is kept.
+     * @param now The current time in milliseconds.
+     */
+    private void evictIdleSources(long now) {
+        if (sourceBuckets.size() >= MAXIMUM_IDLE_SOURCES) {
+            Iterator<TokenBucket> iterator = sourceBuckets.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isFull(now)) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+}
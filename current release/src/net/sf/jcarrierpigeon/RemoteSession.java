@@ -0,0 +1,178 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>RemoteSession.java</b>: detects if the application is displayed
+ * through a remote session, such as RDP, VNC or a forwarded X display.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.util.Map;
+
+/**
+ * Detects if the application is displayed through a remote session. On such
+ * sessions every window move is a network round trip, so animations should be
+ * kept to a minimum. There is no portable way of knowing it, and the AWT
+ * toolkit does not expose it, so the detection relies on the environment
+ * variables set by the usual remote access tools:
+ *  - <code>SESSIONNAME</code> starting with <code>RDP-</code> or
+ *    <code>ICA-</code>, set by Windows Remote Desktop and Citrix.
+ *  - <code>XRDP_SESSION</code> or <code>VNCDESKTOP</code>, set by xrdp
+ *    and by some VNC servers.
+ *  - <code>DISPLAY</code> pointing to another host, or to a display number
+ *    of 10 or more on the local host, which is how SSH forwards X11.
+ *  - <code>SSH_CONNECTION</code> or <code>SSH_CLIENT</code> together with
+ *    <code>DISPLAY</code>.
+ *
+ * The result is calculated once and cached. Check the following example:
+ * @code
+ * if (RemoteSession.isRemote()) {
+ *     Notification.setMotionPreference(MotionPreference.REDUCED);
+ * }
+ * @endcode
+ * Please note that the detection is done by default through
+ * <code>MotionPreference.AUTO</code>, so there is no need of calling it
+ * by hand.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public final class RemoteSession {
+
+    // the cached result, or null if not detected yet
+    private static Boolean remote;
+
+    /**
+     * Private constructor, no instances allowed.
+     */
+    private RemoteSession() {
+    }
+
+    /**
+     * Checks if the application is displayed through a remote session,
+     * according to the environment of this process.
+     * @return <code>true</code> if a remote session was detected, or
+     * <code>false</code> otherwise.
+     */
+    public static synchronized boolean isRemote() {
+        if (remote == null) {
+            boolean value;
+            try {
+                value = isRemote(System.getenv());
+            } catch (SecurityException exception) {
+                value = false;
+            }
+            remote = Boolean.valueOf(value);
+        }
+        return remote.booleanValue();
+    }
+
+    /**
+     * Checks if the provided environment describes a remote session.
+     * @param environment The environment variables.
+     * @return <code>true</code> if a remote session was detected, or
+     * <code>false</code> otherwise.
+     */
+    public static boolean isRemote(Map<String, String> environment) {
+
+        // windows remote desktop and citrix
+        String session = environment.get("SESSIONNAME");
+        if ((session != null) && ((session.startsWith("RDP-")) || (session.startsWith("ICA-")))) {
+            return true;
+        }
+
+        // xrdp and vnc
+        if ((environment.get("XRDP_SESSION") != null) || (environment.get("VNCDESKTOP") != null)) {
+            return true;
+        }
+
+        // x11, either remote or forwarded through ssh
+        String display = environment.get("DISPLAY");
+        if ((display == null) || (display.length() == 0)) {
+            return false;
+        }
+        if ((environment.get("SSH_CONNECTION") != null) || (environment.get("SSH_CLIENT") != null)) {
+            return true;
+        }
+        return isRemoteDisplay(display);
+    }
+
+    /**
+     * Checks if an X11 display name, in the <code>host:display.screen</code>
+     * form, refers to a remote or forwarded display.
+     * @param display The display name.
+     * @return <code>true</code> if the display is remote, or <code>false</code>
+     * otherwise.
+     */
+    private static boolean isRemoteDisplay(String display) {
+
+        // local sockets, as in ':0' or in the launchd paths on mac
+        int colon = display.lastIndexOf(':');
+        if ((colon <= 0) || (display.startsWith("/"))) {
+            return false;
+        }
+        String host = display.substring(0, colon);
+        if (host.equals("unix")) {
+            return false;
+        }
+
+        // on the local host, display numbers from 10 on are forwarded
+        if ((host.equals("localhost")) || (host.equals("127.0.0.1")) || (host.equals("::1"))) {
+            String number = display.substring(colon + 1);
+            int dot = number.indexOf('.');
+            if (dot >= 0) {
+                number = number.substring(0, dot);
+            }
+            try {
+                return Integer.parseInt(number) >= 10;
+            } catch (NumberFormatException exception) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
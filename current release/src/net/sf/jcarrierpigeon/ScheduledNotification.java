@@ -0,0 +1,176 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>ScheduledNotification.java</b>: provides a handle to a notification
+ * scheduled for later.
+ */
+
+package net.sf.jcarrierpigeon;
+
+/**
+ * Provides a handle to a notification scheduled through
+ * <b>net.sf.jcarrierpigeon.NotificationTimer</b>. A handle is returned by
+ * NotificationTimer#schedule() and it allows the notification to be
+ * cancelled before it is due. Check the following example:
+ * @code
+ * NotificationTimer timer = new NotificationTimer(queue, new MessageNotificationFactory());
+ * ScheduledNotification reminder = timer.schedule(data, 10 * 60 * 1000);
+ * ...
+ * reminder.cancel();
+ * @endcode
+ * The handle is also the node of the timing wheel itself, so scheduling
+ * and cancelling take constant time, no matter how many notifications are
+ * scheduled.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class ScheduledNotification {
+
+    // the notification, when it is due and how often it repeats
+    private final NotificationData data;
+    long time;
+    final long period;
+    // the timer, if the notification is scheduled in one
+    NotificationTimer timer;
+    // links and slot of the timing wheel, -1 when not linked
+    ScheduledNotification previous;
+    ScheduledNotification next;
+    int slot;
+    long tick;
+    // the journal keeping the schedule, if any, and the record id
+    NotificationJournal journal;
+    long journalId;
+    // set when cancelled, or when a single notification is added to the queue
+    private volatile boolean cancelled;
+    volatile boolean done;
+
+    /**
+     * Constructor method. Handles are only created by the timer and by the
+     * journal.
+     * @param data The description of the notification.
+     * @param time When the notification is due, in milliseconds since the epoch.
+     * @param period The interval between repetitions in milliseconds, or 0
+     * for a single notification.
+     */
+    ScheduledNotification(NotificationData data, long time, long period) {
+        this.data = data;
+        this.time = time;
+        this.period = period;
+        this.timer = null;
+        this.previous = null;
+        this.next = null;
+        this.slot = -1;
+        this.tick = 0;
+        this.journal = null;
+        this.journalId = -1;
+        this.cancelled = false;
+        this.done = false;
+    }
+
+    /**
+     * Gets the description of the notification.
+     * @return The description of the notification.
+     */
+    public NotificationData getData() {
+        return data;
+    }
+
+    /**
+     * Gets when the notification is due next.
+     * @return The time in milliseconds since the epoch.
+     */
+    public long getTime() {
+        NotificationTimer current = timer;
+        if (current == null) {
+            return time;
+        }
+        synchronized (current) {
+            return time;
+        }
+    }
+
+    /**
+     * Gets the interval between repetitions.
+     * @return The interval in milliseconds, or 0 for a single notification.
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * Checks if the notification was cancelled through this handle.
+     * @return <code>true</code> if the notification was cancelled, or
+     * <code>false</code> otherwise.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Checks if a single notification was already added to the queue. A
+     * repeating notification is never done, unless it is cancelled.
+     * @return <code>true</code> if the notification is done, or
+     * <code>false</code> otherwise.
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Cancels the notification, so it is not added to the queue anymore.
+     * Nothing happens if it was already added, and notifications already in
+     * the queue are not affected.
+     */
+    public void cancel() {
+        cancelled = true;
+        NotificationTimer current = timer;
+        if (current != null) {
+            current.cancel(this);
+        }
+    }
+}
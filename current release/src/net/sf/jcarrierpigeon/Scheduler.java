@@ -0,0 +1,119 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>Scheduler.java</b>: provides the clock and the timers underlying the
+ * notification animations and the notification queue manager. This
+ * interface allows the whole library to run either on the wall clock or
+ * on a virtual clock.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.awt.event.ActionListener;
+
+/**
+ * Provides the clock and the timers underlying the notification animations
+ * and the notification queue manager. Every animation of
+ * <b>net.sf.jcarrierpigeon.Notification</b> and the timer of
+ * <b>net.sf.jcarrierpigeon.NotificationQueue</b> are created through this
+ * interface, and every time check uses its clock. There are two
+ * implementations:
+ *  - <b>net.sf.jcarrierpigeon.SwingScheduler</b>, the default one, which
+ *    runs on the wall clock and on Swing timers.
+ *  - <b>net.sf.jcarrierpigeon.VirtualScheduler</b>, which runs on a virtual
+ *    clock advanced by hand, so thousands of notification lifecycles may be
+ *    simulated in a few milliseconds, in a deterministic way.
+ *
+ * Check the following example:
+ * @code
+ * VirtualScheduler scheduler = new VirtualScheduler();
+ * NotificationQueue queue = new NotificationQueue(scheduler);
+ * queue.add(note);
+ * scheduler.advance(10000);
+ * @endcode
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public interface Scheduler {
+
+    /**
+     * Gets the current time of this scheduler.
+     * @return The current time in milliseconds.
+     */
+    long currentTimeMillis();
+
+    /**
+     * Starts a new animation. The target is notified when the animation
+     * begins, on each frame and when the animation ends. The fraction of
+     * each frame is calculated from the time elapsed since the animation
+     * started, so the animation ends on schedule even if frames are late.
+     * @param duration The animation duration in milliseconds.
+     * @param startFraction The fraction the animation starts from, on a
+     * continuum interval, 0 <= x <= 1.
+     * @param frameRate The maximum number of frames per second delivered to
+     * the target, or 0 for no limit other than the scheduler resolution.
+     * @param target The target of the animation.
+     * @return The running animation.
+     */
+    Animation startAnimation(int duration, float startFraction, int frameRate, TimingTarget target);
+
+    /**
+     * Creates a repeating timer. The timer is created stopped.
+     * @param delay The delay between events in milliseconds.
+     * @param listener The listener to be notified on each event.
+     * @return The timer.
+     */
+    RepeatingTask createTimer(int delay, ActionListener listener);
+
+    /**
+     * Gets the load governor which sets the quality of the animations
+     * started through this scheduler.
+     * @return The <b>net.sf.jcarrierpigeon.LoadGovernor</b> object.
+     */
+    LoadGovernor getLoadGovernor();
+}
@@ -0,0 +1,343 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>ScreenOccupancy.java</b>: shares the occupied areas of the screen
+ * corners between processes, so notifications of different applications
+ * do not overlap.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+
+/**
+ * Shares the occupied areas of the screen corners between processes, so
+ * notifications of different applications, or of different queue managers,
+ * stack instead of being displayed on top of each other. Check the following
+ * example:
+ * @code
+ * File file = new File(System.getProperty("java.io.tmpdir"), "jcarrierpigeon.occupancy");
+ * Notification.setScreenOccupancy(new ScreenOccupancy(file));
+ * @endcode
+ * Every application using the same file takes part in the coordination. Each
+ * corner is split into bands of a few pixels, counting from the corner
+ * towards the center of the screen, and a notification reserves enough
+ * consecutive bands to hold its window and its border. The file holds one
+ * byte per band, mapped into memory, so finding free bands is just a scan of
+ * shared memory; the bands are then reserved by locking the matching region
+ * of the file, which is atomic between processes and, within this process,
+ * between any number of objects of this class. The operating system releases
+ * the locks of a process that dies, so bands left marked by a crashed
+ * application are found unlocked and reclaimed the next time a notification
+ * is displayed at that corner.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class ScreenOccupancy {
+
+    // the default height of a band, in pixels
+    public static final int DEFAULT_BAND_HEIGHT = 8;
+
+    // header: magic, version, band height and bands per corner
+    private static final int MAGIC = 0x4a434f43;
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+    // bands per corner, enough for 2048 pixels with the default height
+    private static final int BANDS = 256;
+    private static final int CORNERS = WindowPosition.values().length;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final MappedByteBuffer marks;
+    private final int bandHeight;
+    private final int bands;
+    // the locks are taken on a region past the marks, which is never
+    // read or written, since some systems enforce them
+    private final long lockBase;
+
+    /**
+     * A reservation of consecutive bands in a corner.
+     */
+    static final class Reservation {
+
+        private final int corner;
+        private final int first;
+        private final int count;
+        private final FileLock lock;
+
+        /**
+         * Constructor method.
+         * @param corner The corner index.
+         * @param first The first band.
+         * @param count The number of bands.
+         * @param lock The lock holding the bands.
+         */
+        private Reservation(int corner, int first, int count, FileLock lock) {
+            this.corner = corner;
+            this.first = first;
+            this.count = count;
+            this.lock = lock;
+        }
+    }
+
+    /**
+     * Constructor method, using the default band height, or the one of the
+     * existing file.
+     * @param file The occupancy file, which is created if needed.
+     * @throws IOException If the file could not be opened or created.
+     */
+    public ScreenOccupancy(File file) throws IOException {
+        this(file, DEFAULT_BAND_HEIGHT);
+    }
+
+    /**
+     * Constructor method. The band height is only used when the file is
+     * created; otherwise, the one already in the file is kept, since every
+     * process must agree on it.
+     * @param file The occupancy file, which is created if needed.
+     * @param bandHeight The height of a band, in pixels.
+     * @throws IOException If the file could not be opened or created, or if
+     * it is not an occupancy file.
+     */
+    public ScreenOccupancy(File file, int bandHeight) throws IOException {
+        if (bandHeight <= 0) {
+            throw new IllegalArgumentException("The band height must be positive");
+        }
+        this.file = new RandomAccessFile(file, "rw");
+        this.channel = this.file.getChannel();
+        int size = HEADER + CORNERS * BANDS;
+        try {
+
+            // create the header, holding the lock of the header, so two
+            // processes do not create it at the same time
+            FileLock lock = channel.lock(0, HEADER, false);
+            try {
+                if (this.file.length() < HEADER) {
+                    this.file.setLength(size);
+                    this.file.seek(0);
+                    this.file.writeInt(MAGIC);
+                    this.file.writeInt(VERSION);
+                    this.file.writeInt(bandHeight);
+                    this.file.writeInt(BANDS);
+                }
+                this.file.seek(0);
+                if ((this.file.readInt() != MAGIC) || (this.file.readInt() != VERSION)) {
+                    throw new IOException("The file is not an occupancy file");
+                }
+                this.bandHeight = this.file.readInt();
+                this.bands = this.file.readInt();
+                if ((this.bandHeight <= 0) || (this.bands <= 0) || (this.file.length() < HEADER + (long) CORNERS * this.bands)) {
+                    throw new IOException("The occupancy file is damaged");
+                }
+            } finally {
+                lock.release();
+            }
+            this.marks = channel.map(FileChannel.MapMode.READ_WRITE, HEADER, CORNERS * this.bands);
+            this.lockBase = HEADER + (long) CORNERS * this.bands;
+        } catch (IOException exception) {
+            this.file.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Gets the height of a band.
+     * @return The band height, in pixels.
+     */
+    public int getBandHeight() {
+        return bandHeight;
+    }
+
+    /**
+     * Reserves the bands closest to a corner that are free and can hold
+     * an area of the provided height.
+     * @param position The corner.
+     * @param height The height of the area, in pixels.
+     * @param limit The maximum distance from the corner, in pixels.
+     * @return The reservation, or <code>null</code> if there is no room.
+     */
+    synchronized Reservation reserve(WindowPosition position, int height, int limit) {
+        int corner = position.ordinal();
+        int count = Math.max(1, (height + bandHeight - 1) / bandHeight);
+        int last = Math.min(bands, limit / bandHeight) - count;
+
+        // first fit: skip the bands marked as taken, unless the process
+        // which marked them is gone, then lock the free ones
+        int first = 0;
+        while (first <= last) {
+            int taken = findTaken(corner, first, count);
+            if (taken >= 0) {
+                if (!reclaim(corner, taken)) {
+                    first = taken + 1;
+                }
+                continue;
+            }
+            FileLock lock = lock(corner, first, count);
+            if (lock != null) {
+                setMarks(corner, first, count, (byte) 1);
+                return new Reservation(corner, first, count, lock);
+            }
+            first++;
+        }
+        return null;
+    }
+
+    /**
+     * Releases a reservation.
+     * @param reservation The reservation.
+     */
+    synchronized void release(Reservation reservation) {
+
+        // a lock released by closing the file may already guard bands
+        // reserved by another process
+        if (!reservation.lock.isValid()) {
+            return;
+        }
+        setMarks(reservation.corner, reservation.first, reservation.count, (byte) 0);
+        try {
+            reservation.lock.release();
+        } catch (IOException exception) {
+            // the channel is closed, so is the lock
+        }
+    }
+
+    /**
+     * Gets the distance of a reservation from its corner.
+     * @param reservation The reservation.
+     * @return The distance, in pixels.
+     */
+    int getOffset(Reservation reservation) {
+        return reservation.first * bandHeight;
+    }
+
+    /**
+     * Finds the last band marked as taken in a range.
+     * @param corner The corner index.
+     * @param first The first band.
+     * @param count The number of bands.
+     * @return The band, or -1 if all of them are free.
+     */
+    private int findTaken(int corner, int first, int count) {
+        int base = corner * bands;
+        for (int i = first + count - 1; i >= first; i--) {
+            if (marks.get(base + i) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Clears the mark of a band if no process holds it, which happens when
+     * the process which reserved it died.
+     * @param corner The corner index.
+     * @param band The band.
+     * @return <code>true</code> if the band was reclaimed, or <code>false</code>
+     * if it is held.
+     */
+    private boolean reclaim(int corner, int band) {
+        FileLock lock = lock(corner, band, 1);
+        if (lock == null) {
+            return false;
+        }
+        setMarks(corner, band, 1, (byte) 0);
+        try {
+            lock.release();
+        } catch (IOException exception) {
+            // the channel is closed, so is the lock
+        }
+        return true;
+    }
+
+    /**
+     * Marks a range of bands.
+     * @param corner The corner index.
+     * @param first The first band.
+     * @param count The number of bands.
+     * @param value 1 for taken, 0 for free.
+     */
+    private void setMarks(int corner, int first, int count, byte value) {
+        int base = corner * bands;
+        for (int i = first; i < first + count; i++) {
+            marks.put(base + i, value);
+        }
+    }
+
+    /**
+     * Tries to lock a range of bands, without waiting.
+     * @param corner The corner index.
+     * @param first The first band.
+     * @param count The number of bands.
+     * @return The lock, or <code>null</code> if any band is locked by this
+     * or another process.
+     */
+    private FileLock lock(int corner, int first, int count) {
+        try {
+            return channel.tryLock(lockBase + corner * bands + first, count, false);
+        } catch (OverlappingFileLockException exception) {
+            return null;
+        } catch (IOException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Closes the file. The reservations still held are released, though
+     * their bands stay marked until another process reclaims them.
+     * @throws IOException If the file could not be closed.
+     */
+    public synchronized void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>StallDetector.java</b>: watches the notification callbacks and reports
+ * the ones which stall the event dispatch thread.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Watches the notification callbacks and reports the ones which stall the
+ * event dispatch thread. The wall time of every animation frame, that is,
+ * Notification#timingEvent(), of every Notification#end() and of showing the
+ * window in Notification#animate() is measured; when it exceeds the budget,
+ * every <b>net.sf.jcarrierpigeon.StallListener</b> gets a
+ * <b>net.sf.jcarrierpigeon.StallReport</b> object naming the notification and
+ * the callback. Check the following example:
+ * @code
+ * StallDetector detector = new StallDetector(50);
+ * detector.addStallListener(new StallListener() {
+ *     public void stallDetected(StallReport report) {
+ *         System.err.println(report);
+ *     }
+ * });
+ * Notification.setStallDetector(detector);
+ * @endcode
+ * Measuring a callback only takes two reads of <code>System.nanoTime()</code>,
+ * a compare-and-set and a few volatile writes, so the detector may be
+ * always on. A daemon
+ * watchdog thread stays parked while no callback is running; otherwise it
+ * wakes up twice per budget and, if the callback in progress is already
+ * over budget, it takes the stack trace of the stalled thread, so
+ * the report points to the expensive code, usually some paint method,
+ * instead of just to the callback. Only one callback is watched at a time,
+ * which is fine since they all run on the event dispatch thread; callbacks
+ * running at the same time on other threads are still measured, but their
+ * reports come with no stack trace.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class StallDetector {
+
+    /**
+     * Provides an enumeration for the notification callbacks watched by
+     * the detector.
+     */
+    public enum Callback {
+        /**
+         * An animation frame, that is, Notification#timingEvent().
+         */
+        TIMING_EVENT,
+        /**
+         * The end of an animation step, that is, Notification#end().
+         */
+        END,
+        /**
+         * Showing the window in Notification#animate().
+         */
+        SHOW
+    }
+
+    // the budget in nanoseconds
+    private final long budget;
+    // listeners to be notified
+    private final CopyOnWriteArrayList<StallListener> listeners;
+    // the thread running the watched callback, when it started, and
+    // its sequence number
+    private final AtomicReference<Thread> thread;
+    private volatile long start;
+    private volatile long sequence;
+    // the stack trace taken by the watchdog, and the sequence
+    // number of the callback it belongs to
+    private volatile StackTraceElement[] stackTrace;
+    private volatile long stackSequence;
+    // statistics
+    private final AtomicLong stallCount;
+    private final AtomicLong maximumDuration;
+    // the watchdog, and whether it is parked until a callback starts
+    private volatile boolean running;
+    private volatile boolean parked;
+    private final Thread watchdog;
+
+    /**
+     * Constructor method. The watchdog thread is started right away.
+     * @param budgetMillis The time a callback may take before being reported,
+     * in milliseconds.
+     */
+    public StallDetector(int budgetMillis) {
+        this.budget = Math.max(1, budgetMillis) * 1000000L;
+        this.listeners = new CopyOnWriteArrayList<StallListener>();
+        this.thread = new AtomicReference<Thread>();
+        this.sequence = 0;
+        this.stackSequence = -1;
+        this.stallCount = new AtomicLong();
+        this.maximumDuration = new AtomicLong();
+        this.running = true;
+        this.parked = false;
+        final long interval = Math.max(1, budgetMillis / 2) * 1000000L;
+        this.watchdog = new Thread(new Runnable() {
+
+            public void run() {
+                while (running) {
+
+                    // wait for a callback, checking again after announcing
+                    // it, so a callback starting meanwhile is not missed
+                    if (thread.get() == null) {
+                        parked = true;
+                        if (thread.get() == null) {
+                            LockSupport.park(StallDetector.this);
+                        }
+                        parked = false;
+                    } else {
+                        LockSupport.parkNanos(StallDetector.this, interval);
+                        inspect();
+                    }
+                    if (Thread.interrupted()) {
+                        return;
+                    }
+                }
+            }
+        }, "JCarrierPigeon stall detector");
+        this.watchdog.setDaemon(true);
+        this.watchdog.start();
+    }
+
+    /**
+     * Adds a listener to be notified of every stall.
+     * @param listener The listener.
+     */
+    public void addStallListener(StallListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     * @param listener The listener.
+     */
+    public void removeStallListener(StallListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stops the watchdog thread. Callbacks are still measured, but the
+     * reports come with no stack trace.
+     */
+    public void stop() {
+        running = false;
+        watchdog.interrupt();
+    }
+
+    /**
+     * Gets the number of stalls detected so far.
+     * @return The number of stalls.
+     */
+    public long getStallCount() {
+        return stallCount.get();
+    }
+
+    /**
+     * Gets the longest callback measured so far.
+     * @return The duration in milliseconds.
+     */
+    public double getMaximumDuration() {
+        return maximumDuration.get() / 1000000.0;
+    }
+
+    /**
+     * Marks the beginning of a callback. The callback is watched unless
+     * another one is already being watched.
+     * @return The start time in nanoseconds, to be handed over to #exit().
+     */
+    long enter() {
+        long now = System.nanoTime();
+        if (thread.compareAndSet(null, Thread.currentThread())) {
+            start = now;
+            sequence++;
+            if (parked) {
+                LockSupport.unpark(watchdog);
+            }
+        }
+        return now;
+    }
+
+    /**
+     * Marks the end of a callback, reporting it if it took longer than
+     * the budget.
+     * @param notification The notification which owns the callback.
+     * @param callback The callback.
+     * @param started The value returned by #enter().
+     */
+    void exit(Notification notification, Callback callback, long started) {
+        long duration = System.nanoTime() - started;
+
+        // release the watch, if this callback holds it
+        boolean watched = (thread.get() == Thread.currentThread()) && (start == started);
+        long current = sequence;
+        if (watched) {
+            thread.set(null);
+        }
+        long maximum = maximumDuration.get();
+        while ((duration > maximum) && (!maximumDuration.compareAndSet(maximum, duration))) {
+            maximum = maximumDuration.get();
+        }
+        if (duration > budget) {
+            StackTraceElement[] trace = ((watched) && (stackSequence == current)) ? stackTrace : null;
+            stallCount.incrementAndGet();
+            StallReport report = new StallReport(notification, callback, duration,
+                    Thread.currentThread().getName(), trace);
+            for (StallListener listener : listeners) {
+                listener.stallDetected(report);
+            }
+        }
+    }
+
+    /**
+     * Takes the stack trace of the callback in progress, if it is already
+     * over budget. This method is called by the watchdog thread.
+     */
+    private void inspect() {
+        Thread stalled = thread.get();
+        long current = sequence;
+        if ((stalled == null) || (stackSequence == current)) {
+            return;
+        }
+        if (System.nanoTime() - start > budget) {
+            StackTraceElement[] trace = stalled.getStackTrace();
+
+            // make sure it is still the very same callback
+            if ((sequence == current) && (thread.get() == stalled)) {
+                stackTrace = trace;
+                stackSequence = current;
+            }
+        }
+    }
+}
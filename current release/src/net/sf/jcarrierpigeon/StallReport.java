@@ -0,0 +1,138 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>StallReport.java</b>: describes a notification callback which stalled
+ * the event dispatch thread.
+ */
+
+package net.sf.jcarrierpigeon;
+
+/**
+ * Describes a notification callback which stalled the event dispatch thread,
+ * as detected by <b>net.sf.jcarrierpigeon.StallDetector</b>.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class StallReport {
+
+    private Notification notification;
+    private StallDetector.Callback callback;
+    private long duration;
+    private String threadName;
+    private StackTraceElement[] stackTrace;
+
+    /**
+     * Constructor method.
+     * @param notification The notification which owns the callback.
+     * @param callback The callback.
+     * @param duration The callback duration in nanoseconds.
+     * @param threadName The name of the thread running the callback.
+     * @param stackTrace The stack trace taken during the stall, or
+     * <code>null</code> if there is none.
+     */
+    StallReport(Notification notification, StallDetector.Callback callback, long duration, String threadName, StackTraceElement[] stackTrace) {
+        this.notification = notification;
+        this.callback = callback;
+        this.duration = duration;
+        this.threadName = threadName;
+        this.stackTrace = stackTrace;
+    }
+
+    /**
+     * Gets the notification which owns the callback.
+     * @return The notification.
+     */
+    public Notification getNotification() {
+        return notification;
+    }
+
+    /**
+     * Gets the callback which stalled.
+     * @return The callback.
+     */
+    public StallDetector.Callback getCallback() {
+        return callback;
+    }
+
+    /**
+     * Gets how long the callback took.
+     * @return The callback duration in milliseconds.
+     */
+    public double getDuration() {
+        return duration / 1000000.0;
+    }
+
+    /**
+     * Gets the name of the thread which ran the callback, usually the
+     * event dispatch thread.
+     * @return The thread name.
+     */
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * Gets the stack trace of the thread taken while the callback was
+     * stalled, which usually points to the expensive code.
+     * @return The stack trace, or an empty array if the callback returned
+     * before the watchdog could take it.
+     */
+    public StackTraceElement[] getStackTrace() {
+        return (stackTrace != null) ? stackTrace : new StackTraceElement[0];
+    }
+
+    /**
+     * Describes the stall in a single line.
+     * @return The description.
+     */
+    public String toString() {
+        String key = notification.getKey();
+        return "Notification " + callback + ((key != null) ? " (" + key + ")" : "")
+                + " took " + Math.round(getDuration()) + " ms on " + threadName;
+    }
+}
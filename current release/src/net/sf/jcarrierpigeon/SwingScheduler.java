@@ -0,0 +1,131 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>SwingScheduler.java</b>: provides the default scheduler, running on
+ * the wall clock, on Swing timers and on the built-in animation core.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.awt.event.ActionListener;
+import javax.swing.Timer;
+
+/**
+ * Provides the default scheduler, running on the wall clock. Animations are
+ * handled by the built-in animation core, a single pulse shared by every
+ * animation, and repeating timers are plain <code>javax.swing.Timer</code>
+ * objects, so every event is dispatched on the Swing event dispatch thread.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class SwingScheduler implements Scheduler {
+
+    /**
+     * Gets the current time, that is, <code>System.currentTimeMillis()</code>.
+     * @return The current time in milliseconds.
+     */
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Starts a new animation through the built-in animation core.
+     * @param duration The animation duration in milliseconds.
+     * @param startFraction The fraction the animation starts from.
+     * @param frameRate The maximum number of frames per second, or 0 for
+     * no limit.
+     * @param target The target of the animation.
+     * @return The running animation.
+     */
+    public Animation startAnimation(int duration, float startFraction, int frameRate, TimingTarget target) {
+        return AnimationPulse.getInstance().start(duration, startFraction, frameRate, target);
+    }
+
+    /**
+     * Creates a repeating timer, backed by <code>javax.swing.Timer</code>.
+     * @param delay The delay between events in milliseconds.
+     * @param listener The listener to be notified on each event.
+     * @return The timer.
+     */
+    public RepeatingTask createTimer(int delay, ActionListener listener) {
+        return new SwingTask(new Timer(delay, listener));
+    }
+
+    /**
+     * Gets the load governor of the built-in animation core, which is
+     * shared by every Swing scheduler and fed on every pulse.
+     * @return The shared <b>net.sf.jcarrierpigeon.LoadGovernor</b> object.
+     */
+    public LoadGovernor getLoadGovernor() {
+        return AnimationPulse.getInstance().getLoadGovernor();
+    }
+
+    /**
+     * Wraps a Swing timer.
+     */
+    private static class SwingTask implements RepeatingTask {
+
+        private Timer timer;
+
+        SwingTask(Timer timer) {
+            this.timer = timer;
+        }
+
+        public void start() {
+            timer.start();
+        }
+
+        public void stop() {
+            timer.stop();
+        }
+
+        public boolean isRunning() {
+            return timer.isRunning();
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>SwingWindowBackend.java</b>: provides the window backend for any
+ * <code>javax.swing.JFrame</code> or <code>javax.swing.JWindow</code>
+ * object.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
+import java.awt.Window;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import javax.swing.JFrame;
+import javax.swing.JWindow;
+
+/**
+ * Provides the window backend for any <code>javax.swing.JFrame</code> or
+ * <code>javax.swing.JWindow</code> object. This is the backend used by the
+ * regular constructors of <b>net.sf.jcarrierpigeon.Notification</b>, so
+ * there is usually no need of creating it directly.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class SwingWindowBackend implements WindowBackend {
+
+    private WindowType windowType;
+    // window object
+    private JFrame windowJFrame;
+    private JWindow windowJWindow;
+    // the click action, and the mouse listener running it, which is
+    // installed once
+    private volatile Runnable clickListener;
+    private MouseAdapter mouseListener;
+
+    /**
+     * Constructor method for a basic <code>javax.swing.JFrame</code> object.
+     * @param window The window to act as a notification.
+     */
+    public SwingWindowBackend(JFrame window) {
+        this.windowType = WindowType.JFRAME;
+        this.windowJFrame = window;
+        this.windowJWindow = null;
+    }
+
+    /**
+     * Constructor method for a basic <code>javax.swing.JWindow</code> object.
+     * @param window The window to act as a notification.
+     */
+    public SwingWindowBackend(JWindow window) {
+        this.windowType = WindowType.JWINDOW;
+        this.windowJFrame = null;
+        this.windowJWindow = window;
+    }
+
+    /**
+     * Gets the type of this window.
+     * @return Either <code>WindowType.JFRAME</code> or <code>WindowType.JWINDOW</code>.
+     */
+    public WindowType getWindowType() {
+        return windowType;
+    }
+
+    /**
+     * Gets the window width.
+     * @return The width in pixels.
+     */
+    public int getWidth() {
+        switch (windowType) {
+            case JFRAME:
+                return windowJFrame.getWidth();
+            default:
+                return windowJWindow.getWidth();
+        }
+    }
+
+    /**
+     * Gets the window height.
+     * @return The height in pixels.
+     */
+    public int getHeight() {
+        switch (windowType) {
+            case JFRAME:
+                return windowJFrame.getHeight();
+            default:
+                return windowJWindow.getHeight();
+        }
+    }
+
+    /**
+     * Calculates the screen size.
+     * @return A <code>java.awt.Rectangle</code> with the exact size of the screen.
+     */
+    public Rectangle getScreenBounds() {
+        GraphicsEnvironment environment = GraphicsEnvironment.getLocalGraphicsEnvironment();
+        return environment.getMaximumWindowBounds();
+    }
+
+    /**
+     * Sets the bounds of the current window. It's basically a call to the
+     * inner window <code>setBounds</code> method.
+     * @param x Coordinate X
+     * @param y Coordinate Y
+     * @param width Width
+     * @param height Height
+     */
+    public void setBounds(int x, int y, int width, int height) {
+        switch (windowType) {
+            case JFRAME:
+                windowJFrame.setBounds(x, y, width, height);
+                break;
+            case JWINDOW:
+                windowJWindow.setBounds(x, y, width, height);
+                break;
+        }
+    }
+
+    /**
+     * Sets the visibility of the current window. It's basically a call to the
+     * inner window <code>setVisible</code> method.
+     * @param value <code>true</code> if window should be visible, or <code>false</code>
+     * otherwise.
+     */
+    public void setVisible(boolean value) {
+        switch (windowType) {
+            case JFRAME:
+                windowJFrame.setVisible(value);
+                break;
+            case JWINDOW:
+                windowJWindow.setVisible(value);
+                break;
+        }
+    }
+
+    /**
+     * Sets the window parameter of being on top of other windows. It's basically
+     * a call to the inner window <code>setAlwaysOnTop</code> method.
+     * @param value <code>true</code> if window should be on top of other windows, or
+     * <code>false</code> otherwise.
+     */
+    public void setAlwaysOnTop(boolean value) {
+        switch (windowType) {
+            case JFRAME:
+                windowJFrame.setAlwaysOnTop(value);
+                break;
+            case JWINDOW:
+                windowJWindow.setAlwaysOnTop(value);
+                break;
+        }
+    }
+
+    /**
+     * Checks if the opacity of this window may be changed, that is, if the
+     * screen device supports <code>WindowTranslucency.TRANSLUCENT</code>
+     * and, in the case of a <code>javax.swing.JFrame</code> object, if the
+     * frame is undecorated.
+     * @return <code>true</code> if the window supports translucency, or
+     * <code>false</code> otherwise.
+     */
+    public boolean isTranslucencySupported() {
+        Window current = windowJWindow;
+        if (windowType == WindowType.JFRAME) {
+            if (!windowJFrame.isUndecorated()) {
+                return false;
+            }
+            current = windowJFrame;
+        }
+        GraphicsConfiguration configuration = current.getGraphicsConfiguration();
+        GraphicsDevice device;
+        if (configuration != null) {
+            device = configuration.getDevice();
+        } else {
+            device = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice();
+        }
+        return device.isWindowTranslucencySupported(GraphicsDevice.WindowTranslucency.TRANSLUCENT);
+    }
+
+    /**
+     * Sets the opacity of the current window. It's basically a call to the
+     * inner window <code>setOpacity</code> method.
+     * @param opacity The opacity, on a continuum interval, 0 <= x <= 1.
+     */
+    public void setOpacity(float opacity) {
+        switch (windowType) {
+            case JFRAME:
+                windowJFrame.setOpacity(opacity);
+                break;
+            case JWINDOW:
+                windowJWindow.setOpacity(opacity);
+                break;
+        }
+    }
+
+    /**
+     * Sets the action run when the user clicks the window. A mouse listener
+     * is added to the inner window the first time, and removed along with
+     * the action, so the window provided by the caller is left as it was.
+     * @param listener The action, or <code>null</code> in order to remove it.
+     */
+    public void setClickListener(Runnable listener) {
+        clickListener = listener;
+        if ((listener == null) && (mouseListener != null)) {
+            Window window = (windowType == WindowType.JFRAME) ? windowJFrame : windowJWindow;
+            window.removeMouseListener(mouseListener);
+            mouseListener = null;
+        }
+        if ((listener != null) && (mouseListener == null)) {
+            mouseListener = new MouseAdapter() {
+
+                public void mouseClicked(MouseEvent e) {
+                    Runnable current = clickListener;
+                    if (current != null) {
+                        current.run();
+                    }
+                }
+            };
+            Window window = (windowType == WindowType.JFRAME) ? windowJFrame : windowJWindow;
+            window.addMouseListener(mouseListener);
+        }
+    }
+
+    /**
+     * Dispose the current window. It's basically a call to the inner window
+     * <code>dispose</code> method.
+     */
+    public void dispose() {
+        switch (windowType) {
+            case JFRAME:
+                windowJFrame.dispose();
+                break;
+            case JWINDOW:
+                windowJWindow.dispose();
+                break;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>TimingTarget.java</b>: provides the callbacks of an animation. This
+ * interface mirrors the one from the Timing Framework, which is no longer
+ * a dependency of JCarrierPigeon.
+ */
+
+package net.sf.jcarrierpigeon;
+
+/**
+ * Provides the callbacks of an animation. This interface mirrors the
+ * <code>org.jdesktop.animation.timing.TimingTarget</code> interface from
+ * the Timing Framework, which was the only dependency of JCarrierPigeon up to
+ * version 1.3. Animations are now handled by the built-in animation core,
+ * available through Scheduler#startAnimation().
+ * <p>
+ * This interface is part of the public API: custom implementations of
+ * <b>net.sf.jcarrierpigeon.Scheduler</b> receive it, and both
+ * <b>net.sf.jcarrierpigeon.Notification</b> and
+ * <b>net.sf.jcarrierpigeon.CarrierPigeon</b> implement it. Its callbacks are
+ * meant to be called by schedulers only, never directly.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public interface TimingTarget {
+
+    /**
+     * Called on each animation frame.
+     * @param fraction The fraction of elapsed time, on a continuum
+     * interval, 0 <= x <= 1.
+     */
+    void timingEvent(float fraction);
+
+    /**
+     * Called right before the animation begins.
+     */
+    void begin();
+
+    /**
+     * Called right after the animation ends.
+     */
+    void end();
+
+    /**
+     * Called on every animation repetition. The built-in animation core
+     * never repeats an animation, so this method is kept for compatibility.
+     */
+    void repeat();
+}
@@ -0,0 +1,127 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>TokenBucket.java</b>: provides a token bucket, the building block of
+ * the rate limiter for notifications.
+ */
+
+package net.sf.jcarrierpigeon;
+
+/**
+ * Provides a token bucket, the building block of
+ * <b>net.sf.jcarrierpigeon.RateLimiter</b>. The bucket holds up to
+ * <code>capacity</code> tokens and it is refilled continuously at a constant
+ * rate; each notification displayed takes a token. That way, bursts up to the
+ * capacity are allowed, but the sustained rate never goes above the refill
+ * rate. This class is not thread safe on its own.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+class TokenBucket {
+
+    // the bucket settings
+    private double capacity;
+    private double tokensPerMillisecond;
+    // the bucket state
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Constructor method. The bucket starts full.
+     * @param ratePerSecond The refill rate, in tokens per second.
+     * @param capacity The maximum number of tokens in the bucket.
+     * @param now The current time in milliseconds.
+     */
+    TokenBucket(double ratePerSecond, int capacity, long now) {
+        this.capacity = Math.max(1, capacity);
+        this.tokensPerMillisecond = ratePerSecond / 1000.0;
+        this.tokens = this.capacity;
+        this.lastRefill = now;
+    }
+
+    /**
+     * Refills the bucket according to the elapsed time.
+     * @param now The current time in milliseconds.
+     */
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + ((now - lastRefill) * tokensPerMillisecond));
+            lastRefill = now;
+        }
+    }
+
+    /**
+     * Checks if there is a token available, without taking it.
+     * @param now The current time in milliseconds.
+     * @return <code>true</code> if a token is available, or <code>false</code>
+     * otherwise.
+     */
+    boolean isAvailable(long now) {
+        refill(now);
+        return tokens >= 1.0;
+    }
+
+    /**
+     * Takes a token. Please call #isAvailable() first.
+     */
+    void take() {
+        tokens = tokens - 1.0;
+    }
+
+    /**
+     * Checks if the bucket is full, which means it may be thrown away
+     * without changing the rate.
+     * @param now The current time in milliseconds.
+     * @return <code>true</code> if the bucket is full, or <code>false</code>
+     * otherwise.
+     */
+    boolean isFull(long now) {
+        refill(now);
+        return tokens >= capacity;
+    }
+}
@@ -0,0 +1,389 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>VirtualScheduler.java</b>: provides a scheduler running on a virtual
+ * clock, which is only advanced by hand. It allows notification lifecycles
+ * to be simulated in a deterministic way, much faster than the wall clock.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.PriorityQueue;
+
+/**
+ * Provides a scheduler running on a virtual clock. Time only moves forward
+ * through #advance() or #runUntilIdle(), and every animation frame and timer
+ * event due in the meantime is dispatched on the calling thread, in time
+ * order. There is no waiting at all, so a notification displayed for 5
+ * seconds takes a few microseconds to simulate, and the results are the same
+ * on every run. Check the following example:
+ * @code
+ * VirtualScheduler scheduler = new VirtualScheduler();
+ * NotificationQueue queue = new NotificationQueue(scheduler);
+ * for (int i = 0; i < 1000; i++) {
+ *     queue.add(new Notification(new HeadlessWindowBackend(300, 100), WindowPosition.BOTTOMRIGHT, 25, 25, 5000));
+ * }
+ * long elapsed = scheduler.runUntilIdle(Long.MAX_VALUE);
+ * @endcode
+ * Animations deliver a frame every 20 milliseconds of virtual time by default,
+ * which is the resolution of the built-in animation core, or less often if
+ * their frame rate is capped, and the last frame is always delivered right at
+ * the end of the animation. This class is not
+ * thread safe, so the scheduler, the queue and the notifications should be
+ * driven by a single thread.
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public class VirtualScheduler implements Scheduler {
+
+    // the virtual clock
+    private long now;
+    // the frame resolution in milliseconds
+    private int resolution;
+    // pending events, ordered by time and then by creation
+    private PriorityQueue<VirtualEvent> events;
+    private long sequence;
+    // the load governor, only fed by hand
+    private LoadGovernor governor;
+
+    /**
+     * Constructor method. The virtual clock starts at zero.
+     */
+    public VirtualScheduler() {
+        this(0);
+    }
+
+    /**
+     * Constructor method.
+     * @param startTime The initial time of the virtual clock in milliseconds.
+     */
+    public VirtualScheduler(long startTime) {
+        this.now = startTime;
+        this.resolution = 20;
+        this.events = new PriorityQueue<VirtualEvent>();
+        this.sequence = 0;
+        this.governor = new LoadGovernor(this);
+    }
+
+    /**
+     * Sets the interval between animation frames.
+     * @param milliseconds The frame resolution in milliseconds.
+     */
+    public void setResolution(int milliseconds) {
+        this.resolution = Math.max(1, milliseconds);
+    }
+
+    /**
+     * Gets the current time of the virtual clock.
+     * @return The current time in milliseconds.
+     */
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    /**
+     * Starts a new animation on the virtual clock. The target is notified
+     * of the beginning right away and the first frame is due one resolution
+     * interval later.
+     * @param duration The animation duration in milliseconds.
+     * @param startFraction The fraction the animation starts from.
+     * @param frameRate The maximum number of frames per second, or 0 for
+     * no limit.
+     * @param target The target of the animation.
+     * @return The running animation.
+     */
+    public Animation startAnimation(int duration, float startFraction, int frameRate, TimingTarget target) {
+        VirtualAnimation animation = new VirtualAnimation(duration, startFraction, frameRate, target);
+        target.begin();
+        schedule(animation, animation.next(now));
+        return animation;
+    }
+
+    /**
+     * Creates a repeating timer on the virtual clock.
+     * @param delay The delay between events in milliseconds.
+     * @param listener The listener to be notified on each event.
+     * @return The timer.
+     */
+    public RepeatingTask createTimer(int delay, ActionListener listener) {
+        return new VirtualTask(delay, listener);
+    }
+
+    /**
+     * Gets the load governor of this scheduler. Virtual frames cost nothing,
+     * so this governor is never fed automatically; it may be fed by hand in
+     * order to simulate load, timing the frames by the virtual clock.
+     * @return The <b>net.sf.jcarrierpigeon.LoadGovernor</b> object.
+     */
+    public LoadGovernor getLoadGovernor() {
+        return governor;
+    }
+
+    /**
+     * Advances the virtual clock, dispatching every event due in the meantime.
+     * @param milliseconds The amount of time in milliseconds.
+     */
+    public void advance(long milliseconds) {
+        long target = now + milliseconds;
+        VirtualEvent event = events.peek();
+        while ((event != null) && (event.due <= target)) {
+            dispatch();
+            event = events.peek();
+        }
+        now = target;
+    }
+
+    /**
+     * Advances the virtual clock from event to event until there are no
+     * more events, that is, until every animation is done and every timer
+     * is stopped.
+     * @param limit The maximum amount of time to advance in milliseconds.
+     * @return The amount of virtual time elapsed in milliseconds.
+     */
+    public long runUntilIdle(long limit) {
+        long start = now;
+        VirtualEvent event = events.peek();
+        while ((event != null) && ((event.due - start) <= limit)) {
+            dispatch();
+            event = events.peek();
+        }
+        return now - start;
+    }
+
+    /**
+     * Checks if there are pending events.
+     * @return <code>true</code> if there are no pending events, or <code>false</code>
+     * otherwise.
+     */
+    public boolean isIdle() {
+        return events.isEmpty();
+    }
+
+    /**
+     * Dispatches the next event, moving the clock to its time.
+     */
+    private void dispatch() {
+        VirtualEvent event = events.poll();
+        event.scheduled = false;
+        if (event.due > now) {
+            now = event.due;
+        }
+        event.fire();
+    }
+
+    /**
+     * Schedules an event.
+     * @param event The event.
+     * @param due The time the event is due in milliseconds.
+     */
+    private void schedule(VirtualEvent event, long due) {
+        event.due = due;
+        event.sequence = sequence++;
+        event.scheduled = true;
+        events.add(event);
+    }
+
+    /**
+     * An event on the virtual clock.
+     */
+    private abstract static class VirtualEvent implements Comparable<VirtualEvent> {
+
+        long due;
+        long sequence;
+        boolean scheduled;
+
+        abstract void fire();
+
+        public int compareTo(VirtualEvent other) {
+            if (due != other.due) {
+                return (due < other.due) ? -1 : 1;
+            }
+            return (sequence < other.sequence) ? -1 : ((sequence == other.sequence) ? 0 : 1);
+        }
+    }
+
+    /**
+     * An animation on the virtual clock.
+     */
+    private class VirtualAnimation extends VirtualEvent implements Animation {
+
+        private long startTime;
+        private int duration;
+        private float startFraction;
+        private TimingTarget target;
+        private boolean running;
+        private float fraction;
+        // interval between frames, time of the last frame and
+        // frames delivered
+        private int step;
+        private long endTime;
+        private int frames;
+        private long stopTime;
+
+        VirtualAnimation(int duration, float startFraction, int frameRate, TimingTarget target) {
+            this.startTime = now;
+            this.duration = duration;
+            this.startFraction = startFraction;
+            this.target = target;
+            this.running = true;
+            this.fraction = startFraction;
+            this.step = (frameRate > 0) ? Math.max(resolution, (999 + frameRate) / frameRate) : resolution;
+            this.endTime = startTime + (long) Math.ceil(Math.max(0, duration) * (1 - startFraction));
+            this.frames = 0;
+        }
+
+        /**
+         * Calculates when the frame after the given time is due, never
+         * later than the end of the animation.
+         * @param time The time of the current frame.
+         * @return The time the next frame is due.
+         */
+        long next(long time) {
+            return Math.max(time + 1, Math.min(time + step, endTime));
+        }
+
+        void fire() {
+            if (!running) {
+                return;
+            }
+
+            // calculate the fraction from the elapsed time
+            long elapsed = now - startTime;
+            fraction = (duration <= 0) ? 1 : Math.min(1, startFraction + ((float) elapsed / duration));
+
+            // notify the target
+            frames++;
+            target.timingEvent(fraction);
+            if (fraction >= 1) {
+                running = false;
+                stopTime = now;
+                target.end();
+            } else if (running) {
+                schedule(this, next(due));
+            }
+        }
+
+        public boolean isRunning() {
+            return running;
+        }
+
+        public void cancel() {
+            if (running) {
+                running = false;
+                stopTime = now;
+            }
+            if (scheduled) {
+                events.remove(this);
+                scheduled = false;
+            }
+        }
+
+        public float getTimingFraction() {
+            return fraction;
+        }
+
+        public float getFrameRate() {
+            long elapsed = (running ? now : stopTime) - startTime;
+            if (elapsed <= 0) {
+                return 0;
+            }
+            return frames * 1000f / elapsed;
+        }
+    }
+
+    /**
+     * A repeating timer on the virtual clock.
+     */
+    private class VirtualTask extends VirtualEvent implements RepeatingTask {
+
+        private int delay;
+        private ActionListener listener;
+        private ActionEvent event;
+        private boolean running;
+
+        VirtualTask(int delay, ActionListener listener) {
+            this.delay = Math.max(1, delay);
+            this.listener = listener;
+            this.event = new ActionEvent(this, ActionEvent.ACTION_PERFORMED, null);
+            this.running = false;
+        }
+
+        void fire() {
+            if (!running) {
+                return;
+            }
+            listener.actionPerformed(event);
+            if ((running) && (!scheduled)) {
+                schedule(this, due + delay);
+            }
+        }
+
+        public void start() {
+            if (!running) {
+                running = true;
+                if (!scheduled) {
+                    schedule(this, now + delay);
+                }
+            }
+        }
+
+        public void stop() {
+            running = false;
+            if (scheduled) {
+                events.remove(this);
+                scheduled = false;
+            }
+        }
+
+        public boolean isRunning() {
+            return running;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * \cond LICENSE
+ * ********************************************************************
+ * This is a conditional block for preventing the DoxyGen documentation
+ * tool to include this license header within the description of each
+ * source code file. If you want to include this block, please define
+ * the LICENSE parameter into the provided DoxyFile.
+ * ********************************************************************
+ *
+ * JCarrierPigeon - A notification library
+ * Copyright (c) 2010, Paulo Roberto Massa Cereda
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or
+ * without modification, are permitted provided that the following
+ * conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the project's author nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+ * OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * ********************************************************************
+ * End of the LICENSE conditional block
+ * ********************************************************************
+ * \endcond
+ *
+ * <b>WindowBackend.java</b>: provides the interface between a notification
+ * and the window it animates. This interface allows notifications to be
+ * displayed by a regular <code>javax.swing.JFrame</code> or
+ * <code>javax.swing.JWindow</code> object, or to be rendered in memory
+ * when there is no display at all.
+ */
+
+package net.sf.jcarrierpigeon;
+
+import java.awt.Rectangle;
+
+/**
+ * Provides the interface between a notification and the window it animates.
+ * <b>net.sf.jcarrierpigeon.Notification</b> only talks to its window through
+ * this interface, so the very same queue, animation and layout code runs
+ * either on screen, through <b>net.sf.jcarrierpigeon.SwingWindowBackend</b>,
+ * or in memory, through <b>net.sf.jcarrierpigeon.HeadlessWindowBackend</b>.
+ * The latter is useful for servers running with <code>java.awt.headless=true</code>
+ * and for load tests. Check the following example:
+ * @code
+ * HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+ * Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 1000);
+ * NotificationQueue queue = new NotificationQueue();
+ * queue.add(note);
+ * @endcode
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @version 1.4
+ * @since 1.4
+ */
+public interface WindowBackend {
+
+    /**
+     * Gets the type of this window.
+     * @return The window type.
+     */
+    WindowType getWindowType();
+
+    /**
+     * Gets the window width.
+     * @return The width in pixels.
+     */
+    int getWidth();
+
+    /**
+     * Gets the window height.
+     * @return The height in pixels.
+     */
+    int getHeight();
+
+    /**
+     * Gets the screen bounds available for this window.
+     * @return A <code>java.awt.Rectangle</code> with the exact size of the screen.
+     */
+    Rectangle getScreenBounds();
+
+    /**
+     * Sets the bounds of the window.
+     * @param x Coordinate X
+     * @param y Coordinate Y
+     * @param width Width
+     * @param height Height
+     */
+    void setBounds(int x, int y, int width, int height);
+
+    /**
+     * Sets the visibility of the window.
+     * @param value <code>true</code> if window should be visible, or <code>false</code>
+     * otherwise.
+     */
+    void setVisible(boolean value);
+
+    /**
+     * Sets the window parameter of being on top of other windows.
+     * @param value <code>true</code> if window should be on top of other windows, or
+     * <code>false</code> otherwise.
+     */
+    void setAlwaysOnTop(boolean value);
+
+    /**
+     * Checks if the opacity of this window may be changed.
+     * @return <code>true</code> if the window supports translucency, or
+     * <code>false</code> otherwise.
+     */
+    boolean isTranslucencySupported();
+
+    /**
+     * Sets the opacity of the window. This method is only called if the
+     * window supports translucency.
+     * @param opacity The opacity, on a continuum interval, 0 <= x <= 1.
+     */
+    void setOpacity(float opacity);
+
+    /**
+     * Sets the action run when the user clicks the window, on the event
+     * dispatch thread.
+     * @param listener The action, or <code>null</code> in order to remove it.
+     */
+    void setClickListener(Runnable listener);
+
+    /**
+     * Disposes the window.
+     */
+    void dispose();
+}
@@ -53,10 +53,10 @@ package net.sf.jcarrierpigeon;
 
 /**
  * Provides an enumeration for the window type on screen. This enumeration
- * basically consists on two states, defined later on the documentation.
+ * basically consists on three states, defined later on the documentation.
  * 
  * @author Paulo Roberto Massa Cereda
- * @version 1.3
+ * @version 1.4
  * @since 1.1
  */
 public enum WindowType {
@@ -67,5 +67,10 @@ public enum WindowType {
     /**
      * The assigned window is a <code>javax.swing.JWindow</code> object.
      */
-    JWINDOW
+    JWINDOW,
+    /**
+     * The assigned window is rendered in memory by a
+     * <b>net.sf.jcarrierpigeon.HeadlessWindowBackend</b> object.
+     */
+    HEADLESS
 }
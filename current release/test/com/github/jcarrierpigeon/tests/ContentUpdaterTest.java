@@ -0,0 +1,72 @@
+package com.github.jcarrierpigeon.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.*;
+import net.sf.jcarrierpigeon.ContentRenderer;
+import net.sf.jcarrierpigeon.ContentUpdater;
+import net.sf.jcarrierpigeon.HeadlessWindowBackend;
+import net.sf.jcarrierpigeon.Notification;
+import net.sf.jcarrierpigeon.VirtualScheduler;
+import net.sf.jcarrierpigeon.WindowPosition;
+
+/**
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @email cereda DOT paulo AT gmail DOT com
+ */
+public class ContentUpdaterTest extends TestCase {
+
+    public void testUpdatesAreCoalesced() throws Exception {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+        Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 2000);
+        note.setScheduler(scheduler);
+        note.setFrameRate(20);
+        final List<Integer> rendered = new ArrayList<Integer>();
+        final ContentUpdater<Integer> progress = new ContentUpdater<Integer>(note, new ContentRenderer<Integer>() {
+
+            public void render(Integer value) {
+                rendered.add(value);
+            }
+        });
+        note.animate();
+        scheduler.advance(600);
+        int frames = window.getFrameCount();
+
+        // thousands of updates between two frames, from several threads
+        Thread[] producers = new Thread[4];
+        for (int i = 0; i < producers.length; i++) {
+            producers[i] = new Thread(new Runnable() {
+
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        progress.post(Integer.valueOf(j));
+                    }
+                }
+            });
+            producers[i].start();
+        }
+        for (int i = 0; i < producers.length; i++) {
+            producers[i].join();
+        }
+        progress.post(Integer.valueOf(100));
+        scheduler.advance(50);
+        assertEquals(1, rendered.size());
+        assertEquals(Integer.valueOf(100), rendered.get(0));
+        assertEquals(40001, progress.getPostedCount());
+
+        // nothing new, nothing rendered, and the window did not move
+        scheduler.advance(500);
+        assertEquals(1, progress.getRenderedCount());
+        for (int i = frames - 1; i < window.getFrameCount(); i++) {
+            assertEquals(1080 - 125, window.getY(i));
+        }
+
+        // closed, so never rendered
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        progress.post(Integer.valueOf(101));
+        scheduler.advance(500);
+        assertEquals(1, rendered.size());
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.jcarrierpigeon.tests;
+
+import junit.framework.*;
+import net.sf.jcarrierpigeon.HeadlessWindowBackend;
+import net.sf.jcarrierpigeon.Notification;
+import net.sf.jcarrierpigeon.NotificationQueue;
+import net.sf.jcarrierpigeon.WindowPosition;
+
+/**
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @email cereda DOT paulo AT gmail DOT com
+ */
+public class HeadlessPipelineTest extends TestCase {
+
+    public void testAnimationIsRecorded() throws Exception {
+        HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+        Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 100);
+        note.setAnimationSpeed(100);
+        note.animate();
+
+        long limit = System.currentTimeMillis() + 5000;
+        while ((!window.isDisposed()) && (System.currentTimeMillis() < limit)) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(window.isDisposed());
+        assertTrue(window.getFrameCount() > 2);
+        assertEquals(1920 - (300 + 25), window.getX(0));
+        assertTrue(window.getY(0) > 1080 - (100 + 25));
+        assertEquals(1080, window.getLastY());
+    }
+
+    public void testRecordingIsToggled() {
+        HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+        for (int i = 0; i < 40; i++) {
+            window.setBounds(i, i, 300, 100);
+        }
+        window.setRecording(false);
+        for (int i = 40; i < 100; i++) {
+            window.setBounds(i, i, 300, 100);
+        }
+        window.setRecording(true);
+        for (int i = 100; i < 140; i++) {
+            window.setBounds(i, i, 300, 100);
+        }
+
+        assertEquals(140, window.getFrameCount());
+        assertEquals(80, window.getRecordedFrameCount());
+        assertEquals(39, window.getX(39));
+        assertEquals(100, window.getX(40));
+        assertEquals(139, window.getY(79));
+        assertEquals(139, window.getLastY());
+        try {
+            window.getY(80);
+            fail();
+        } catch (IndexOutOfBoundsException exception) {
+            // expected
+        }
+    }
+
+    public void testBurstIsDigested() {
+        NotificationQueue queue = new NotificationQueue();
+        queue.setDigest(5, 60000);
+        for (int i = 0; i < 10000; i++) {
+            HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+            window.setRecording(false);
+            Notification note = new Notification(window, WindowPosition.TOPLEFT, 25, 25, 1000);
+            note.setKey("load");
+            note.setMessage("Event " + i);
+            queue.add(note);
+        }
+        assertEquals(9995, queue.getMetrics().getDigestedCount());
+        assertEquals(4, queue.size());
+    }
+
+}
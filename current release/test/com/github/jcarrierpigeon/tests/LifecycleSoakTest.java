@@ -0,0 +1,127 @@
+package com.github.jcarrierpigeon.tests;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.WeakReference;
+import junit.framework.*;
+import net.sf.jcarrierpigeon.HeadlessWindowBackend;
+import net.sf.jcarrierpigeon.Notification;
+import net.sf.jcarrierpigeon.NotificationQueue;
+import net.sf.jcarrierpigeon.OverflowPolicy;
+import net.sf.jcarrierpigeon.RateLimiter;
+import net.sf.jcarrierpigeon.VirtualScheduler;
+import net.sf.jcarrierpigeon.WindowPosition;
+
+/**
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @email cereda DOT paulo AT gmail DOT com
+ */
+public class LifecycleSoakTest extends TestCase {
+
+    private VirtualScheduler scheduler;
+    private NotificationQueue queue;
+
+    protected void setUp() {
+        scheduler = new VirtualScheduler();
+        queue = new NotificationQueue(scheduler);
+    }
+
+    private WeakReference<HeadlessWindowBackend> run(int count) {
+        WeakReference<HeadlessWindowBackend> last = null;
+        for (int i = 0; i < count; i += 1000) {
+            for (int j = 0; j < 1000; j++) {
+                HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+                Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 20);
+                note.setAnimationSpeed(20);
+                note.setMessage("soak " + (i + j));
+                queue.add(note);
+                last = new WeakReference<HeadlessWindowBackend>(window);
+            }
+            scheduler.runUntilIdle(Long.MAX_VALUE);
+        }
+        return last;
+    }
+
+    private long usedHeap(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    public void testNothingIsRetained() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        run(10000);
+        long baseline = usedHeap(memory);
+
+        WeakReference<HeadlessWindowBackend> last = run(100000);
+        assertEquals(0, queue.size());
+        assertEquals(110000, queue.getMetrics().getDisplayedCount());
+        long used = usedHeap(memory);
+
+        // the queue is still alive, but the last window is not
+        assertNull(last.get());
+        assertTrue("Retained " + (used - baseline) + " bytes", used - baseline < 8 * 1024 * 1024);
+    }
+
+    public void testPurgeAfterCancel() {
+        queue.add(new Notification(new HeadlessWindowBackend(300, 100), WindowPosition.BOTTOMRIGHT, 25, 25, 1000));
+        HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+        Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 1000);
+        note.setDeadline(scheduler.currentTimeMillis() + 500);
+        queue.add(note);
+
+        // cancelled behind the back of the queue, then purged by it
+        note.cancel();
+        assertTrue(window.isDisposed());
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        assertEquals(1, queue.getMetrics().getExpiredCount());
+        assertEquals(1, queue.getMetrics().getDisplayedCount());
+    }
+
+    public void testQueuedCancel() {
+        queue.add(new Notification(new HeadlessWindowBackend(300, 100), WindowPosition.BOTTOMRIGHT, 25, 25, 1000));
+        HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+        Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 1000);
+        queue.add(note);
+        HeadlessWindowBackend next = new HeadlessWindowBackend(300, 100);
+        queue.add(new Notification(next, WindowPosition.BOTTOMRIGHT, 25, 25, 1000));
+
+        // cancelled behind the back of the queue, with no deadline, so
+        // the queue only finds out when it polls it
+        note.cancel();
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        assertEquals(0, window.getFrameCount());
+        assertTrue(next.isDisposed());
+        assertEquals(2, queue.getMetrics().getDisplayedCount());
+        assertEquals(0, queue.size());
+        try {
+            queue.add(note);
+            fail();
+        } catch (IllegalStateException exception) {
+            // expected
+        }
+    }
+
+    public void testHeldCancel() {
+        RateLimiter limiter = new RateLimiter(OverflowPolicy.QUEUE);
+        limiter.setPositionRate(1, 1);
+        queue.setRateLimiter(limiter);
+        Notification first = new Notification(new HeadlessWindowBackend(300, 100), WindowPosition.BOTTOMRIGHT, 25, 25, 20);
+        first.setAnimationSpeed(20);
+        queue.add(first);
+        HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+        Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 20);
+        note.setAnimationSpeed(20);
+        queue.add(note);
+        scheduler.advance(600);
+        assertEquals(1, queue.getMetrics().getRateLimitedCount());
+
+        // held back by the limiter, then cancelled behind the back of the queue
+        note.cancel();
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        assertEquals(0, window.getFrameCount());
+        assertEquals(1, queue.getMetrics().getDisplayedCount());
+    }
+}
@@ -0,0 +1,168 @@
+package com.github.jcarrierpigeon.tests;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import javax.swing.SwingUtilities;
+import junit.framework.*;
+import net.sf.jcarrierpigeon.MessageNotificationFactory;
+import net.sf.jcarrierpigeon.Notification;
+import net.sf.jcarrierpigeon.NotificationClient;
+import net.sf.jcarrierpigeon.NotificationDaemon;
+import net.sf.jcarrierpigeon.NotificationData;
+import net.sf.jcarrierpigeon.NotificationFactory;
+import net.sf.jcarrierpigeon.NotificationHistory;
+import net.sf.jcarrierpigeon.NotificationQueue;
+import net.sf.jcarrierpigeon.VirtualScheduler;
+import net.sf.jcarrierpigeon.WindowPosition;
+
+/**
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @email cereda DOT paulo AT gmail DOT com
+ */
+public class NotificationDaemonTest extends TestCase {
+
+    private void await(NotificationDaemon daemon, long received, long rejected) throws InterruptedException {
+        long limit = System.currentTimeMillis() + 10000;
+        while (((daemon.getReceivedCount() < received) || (daemon.getRejectedCount() < rejected))
+                && (System.currentTimeMillis() < limit)) {
+            Thread.sleep(10);
+        }
+    }
+
+    public void testNotificationsAreDelivered() throws Exception {
+        NotificationQueue queue = new NotificationQueue(new VirtualScheduler());
+        NotificationHistory history = new NotificationHistory(2000);
+        queue.setHistory(history);
+        NotificationDaemon daemon = new NotificationDaemon(queue, new MessageNotificationFactory(new Rectangle(0, 0, 1920, 1080)), 0);
+        daemon.start();
+        try {
+            NotificationClient client = NotificationClient.connect(daemon.getPort());
+            for (int i = 0; i < 1000; i++) {
+                client.send(new NotificationData("build", "message " + i, WindowPosition.BOTTOMRIGHT, 25, 25, 1000));
+            }
+            client.close();
+            assertEquals(1000, client.getSentCount());
+            await(daemon, 1000, 0);
+            assertEquals(1000, daemon.getReceivedCount());
+            assertEquals(1000, history.size("build"));
+            assertEquals("message 999", history.getRecent("build", 0).getMessage());
+            try {
+                client.send(new NotificationData("build", "late", WindowPosition.BOTTOMRIGHT, 25, 25, 1000));
+                fail("The client is closed");
+            } catch (IOException exception) {
+                // expected
+            }
+        } finally {
+            daemon.close();
+        }
+    }
+
+    public void testForeignClientsAreRejected() throws Exception {
+        NotificationQueue queue = new NotificationQueue(new VirtualScheduler());
+        NotificationDaemon daemon = new NotificationDaemon(queue, new MessageNotificationFactory(new Rectangle(0, 0, 1920, 1080)), 0);
+        daemon.start();
+        try {
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort());
+            OutputStream output = socket.getOutputStream();
+            output.write("GET / HTTP/1.0\r\n\r\n".getBytes("US-ASCII"));
+            output.flush();
+            await(daemon, 0, 1);
+            socket.close();
+            assertEquals(1, daemon.getRejectedCount());
+            assertEquals(0, daemon.getReceivedCount());
+        } finally {
+            daemon.close();
+        }
+    }
+
+    public void testConnectionsAreLimited() throws Exception {
+        final boolean[] dispatched = new boolean[] { true };
+        final MessageNotificationFactory factory = new MessageNotificationFactory(new Rectangle(0, 0, 1920, 1080));
+        NotificationQueue queue = new NotificationQueue(new VirtualScheduler());
+        NotificationDaemon daemon = new NotificationDaemon(queue, new NotificationFactory() {
+
+            public Notification createNotification(NotificationData data) {
+                if (!SwingUtilities.isEventDispatchThread()) {
+                    dispatched[0] = false;
+                }
+                return factory.createNotification(data);
+            }
+        }, 0);
+        daemon.setMaximumConnections(2);
+        daemon.start();
+        try {
+            NotificationClient first = NotificationClient.connect(daemon.getPort());
+            NotificationClient second = NotificationClient.connect(daemon.getPort());
+            Socket third = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort());
+            await(daemon, 0, 1);
+            third.close();
+            assertEquals(1, daemon.getRejectedCount());
+            assertEquals(2, daemon.getConnectionCount());
+
+            // the slots are released when the clients go away
+            first.close();
+            long limit = System.currentTimeMillis() + 10000;
+            while ((daemon.getConnectionCount() > 1) && (System.currentTimeMillis() < limit)) {
+                Thread.sleep(10);
+            }
+            NotificationClient fourth = NotificationClient.connect(daemon.getPort());
+            fourth.send(new NotificationData("build", "message", WindowPosition.BOTTOMRIGHT, 25, 25, 1000));
+            fourth.close();
+            second.close();
+            await(daemon, 1, 1);
+            assertEquals(1, daemon.getReceivedCount());
+            assertEquals(1, daemon.getRejectedCount());
+            assertTrue(dispatched[0]);
+        } finally {
+            daemon.close();
+        }
+    }
+
+    private void sendForged(int port, int position, int keyLength) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeInt(0x4a435044);
+        data.writeInt(1);
+        data.writeInt(29);
+        data.writeLong(Long.MAX_VALUE);
+        data.writeInt(1000);
+        data.writeInt(500);
+        data.writeInt(25);
+        data.writeInt(25);
+        data.writeByte(position);
+        data.writeInt(keyLength);
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.getOutputStream().write(bytes.toByteArray());
+        socket.getOutputStream().flush();
+        socket.close();
+    }
+
+    public void testForgedFramesAreRejected() throws Exception {
+        NotificationQueue queue = new NotificationQueue(new VirtualScheduler());
+        NotificationDaemon daemon = new NotificationDaemon(queue, new MessageNotificationFactory(new Rectangle(0, 0, 1920, 1080)), 0);
+        daemon.start();
+        try {
+
+            // a huge string length and an unknown window position
+            sendForged(daemon.getPort(), 0, Integer.MAX_VALUE - 8);
+            sendForged(daemon.getPort(), 9, -1);
+            await(daemon, 0, 2);
+            assertEquals(2, daemon.getRejectedCount());
+
+            // the daemon goes on serving
+            NotificationClient client = NotificationClient.connect(daemon.getPort());
+            client.send(new NotificationData("build", "message", WindowPosition.BOTTOMRIGHT, 25, 25, 1000));
+            client.close();
+            await(daemon, 1, 2);
+            assertEquals(1, daemon.getReceivedCount());
+        } finally {
+            daemon.close();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.github.jcarrierpigeon.tests;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import junit.framework.*;
+import net.sf.jcarrierpigeon.HeadlessWindowBackend;
+import net.sf.jcarrierpigeon.MessageNotificationFactory;
+import net.sf.jcarrierpigeon.Notification;
+import net.sf.jcarrierpigeon.NotificationData;
+import net.sf.jcarrierpigeon.NotificationEvent;
+import net.sf.jcarrierpigeon.NotificationEventPublisher;
+import net.sf.jcarrierpigeon.NotificationHandle;
+import net.sf.jcarrierpigeon.NotificationListener;
+import net.sf.jcarrierpigeon.NotificationQueue;
+import net.sf.jcarrierpigeon.NotificationSubscriber;
+import net.sf.jcarrierpigeon.VirtualScheduler;
+import net.sf.jcarrierpigeon.WindowPosition;
+
+/**
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @email cereda DOT paulo AT gmail DOT com
+ */
+public class NotificationFlowTest extends TestCase {
+
+    private VirtualScheduler scheduler;
+    private NotificationQueue queue;
+
+    protected void setUp() {
+        scheduler = new VirtualScheduler();
+        queue = new NotificationQueue(scheduler);
+    }
+
+    private Notification create(String message) {
+        Notification note = new Notification(new HeadlessWindowBackend(300, 100), WindowPosition.BOTTOMRIGHT, 25, 25, 1000);
+        note.setMessage(message);
+        return note;
+    }
+
+    public void testSubscriberFollowsTheQueue() {
+        final long[] requested = new long[1];
+        final boolean[] cancelled = new boolean[1];
+        NotificationSubscriber subscriber = new NotificationSubscriber(queue,
+                new MessageNotificationFactory(new Rectangle(0, 0, 1920, 1080)), 5);
+        subscriber.onSubscribe(new Flow.Subscription() {
+
+            public void request(long n) {
+                requested[0] += n;
+            }
+
+            public void cancel() {
+                cancelled[0] = true;
+            }
+        });
+        assertEquals(5, requested[0]);
+
+        // the producer sends what was requested, and no more
+        long sent = 0;
+        for (int round = 0; round < 20; round++) {
+            while (sent < requested[0]) {
+                subscriber.onNext(new NotificationData(null, "item " + sent, WindowPosition.BOTTOMRIGHT, 25, 25, 1000));
+                sent++;
+            }
+            assertEquals(5, queue.size());
+            scheduler.advance(2000);
+        }
+
+        // one more for each notification displayed
+        assertEquals(4, queue.size());
+        assertEquals(sent + 1, requested[0]);
+
+        subscriber.cancel();
+        assertTrue(cancelled[0]);
+        assertTrue(subscriber.isTerminated());
+        scheduler.advance(10000);
+        assertEquals(sent + 1, requested[0]);
+    }
+
+    public void testListenersRunWithoutLocks() throws Exception {
+        final CountDownLatch closing = new CountDownLatch(1);
+        final Thread[] canceller = new Thread[1];
+
+        // the first listener waits for the cancellation to get as far as it
+        // can, then the subscriber checks the queue
+        queue.addNotificationListener(new NotificationListener() {
+
+            public void notificationChanged(NotificationEvent event) {
+                if (event.getType() == NotificationEvent.Type.CLOSED) {
+                    closing.countDown();
+                    awaitBlockedOrDone(canceller[0]);
+                }
+            }
+        });
+        NotificationSubscriber subscriber = new NotificationSubscriber(queue,
+                new MessageNotificationFactory(new Rectangle(0, 0, 1920, 1080)), 5);
+        subscriber.onSubscribe(new Flow.Subscription() {
+
+            public void request(long n) {
+            }
+
+            public void cancel() {
+            }
+        });
+        final NotificationHandle handle = queue.add(create("closing"));
+
+        // one thread closes the notification, another cancels it through
+        // the queue, taking the locks in the opposite order
+        Thread closer = new Thread(new Runnable() {
+
+            public void run() {
+                scheduler.advance(3000);
+            }
+        });
+        canceller[0] = new Thread(new Runnable() {
+
+            public void run() {
+                try {
+                    closing.await();
+                } catch (InterruptedException exception) {
+                    return;
+                }
+                handle.cancel();
+            }
+        });
+        closer.setDaemon(true);
+        canceller[0].setDaemon(true);
+        canceller[0].start();
+        closer.start();
+        closer.join(10000);
+        canceller[0].join(10000);
+        assertFalse(closer.isAlive());
+        assertFalse(canceller[0].isAlive());
+    }
+
+    static void awaitBlockedOrDone(Thread thread) {
+        long limit = System.currentTimeMillis() + 2000;
+        while ((thread.getState() != Thread.State.BLOCKED) && (thread.getState() != Thread.State.TERMINATED)
+                && (System.currentTimeMillis() < limit)) {
+            Thread.yield();
+        }
+    }
+
+    public void testPublisherReportsTheLifecycle() {
+        final List<NotificationEvent.Type> types = new ArrayList<NotificationEvent.Type>();
+        final Flow.Subscription[] subscription = new Flow.Subscription[1];
+        final boolean[] completed = new boolean[1];
+        NotificationEventPublisher publisher = new NotificationEventPublisher(queue, 2);
+        publisher.subscribe(new Flow.Subscriber<NotificationEvent>() {
+
+            public void onSubscribe(Flow.Subscription value) {
+                subscription[0] = value;
+            }
+
+            public void onNext(NotificationEvent event) {
+                types.add(event.getType());
+            }
+
+            public void onError(Throwable throwable) {
+                fail();
+            }
+
+            public void onComplete() {
+                completed[0] = true;
+            }
+        });
+
+        // no demand, so only the last two events are kept
+        queue.add(create("first"));
+        NotificationHandle second = queue.add(create("second"));
+        Notification expired = create("expired");
+        expired.setDeadline(0);
+        queue.add(expired);
+        second.dismiss();
+        assertTrue(types.isEmpty());
+        assertEquals(1, publisher.getDroppedCount());
+        subscription[0].request(1);
+        assertEquals(1, types.size());
+        assertEquals(NotificationEvent.Type.EXPIRED, types.get(0));
+
+        subscription[0].request(Long.MAX_VALUE);
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        assertEquals(3, types.size());
+        assertEquals(NotificationEvent.Type.DISMISSED, types.get(1));
+        assertEquals(NotificationEvent.Type.CLOSED, types.get(2));
+
+        publisher.close();
+        assertTrue(completed[0]);
+        queue.add(create("third"));
+        assertEquals(3, types.size());
+    }
+}
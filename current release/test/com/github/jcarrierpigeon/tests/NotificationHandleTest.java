@@ -0,0 +1,144 @@
+package com.github.jcarrierpigeon.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import junit.framework.*;
+import net.sf.jcarrierpigeon.HeadlessWindowBackend;
+import net.sf.jcarrierpigeon.Notification;
+import net.sf.jcarrierpigeon.NotificationEvent;
+import net.sf.jcarrierpigeon.NotificationHandle;
+import net.sf.jcarrierpigeon.NotificationQueue;
+import net.sf.jcarrierpigeon.VirtualScheduler;
+import net.sf.jcarrierpigeon.WindowPosition;
+
+/**
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @email cereda DOT paulo AT gmail DOT com
+ */
+public class NotificationHandleTest extends TestCase {
+
+    private VirtualScheduler scheduler;
+
+    protected void setUp() {
+        scheduler = new VirtualScheduler();
+    }
+
+    private Notification create(HeadlessWindowBackend window) {
+        Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 1000);
+        note.setScheduler(scheduler);
+        return note;
+    }
+
+    public void testAnimateReturnsHandle() throws Exception {
+        HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+        NotificationHandle handle = create(window).animate();
+        assertTrue(handle.getShown().isDone());
+        assertFalse(handle.isQueued());
+        scheduler.advance(700);
+        window.click();
+        window.click();
+        assertSame(handle, handle.getClicked().get());
+        assertFalse(handle.getClosed().isDone());
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        assertEquals(NotificationEvent.Type.CLOSED, handle.getClosed().get());
+
+        // dismissed directly
+        window = new HeadlessWindowBackend(300, 100);
+        handle = create(window).animate();
+        scheduler.advance(700);
+        handle.dismiss();
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        assertEquals(NotificationEvent.Type.DISMISSED, handle.getClosed().get());
+        assertTrue(handle.getClicked().isCancelled());
+    }
+
+    public void testQueuedHandles() throws Exception {
+        NotificationQueue queue = new NotificationQueue(scheduler);
+        final AtomicInteger closed = new AtomicInteger();
+        final List<NotificationEvent.Type> types = new ArrayList<NotificationEvent.Type>();
+        NotificationHandle[] handles = new NotificationHandle[2000];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = queue.add(create(new HeadlessWindowBackend(300, 100)));
+            handles[i].getClosed().thenAccept(new Consumer<NotificationEvent.Type>() {
+
+                public void accept(NotificationEvent.Type type) {
+                    closed.incrementAndGet();
+                    synchronized (types) {
+                        types.add(type);
+                    }
+                }
+            });
+        }
+        assertTrue(handles[0].getShown().isDone());
+        assertFalse(handles[1].getShown().isDone());
+
+        // cancelled while waiting, never shown
+        handles[5].cancel();
+        assertTrue(handles[5].getShown().isCancelled());
+        assertEquals(NotificationEvent.Type.CANCELLED, handles[5].getClosed().get());
+
+        // cancelled on display
+        scheduler.advance(700);
+        handles[0].cancel();
+        assertEquals(NotificationEvent.Type.CANCELLED, handles[0].getClosed().get());
+
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        assertEquals(handles.length, closed.get());
+        int closedNormally = 0;
+        for (NotificationEvent.Type type : types) {
+            if (type == NotificationEvent.Type.CLOSED) {
+                closedNormally++;
+            }
+        }
+        assertEquals(handles.length - 2, closedNormally);
+    }
+
+    public void testChainedActionsRunWithoutLocks() throws Exception {
+        final NotificationQueue queue = new NotificationQueue(scheduler);
+        final NotificationHandle handle = queue.add(create(new HeadlessWindowBackend(300, 100)));
+        final CountDownLatch closing = new CountDownLatch(1);
+        final Thread[] canceller = new Thread[1];
+        final int[] waiting = { -1 };
+
+        // the chained action waits for the cancellation to get as far as
+        // it can, then checks the queue
+        handle.getClosed().thenRun(new Runnable() {
+
+            public void run() {
+                closing.countDown();
+                NotificationFlowTest.awaitBlockedOrDone(canceller[0]);
+                waiting[0] = queue.size();
+            }
+        });
+        Thread closer = new Thread(new Runnable() {
+
+            public void run() {
+                scheduler.advance(3000);
+            }
+        });
+        canceller[0] = new Thread(new Runnable() {
+
+            public void run() {
+                try {
+                    closing.await();
+                } catch (InterruptedException exception) {
+                    return;
+                }
+                handle.cancel();
+            }
+        });
+        closer.setDaemon(true);
+        canceller[0].setDaemon(true);
+        canceller[0].start();
+        closer.start();
+        closer.join(10000);
+        canceller[0].join(10000);
+        assertFalse(closer.isAlive());
+        assertFalse(canceller[0].isAlive());
+        assertEquals(0, waiting[0]);
+    }
+}
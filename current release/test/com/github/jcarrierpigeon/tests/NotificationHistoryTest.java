@@ -0,0 +1,83 @@
+package com.github.jcarrierpigeon.tests;
+
+import java.util.List;
+import junit.framework.*;
+import net.sf.jcarrierpigeon.HeadlessWindowBackend;
+import net.sf.jcarrierpigeon.HistoryEntry;
+import net.sf.jcarrierpigeon.Notification;
+import net.sf.jcarrierpigeon.NotificationHistory;
+import net.sf.jcarrierpigeon.NotificationQueue;
+import net.sf.jcarrierpigeon.VirtualScheduler;
+import net.sf.jcarrierpigeon.WindowPosition;
+
+/**
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @email cereda DOT paulo AT gmail DOT com
+ */
+public class NotificationHistoryTest extends TestCase {
+
+    private Notification create(String key, String message) {
+        Notification note = new Notification(new HeadlessWindowBackend(300, 100), WindowPosition.BOTTOMRIGHT, 25, 25, 1000);
+        note.setKey(key);
+        note.setMessage(message);
+        return note;
+    }
+
+    public void testEvictionAndQueries() {
+        NotificationHistory history = new NotificationHistory(100);
+        for (int i = 0; i < 250; i++) {
+            String key = (i < 10) ? "boot" : ((i % 2 == 0) ? "mail" : "build");
+            history.record(create(key, "event " + i), 1000L * i);
+        }
+
+        assertEquals(100, history.size());
+        assertEquals(250, history.getRecordedCount());
+        assertEquals(0, history.size("boot"));
+        assertEquals(50, history.size("mail"));
+        assertNull(history.get(149));
+        assertEquals("event 150", history.get(150).getMessage());
+        assertEquals("event 249", history.getRecent(null, 0).getMessage());
+        assertEquals("event 248", history.getRecent("mail", 0).getMessage());
+
+        List<HistoryEntry> mail = history.find("mail", 200000, 210000, 100);
+        assertEquals(6, mail.size());
+        assertEquals("event 210", mail.get(0).getMessage());
+        assertEquals("event 200", mail.get(5).getMessage());
+
+        List<HistoryEntry> all = history.find(null, 0, 300000, 3);
+        assertEquals(3, all.size());
+        assertEquals(249, all.get(0).getSequence());
+    }
+
+    public void testClockSteppingBack() {
+        NotificationHistory history = new NotificationHistory(100);
+        history.record(create("mail", "event 0"), 5000);
+        history.record(create("mail", "event 1"), 6000);
+        history.record(create("mail", "event 2"), 2000);
+        history.record(create("mail", "event 3"), 7000);
+
+        assertEquals(6000, history.get(2).getTime());
+        List<HistoryEntry> mail = history.find("mail", 6000, 6500, 100);
+        assertEquals(2, mail.size());
+        assertEquals("event 2", mail.get(0).getMessage());
+        assertEquals("event 1", mail.get(1).getMessage());
+        assertEquals(3, history.find(null, 5000, 6000, 100).size());
+    }
+
+    public void testQueueRecordsEverything() {
+        NotificationHistory history = new NotificationHistory(10);
+        NotificationQueue queue = new NotificationQueue(new VirtualScheduler());
+        queue.setHistory(history);
+        for (int i = 0; i < 5; i++) {
+            Notification note = create("mail", "message " + i);
+            if (i == 4) {
+                note.setDeadline(0);
+            }
+            queue.add(note);
+        }
+        assertEquals(5, history.size("mail"));
+        assertEquals(1, queue.getMetrics().getExpiredCount());
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.github.jcarrierpigeon.tests;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.*;
+import net.sf.jcarrierpigeon.HeadlessWindowBackend;
+import net.sf.jcarrierpigeon.MessageNotificationFactory;
+import net.sf.jcarrierpigeon.Notification;
+import net.sf.jcarrierpigeon.NotificationData;
+import net.sf.jcarrierpigeon.NotificationFactory;
+import net.sf.jcarrierpigeon.NotificationJournal;
+import net.sf.jcarrierpigeon.NotificationQueue;
+import net.sf.jcarrierpigeon.VirtualScheduler;
+import net.sf.jcarrierpigeon.WindowPosition;
+
+/**
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @email cereda DOT paulo AT gmail DOT com
+ */
+public class NotificationJournalTest extends TestCase {
+
+    private File file;
+
+    protected void setUp() throws Exception {
+        file = File.createTempFile("jcarrierpigeon", ".journal");
+        file.delete();
+    }
+
+    protected void tearDown() throws Exception {
+        file.delete();
+    }
+
+    private Notification create(String message) {
+        Notification note = new Notification(new HeadlessWindowBackend(300, 100), WindowPosition.TOPLEFT, 10, 20, 1000);
+        note.setKey("build");
+        note.setMessage(message);
+        return note;
+    }
+
+    public void testPendingNotificationsAreRestored() throws Exception {
+        NotificationJournal journal = new NotificationJournal(file);
+        VirtualScheduler scheduler = new VirtualScheduler();
+        NotificationQueue queue = new NotificationQueue(scheduler);
+        queue.setJournal(journal);
+        for (int i = 0; i < 3; i++) {
+            queue.add(create("message " + i));
+        }
+        scheduler.advance(2100);
+        journal.close();
+
+        journal = new NotificationJournal(file);
+        assertEquals(2, journal.getRecoveredCount());
+        final List<NotificationData> restored = new ArrayList<NotificationData>();
+        final NotificationFactory factory = new MessageNotificationFactory(new Rectangle(0, 0, 1920, 1080));
+        scheduler = new VirtualScheduler();
+        queue = new NotificationQueue(scheduler);
+        assertEquals(2, journal.restore(queue, new NotificationFactory() {
+
+            public Notification createNotification(NotificationData data) {
+                restored.add(data);
+                return factory.createNotification(data);
+            }
+        }));
+        queue.setJournal(journal);
+        assertEquals("message 1", restored.get(0).getMessage());
+        assertEquals("build", restored.get(1).getKey());
+        assertEquals(WindowPosition.TOPLEFT, restored.get(1).getWindowPosition());
+        assertEquals(20, restored.get(1).getBorderY());
+
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        journal.close();
+        journal = new NotificationJournal(file);
+        assertEquals(0, journal.getRecoveredCount());
+        journal.close();
+    }
+
+    public void testMappingGrows() throws Exception {
+        NotificationJournal journal = new NotificationJournal(file);
+        NotificationQueue queue = new NotificationQueue(new VirtualScheduler());
+        queue.setJournal(journal);
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < 4096; i++) {
+            message.append('x');
+        }
+        for (int i = 0; i < 600; i++) {
+            queue.add(create(message.toString()));
+        }
+        assertTrue(journal.isOpen());
+        assertNull(journal.getFailure());
+        journal.close();
+        assertFalse(journal.isOpen());
+
+        journal = new NotificationJournal(file);
+        assertEquals(600, journal.getRecoveredCount());
+        journal.close();
+    }
+
+    public void testTornRecordIsIgnored() throws Exception {
+        NotificationJournal journal = new NotificationJournal(file);
+        NotificationQueue queue = new NotificationQueue(new VirtualScheduler());
+        queue.setJournal(journal);
+        for (int i = 0; i < 1000; i++) {
+            queue.add(create("message " + i));
+        }
+        journal.close();
+
+        // tear the last record
+        RandomAccessFile access = new RandomAccessFile(file, "rw");
+        long end = access.length();
+        while ((end > 0) && (readByte(access, end - 1) == 0)) {
+            end--;
+        }
+        access.seek(end - 6);
+        access.write(0x55);
+        access.close();
+
+        journal = new NotificationJournal(file);
+        assertEquals(999, journal.getRecoveredCount());
+        journal.close();
+    }
+
+    public void testInterruptedCompactionIsHarmless() throws Exception {
+        NotificationJournal journal = new NotificationJournal(file);
+        NotificationQueue queue = new NotificationQueue(new VirtualScheduler());
+        queue.setJournal(journal);
+        for (int i = 0; i < 3; i++) {
+            queue.add(create("message " + i));
+        }
+        journal.close();
+
+        // a half-written compaction left behind by a crash
+        File fresh = new File(file.getPath() + ".tmp");
+        RandomAccessFile access = new RandomAccessFile(fresh, "rw");
+        access.write(new byte[] { 1, 2, 3 });
+        access.close();
+
+        // reopening twice replaces the file each time
+        for (int i = 0; i < 2; i++) {
+            journal = new NotificationJournal(file);
+            assertEquals(3, journal.getRecoveredCount());
+            assertFalse(fresh.exists());
+            journal.close();
+        }
+    }
+
+    private int readByte(RandomAccessFile access, long position) throws Exception {
+        access.seek(position);
+        return access.read();
+    }
+
+}
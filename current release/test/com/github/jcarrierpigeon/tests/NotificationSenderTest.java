@@ -0,0 +1,56 @@
+package com.github.jcarrierpigeon.tests;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import junit.framework.*;
+import net.sf.jcarrierpigeon.MessageNotificationFactory;
+import net.sf.jcarrierpigeon.NotificationDaemon;
+import net.sf.jcarrierpigeon.NotificationHistory;
+import net.sf.jcarrierpigeon.NotificationQueue;
+import net.sf.jcarrierpigeon.NotificationSender;
+import net.sf.jcarrierpigeon.VirtualScheduler;
+import net.sf.jcarrierpigeon.WindowPosition;
+
+/**
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @email cereda DOT paulo AT gmail DOT com
+ */
+public class NotificationSenderTest extends TestCase {
+
+    public void testSendToDaemon() throws Exception {
+        NotificationQueue queue = new NotificationQueue(new VirtualScheduler());
+        NotificationHistory history = new NotificationHistory(10);
+        queue.setHistory(history);
+        NotificationDaemon daemon = new NotificationDaemon(queue, new MessageNotificationFactory(new Rectangle(0, 0, 1920, 1080)), 0);
+        daemon.start();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(0, NotificationSender.run(new String[]{"-k", "backup", "-p", "topleft", "--port",
+                        String.valueOf(daemon.getPort()), "Backup", "finished"}, new PrintStream(out)));
+            long limit = System.currentTimeMillis() + 10000;
+            while ((daemon.getReceivedCount() == 0) && (System.currentTimeMillis() < limit)) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, history.size("backup"));
+            assertEquals("Backup finished", history.getRecent("backup", 0).getMessage());
+            assertEquals(WindowPosition.TOPLEFT, queue.getHistory().getRecent(null, 0).getWindowPosition());
+            assertEquals(0, out.size());
+        } finally {
+            daemon.close();
+        }
+    }
+
+    public void testArguments() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2, NotificationSender.run(new String[]{"-k", "backup"}, new PrintStream(out)));
+        assertEquals(2, NotificationSender.run(new String[]{"-p", "middle", "Hello"}, new PrintStream(out)));
+        assertEquals(2, NotificationSender.run(new String[]{"-d"}, new PrintStream(out)));
+        out.reset();
+        assertEquals(0, NotificationSender.run(new String[]{"--dry-run", "-d", "3000", "--", "-1", "degrees"},
+                new PrintStream(out)));
+        assertTrue(out.toString().startsWith("BOTTOMRIGHT 3000 ms"));
+        assertTrue(out.toString().trim().endsWith(": -1 degrees"));
+    }
+}
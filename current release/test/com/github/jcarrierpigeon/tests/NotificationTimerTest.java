@@ -0,0 +1,139 @@
+package com.github.jcarrierpigeon.tests;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import junit.framework.*;
+import net.sf.jcarrierpigeon.MessageNotificationFactory;
+import net.sf.jcarrierpigeon.Notification;
+import net.sf.jcarrierpigeon.NotificationData;
+import net.sf.jcarrierpigeon.NotificationFactory;
+import net.sf.jcarrierpigeon.NotificationJournal;
+import net.sf.jcarrierpigeon.NotificationQueue;
+import net.sf.jcarrierpigeon.NotificationTimer;
+import net.sf.jcarrierpigeon.ScheduledNotification;
+import net.sf.jcarrierpigeon.VirtualScheduler;
+import net.sf.jcarrierpigeon.WindowPosition;
+
+/**
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @email cereda DOT paulo AT gmail DOT com
+ */
+public class NotificationTimerTest extends TestCase {
+
+    private VirtualScheduler scheduler;
+    private List<String> messages;
+    private List<Long> times;
+    private NotificationTimer timer;
+
+    protected void setUp() {
+        scheduler = new VirtualScheduler();
+        messages = new ArrayList<String>();
+        times = new ArrayList<Long>();
+        timer = create();
+    }
+
+    private NotificationTimer create() {
+        final NotificationFactory factory = new MessageNotificationFactory(new Rectangle(0, 0, 1920, 1080));
+        return new NotificationTimer(new NotificationQueue(scheduler), new NotificationFactory() {
+
+            public Notification createNotification(NotificationData data) {
+                messages.add(data.getMessage());
+                times.add(Long.valueOf(scheduler.currentTimeMillis()));
+                return factory.createNotification(data);
+            }
+        }, scheduler, 50);
+    }
+
+    private NotificationData data(String message) {
+        return new NotificationData("reminder", message, WindowPosition.BOTTOMRIGHT, 25, 25, 1000);
+    }
+
+    public void testManyReminders() {
+        Random random = new Random(42);
+        long start = scheduler.currentTimeMillis();
+        long[] due = new long[20000];
+        ScheduledNotification[] handles = new ScheduledNotification[due.length];
+        for (int i = 0; i < due.length; i++) {
+            due[i] = start + random.nextInt(3 * 24 * 60 * 60 * 1000);
+            handles[i] = timer.scheduleAt(data(String.valueOf(i)), due[i]);
+        }
+        for (int i = 0; i < due.length; i += 2) {
+            handles[i].cancel();
+        }
+        assertEquals(10000, timer.size());
+
+        scheduler.advance(3L * 24 * 60 * 60 * 1000 + 100);
+        assertEquals(10000, messages.size());
+        assertEquals(0, timer.size());
+        for (int i = 0; i < messages.size(); i++) {
+            int index = Integer.parseInt(messages.get(i));
+            assertEquals(1, index % 2);
+            long fired = times.get(i).longValue();
+            assertTrue(fired >= due[index]);
+            assertTrue(fired < due[index] + 100);
+            assertTrue(handles[index].isDone());
+        }
+    }
+
+    public void testFarAwayReminder() {
+        long start = scheduler.currentTimeMillis();
+        timer.schedule(data("later"), 30L * 24 * 60 * 60 * 1000);
+        scheduler.advance(30L * 24 * 60 * 60 * 1000 - 1000);
+        assertTrue(messages.isEmpty());
+        scheduler.advance(1100);
+        assertEquals(1, messages.size());
+        assertTrue(times.get(0).longValue() - start >= 30L * 24 * 60 * 60 * 1000);
+    }
+
+    public void testRepeatingReminder() {
+        ScheduledNotification handle = timer.scheduleAtFixedRate(data("stretch"), 1000, 1000);
+        scheduler.advance(10020);
+        assertEquals(10, messages.size());
+        handle.cancel();
+        scheduler.advance(5000);
+        assertEquals(10, messages.size());
+        assertFalse(handle.isDone());
+        assertEquals(0, timer.size());
+    }
+
+    public void testScheduleSurvivesRestart() throws Exception {
+        File file = File.createTempFile("jcarrierpigeon", ".journal");
+        file.delete();
+        try {
+            NotificationJournal journal = new NotificationJournal(file);
+            timer.setJournal(journal);
+            timer.schedule(data("soon"), 1000);
+            timer.schedule(data("later"), 60000);
+            timer.scheduleAtFixedRate(data("hourly"), 3600000, 3600000);
+            timer.schedule(data("cancelled"), 5000).cancel();
+            scheduler.advance(2000);
+            assertEquals(1, messages.size());
+            journal.close();
+
+            // two hours later, the repeating one is due once
+            scheduler.advance(2 * 3600000);
+            messages.clear();
+            journal = new NotificationJournal(file);
+            assertEquals(2, journal.getRecoveredScheduleCount());
+            timer = create();
+            assertEquals(2, journal.restore(timer));
+            timer.setJournal(journal);
+            scheduler.advance(100);
+            assertEquals(2, messages.size());
+            assertTrue(messages.contains("later"));
+            assertTrue(messages.contains("hourly"));
+            assertEquals(1, timer.size());
+            journal.close();
+
+            journal = new NotificationJournal(file);
+            assertEquals(1, journal.getRecoveredScheduleCount());
+            journal.close();
+        } finally {
+            file.delete();
+        }
+    }
+}
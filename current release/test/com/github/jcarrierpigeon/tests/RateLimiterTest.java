@@ -0,0 +1,128 @@
+package com.github.jcarrierpigeon.tests;
+
+import junit.framework.*;
+import net.sf.jcarrierpigeon.HeadlessWindowBackend;
+import net.sf.jcarrierpigeon.Notification;
+import net.sf.jcarrierpigeon.NotificationEvent;
+import net.sf.jcarrierpigeon.NotificationHandle;
+import net.sf.jcarrierpigeon.NotificationQueue;
+import net.sf.jcarrierpigeon.NotificationQueueMetrics;
+import net.sf.jcarrierpigeon.OverflowPolicy;
+import net.sf.jcarrierpigeon.RateLimiter;
+import net.sf.jcarrierpigeon.VirtualScheduler;
+import net.sf.jcarrierpigeon.WindowPosition;
+
+/**
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @email cereda DOT paulo AT gmail DOT com
+ */
+public class RateLimiterTest extends TestCase {
+
+    private VirtualScheduler scheduler;
+
+    protected void setUp() {
+        scheduler = new VirtualScheduler();
+    }
+
+    private Notification create(String key, WindowPosition position) {
+        Notification note = new Notification(new HeadlessWindowBackend(300, 100), position, 25, 25, 100);
+        note.setAnimationSpeed(50);
+        note.setKey(key);
+        note.setScheduler(scheduler);
+        return note;
+    }
+
+    private NotificationQueue queue(OverflowPolicy policy, double rate, int burst) {
+        RateLimiter limiter = new RateLimiter(policy);
+        limiter.setSourceRate(rate, burst);
+        NotificationQueue queue = new NotificationQueue(scheduler);
+        queue.setRateLimiter(limiter);
+        return queue;
+    }
+
+    public void testRefillRate() {
+        NotificationQueue queue = queue(OverflowPolicy.QUEUE, 1, 2);
+        for (int i = 0; i < 8; i++) {
+            queue.add(create("source", WindowPosition.BOTTOMRIGHT));
+        }
+
+        // a burst of two, then one per second
+        NotificationQueueMetrics metrics = queue.getMetrics();
+        for (int second = 1; second <= 5; second++) {
+            scheduler.advance(1000);
+            long displayed = metrics.getDisplayedCount();
+            assertTrue("displayed " + displayed, displayed <= 2 + second);
+            assertTrue("displayed " + displayed, displayed >= 1 + second);
+        }
+
+        // each held notification is counted once, however long it waits
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        assertEquals(8, metrics.getDisplayedCount());
+        assertEquals(6, metrics.getRateLimitedCount());
+        assertEquals(0, queue.size());
+    }
+
+    public void testSourcesAndPositions() {
+        RateLimiter limiter = new RateLimiter(OverflowPolicy.DROP);
+        limiter.setPositionRate(0.001, 1);
+        NotificationQueue queue = new NotificationQueue(scheduler);
+        queue.setRateLimiter(limiter);
+
+        // one token per corner, whatever the source
+        queue.add(create("a", WindowPosition.BOTTOMRIGHT));
+        queue.add(create("b", WindowPosition.BOTTOMRIGHT));
+        queue.add(create("c", WindowPosition.TOPLEFT));
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        assertEquals(2, queue.getMetrics().getDisplayedCount());
+        assertEquals(1, queue.getMetrics().getDroppedCount());
+    }
+
+    public void testHeldNotificationExpires() {
+        NotificationQueue queue = queue(OverflowPolicy.QUEUE, 0.001, 1);
+        queue.add(create("source", WindowPosition.BOTTOMRIGHT));
+        Notification late = create("source", WindowPosition.BOTTOMRIGHT);
+        late.setDeadline(scheduler.currentTimeMillis() + 1000);
+        NotificationHandle handle = queue.add(late);
+
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        NotificationQueueMetrics metrics = queue.getMetrics();
+        assertEquals(1, metrics.getDisplayedCount());
+        assertEquals(1, metrics.getRateLimitedCount());
+        assertEquals(1, metrics.getExpiredCount());
+        assertEquals(NotificationEvent.Type.EXPIRED, handle.getClosed().join());
+    }
+
+    public void testDigestPolicy() {
+        NotificationQueue queue = queue(OverflowPolicy.DIGEST, 0.001, 1);
+        NotificationHandle[] handles = new NotificationHandle[5];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = queue.add(create("source", WindowPosition.BOTTOMRIGHT));
+        }
+
+        // the excess goes into a summary, which waits for the rate
+        scheduler.advance(10000);
+        NotificationQueueMetrics metrics = queue.getMetrics();
+        assertEquals(1, metrics.getDisplayedCount());
+        assertEquals(4, metrics.getDigestedCount());
+        assertEquals(5, metrics.getRateLimitedCount());
+        for (int i = 1; i < handles.length; i++) {
+            assertEquals(NotificationEvent.Type.DIGESTED, handles[i].getClosed().join());
+        }
+    }
+
+    public void testDropPolicy() {
+        NotificationQueue queue = queue(OverflowPolicy.DROP, 0.001, 1);
+        NotificationHandle first = queue.add(create("source", WindowPosition.BOTTOMRIGHT));
+        NotificationHandle second = queue.add(create("source", WindowPosition.BOTTOMRIGHT));
+        NotificationHandle other = queue.add(create("other", WindowPosition.BOTTOMRIGHT));
+
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        NotificationQueueMetrics metrics = queue.getMetrics();
+        assertEquals(2, metrics.getDisplayedCount());
+        assertEquals(1, metrics.getDroppedCount());
+        assertEquals(NotificationEvent.Type.CLOSED, first.getClosed().join());
+        assertEquals(NotificationEvent.Type.DROPPED, second.getClosed().join());
+        assertEquals(NotificationEvent.Type.CLOSED, other.getClosed().join());
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.jcarrierpigeon.tests;
+
+import java.util.HashMap;
+import java.util.Map;
+import junit.framework.*;
+import net.sf.jcarrierpigeon.RemoteSession;
+
+/**
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @email cereda DOT paulo AT gmail DOT com
+ */
+public class RemoteSessionTest extends TestCase {
+
+    private boolean check(String name, String value) {
+        Map<String, String> environment = new HashMap<String, String>();
+        environment.put(name, value);
+        return RemoteSession.isRemote(environment);
+    }
+
+    public void testLocalSessions() {
+        assertFalse(RemoteSession.isRemote(new HashMap<String, String>()));
+        assertFalse(check("DISPLAY", ":0"));
+        assertFalse(check("DISPLAY", ":1.0"));
+        assertFalse(check("DISPLAY", "unix:0"));
+        assertFalse(check("DISPLAY", "localhost:0"));
+        assertFalse(check("DISPLAY", "/private/tmp/com.apple.launchd.abc/org.xquartz:0"));
+        assertFalse(check("SESSIONNAME", "Console"));
+    }
+
+    public void testRemoteSessions() {
+        assertTrue(check("DISPLAY", "localhost:10.0"));
+        assertTrue(check("DISPLAY", "workstation:0"));
+        assertTrue(check("SESSIONNAME", "RDP-Tcp#3"));
+        assertTrue(check("XRDP_SESSION", "1"));
+
+        Map<String, String> environment = new HashMap<String, String>();
+        environment.put("DISPLAY", ":0");
+        environment.put("SSH_CONNECTION", "10.0.0.1 50000 10.0.0.2 22");
+        assertTrue(RemoteSession.isRemote(environment));
+    }
+
+}
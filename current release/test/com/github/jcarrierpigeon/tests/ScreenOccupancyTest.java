@@ -0,0 +1,78 @@
+package com.github.jcarrierpigeon.tests;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import junit.framework.*;
+import net.sf.jcarrierpigeon.HeadlessWindowBackend;
+import net.sf.jcarrierpigeon.Notification;
+import net.sf.jcarrierpigeon.ScreenOccupancy;
+import net.sf.jcarrierpigeon.VirtualScheduler;
+import net.sf.jcarrierpigeon.WindowPosition;
+
+/**
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @email cereda DOT paulo AT gmail DOT com
+ */
+public class ScreenOccupancyTest extends TestCase {
+
+    private File file;
+    private ScreenOccupancy first;
+    private ScreenOccupancy second;
+    private VirtualScheduler scheduler;
+
+    protected void setUp() throws Exception {
+        file = File.createTempFile("jcarrierpigeon", ".occupancy");
+        file.delete();
+        first = new ScreenOccupancy(file);
+        second = new ScreenOccupancy(file);
+        scheduler = new VirtualScheduler();
+    }
+
+    protected void tearDown() throws Exception {
+        Notification.setScreenOccupancy(null);
+        first.close();
+        second.close();
+        file.delete();
+    }
+
+    private HeadlessWindowBackend show(ScreenOccupancy occupancy, WindowPosition position) {
+        HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+        Notification note = new Notification(window, position, 25, 25, 1000);
+        note.setScheduler(scheduler);
+        Notification.setScreenOccupancy(occupancy);
+        note.animate();
+        return window;
+    }
+
+    public void testNotificationsStack() {
+        HeadlessWindowBackend a = show(first, WindowPosition.BOTTOMRIGHT);
+        HeadlessWindowBackend b = show(second, WindowPosition.BOTTOMRIGHT);
+        HeadlessWindowBackend c = show(second, WindowPosition.TOPLEFT);
+        scheduler.advance(600);
+        assertEquals(1080 - 125, a.getLastY());
+        assertEquals(1080 - 125 - 128, b.getLastY());
+        assertEquals(25, c.getLastY());
+
+        // the corner is free again once they are gone
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        HeadlessWindowBackend d = show(second, WindowPosition.BOTTOMRIGHT);
+        scheduler.advance(600);
+        assertEquals(1080 - 125, d.getLastY());
+    }
+
+    public void testStaleBandsAreReclaimed() throws Exception {
+
+        // bands marked by a process that is gone, with no lock
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        for (int i = 0; i < 16; i++) {
+            raw.seek(16 + WindowPosition.BOTTOMRIGHT.ordinal() * 256 + i);
+            raw.write(1);
+        }
+        raw.close();
+
+        HeadlessWindowBackend a = show(first, WindowPosition.BOTTOMRIGHT);
+        scheduler.advance(600);
+        assertEquals(1080 - 125, a.getLastY());
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.jcarrierpigeon.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import junit.framework.*;
+import net.sf.jcarrierpigeon.HeadlessWindowBackend;
+import net.sf.jcarrierpigeon.Notification;
+import net.sf.jcarrierpigeon.StallDetector;
+import net.sf.jcarrierpigeon.StallListener;
+import net.sf.jcarrierpigeon.StallReport;
+import net.sf.jcarrierpigeon.VirtualScheduler;
+import net.sf.jcarrierpigeon.WindowPosition;
+
+/**
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @email cereda DOT paulo AT gmail DOT com
+ */
+public class StallDetectorTest extends TestCase {
+
+    public void testIdleWatchdogIsParked() throws Exception {
+        Set<Thread> before = Thread.getAllStackTraces().keySet();
+        StallDetector detector = new StallDetector(20);
+        Thread watchdog = null;
+        for (Thread candidate : Thread.getAllStackTraces().keySet()) {
+            if ((!before.contains(candidate)) && (candidate.getName().equals("JCarrierPigeon stall detector"))) {
+                watchdog = candidate;
+            }
+        }
+        assertNotNull(watchdog);
+
+        // with no callback running, it waits with no timeout at all
+        long limit = System.currentTimeMillis() + 5000;
+        while ((watchdog.getState() != Thread.State.WAITING) && (System.currentTimeMillis() < limit)) {
+            Thread.sleep(10);
+        }
+        assertEquals(Thread.State.WAITING, watchdog.getState());
+
+        detector.stop();
+        watchdog.join(5000);
+        assertFalse(watchdog.isAlive());
+    }
+
+    public void testSlowFrameIsReported() {
+        final List<StallReport> reports = new ArrayList<StallReport>();
+        StallDetector detector = new StallDetector(20);
+        detector.addStallListener(new StallListener() {
+
+            public void stallDetected(StallReport report) {
+                reports.add(report);
+            }
+        });
+        Notification.setStallDetector(detector);
+        try {
+            HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100) {
+
+                public void setBounds(int x, int y, int width, int height) {
+                    super.setBounds(x, y, width, height);
+                    if (getFrameCount() == 10) {
+                        try {
+                            Thread.sleep(100);
+                        } catch (InterruptedException exception) {
+                            fail();
+                        }
+                    }
+                }
+            };
+            VirtualScheduler scheduler = new VirtualScheduler();
+            Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 1000);
+            note.setScheduler(scheduler);
+            note.animate();
+            scheduler.runUntilIdle(Long.MAX_VALUE);
+
+            assertEquals(1, reports.size());
+            StallReport report = reports.get(0);
+            assertSame(note, report.getNotification());
+            assertEquals(StallDetector.Callback.TIMING_EVENT, report.getCallback());
+            assertTrue(report.getDuration() >= 100);
+            assertTrue(report.getStackTrace().length > 0);
+            assertEquals(1, detector.getStallCount());
+        } finally {
+            Notification.setStallDetector(null);
+            detector.stop();
+        }
+    }
+
+}
@@ -0,0 +1,302 @@
+package com.github.jcarrierpigeon.tests;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import junit.framework.*;
+import net.sf.jcarrierpigeon.AnimationEffect;
+import net.sf.jcarrierpigeon.AnimationQuality;
+import net.sf.jcarrierpigeon.HeadlessWindowBackend;
+import net.sf.jcarrierpigeon.LoadGovernor;
+import net.sf.jcarrierpigeon.MotionPreference;
+import net.sf.jcarrierpigeon.Notification;
+import net.sf.jcarrierpigeon.NotificationHandle;
+import net.sf.jcarrierpigeon.NotificationQueue;
+import net.sf.jcarrierpigeon.NotificationQueueMetrics;
+import net.sf.jcarrierpigeon.VirtualScheduler;
+import net.sf.jcarrierpigeon.WindowPosition;
+
+/**
+ *
+ * @author Paulo Roberto Massa Cereda
+ * @email cereda DOT paulo AT gmail DOT com
+ */
+public class VirtualTimeTest extends TestCase {
+
+    private Notification create(HeadlessWindowBackend window, int duration) {
+        Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, duration);
+        note.setAnimationSpeed(500);
+        return note;
+    }
+
+    public void testSingleLifecycle() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+        Notification note = create(window, 1000);
+        note.setScheduler(scheduler);
+        note.animate();
+
+        assertEquals(2000, scheduler.runUntilIdle(Long.MAX_VALUE));
+        assertTrue(window.isDisposed());
+        assertFalse(note.isRunning());
+        // the display frames leave the window where it is
+        assertEquals(50, window.getFrameCount());
+        assertEquals(1080 - (100 + 25), window.getY(24));
+        assertTrue(window.getY(25) > window.getY(24));
+        assertEquals(1080, window.getLastY());
+    }
+
+    public void testFrameRateCap() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+        Notification note = create(window, 1000);
+        note.setFrameRate(10);
+        note.setScheduler(scheduler);
+        note.animate();
+
+        scheduler.advance(500);
+        assertEquals(5, window.getFrameCount());
+        assertEquals(1080 - (100 + 25), window.getLastY());
+
+        scheduler.advance(300);
+        assertEquals(10f, note.getEffectiveFrameRate(), 0.5f);
+
+        assertEquals(1200, scheduler.runUntilIdle(Long.MAX_VALUE));
+        assertEquals(1080, window.getLastY());
+    }
+
+    public void testDegradedQuality() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        LoadGovernor governor = scheduler.getLoadGovernor();
+        long time = 0;
+        for (int i = 0; i < 13; i++) {
+            time += 100000000L;
+            governor.record(time, 100000000L);
+        }
+        assertEquals(AnimationQuality.SUPPRESSED, governor.getQuality());
+
+        HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+        Notification note = create(window, 1000);
+        note.setScheduler(scheduler);
+        note.animate();
+        scheduler.advance(20);
+        assertEquals(AnimationQuality.SUPPRESSED, note.getAnimationQuality());
+        assertEquals(1080 - (100 + 25), window.getLastY());
+
+        for (int i = 0; i < 250; i++) {
+            time += 20000000L;
+            governor.record(time, 20000000L);
+        }
+        assertEquals(AnimationQuality.FADE, governor.getQuality());
+    }
+
+    public void testIdleRecovery() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        LoadGovernor governor = scheduler.getLoadGovernor();
+        long time = 0;
+        for (int i = 0; i < 13; i++) {
+            time += 100000000L;
+            governor.record(time, 100000000L);
+        }
+        governor.idle(time);
+        assertEquals(AnimationQuality.SUPPRESSED, governor.getQuality());
+
+        // one step up for each two seconds of the virtual clock spent idle
+        scheduler.advance(1300 + 4100);
+        assertEquals(AnimationQuality.FADE, governor.getQuality());
+        scheduler.advance(2000);
+        assertEquals(AnimationQuality.REDUCED, governor.getQuality());
+    }
+
+    public void testFadeEffect() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+        Notification note = create(window, 1000);
+        note.setAnimationEffect(AnimationEffect.FADE);
+        note.setScheduler(scheduler);
+        note.animate();
+
+        scheduler.advance(260);
+        assertEquals(1, window.getFrameCount());
+        assertEquals(1080 - (100 + 25), window.getLastY());
+        assertEquals(0.5f, window.getOpacity(), 0.05f);
+
+        assertEquals(1740, scheduler.runUntilIdle(Long.MAX_VALUE));
+        assertEquals(1, window.getFrameCount());
+        assertTrue(window.isDisposed());
+
+        HeadlessWindowBackend opaque = new HeadlessWindowBackend(300, 100);
+        opaque.setTranslucencySupported(false);
+        note = create(opaque, 1000);
+        note.setAnimationEffect(AnimationEffect.FADE);
+        note.setScheduler(scheduler);
+        note.animate();
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        assertEquals(50, opaque.getFrameCount());
+    }
+
+    public void testReducedMotion() {
+        Notification.setMotionPreference(MotionPreference.REDUCED);
+        try {
+            VirtualScheduler scheduler = new VirtualScheduler();
+            HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+            Notification note = create(window, 1000);
+            note.setScheduler(scheduler);
+            note.animate();
+            scheduler.advance(250);
+            assertEquals(0.5f, window.getOpacity(), 0.01f);
+            scheduler.runUntilIdle(Long.MAX_VALUE);
+            assertEquals(1, window.getFrameCount());
+
+            HeadlessWindowBackend opaque = new HeadlessWindowBackend(300, 100);
+            opaque.setTranslucencySupported(false);
+            note = create(opaque, 1000);
+            note.setScheduler(scheduler);
+            note.animate();
+            assertEquals(1002, scheduler.runUntilIdle(Long.MAX_VALUE));
+            assertEquals(2, opaque.getFrameCount());
+        } finally {
+            Notification.setMotionPreference(MotionPreference.AUTO);
+        }
+    }
+
+    public void testAllocationFreeFrames() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        long id = Thread.currentThread().getId();
+
+        // the first round warms up the frame path
+        VirtualScheduler scheduler = new VirtualScheduler();
+        long[] allocated = new long[2];
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 50; i++) {
+                HeadlessWindowBackend window = new HeadlessWindowBackend(300, 100);
+                window.setRecording(false);
+                Notification note = new Notification(window, WindowPosition.BOTTOMRIGHT, 25, 25, 100000);
+                note.setAnimationSpeed(5000);
+                note.setScheduler(scheduler);
+                note.animate();
+            }
+            scheduler.advance(100);
+            long before = threads.getThreadAllocatedBytes(id);
+            scheduler.advance(2000);
+            long middle = threads.getThreadAllocatedBytes(id);
+            scheduler.advance(2000);
+            long after = threads.getThreadAllocatedBytes(id);
+            allocated[0] = middle - before;
+            allocated[1] = after - middle;
+            scheduler.runUntilIdle(Long.MAX_VALUE);
+        }
+
+        // a hundred frames of fifty animations, each phase
+        assertTrue("show phase allocated " + allocated[0], allocated[0] < 1024);
+        assertTrue("display phase allocated " + allocated[1], allocated[1] < 1024);
+    }
+
+    public void testAdaptiveDuration() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        NotificationQueue queue = new NotificationQueue(scheduler);
+        queue.setAdaptiveDuration(true);
+        queue.setMaximumDrainTime(12000);
+        for (int i = 0; i < 10; i++) {
+            queue.add(create(new HeadlessWindowBackend(300, 100), 5000));
+        }
+
+        // the first one is shown right away, with no backlog
+        NotificationQueueMetrics metrics = queue.getMetrics();
+        assertEquals(1, metrics.getLastBacklog());
+        assertEquals(5000, metrics.getLastEffectiveDuration());
+        assertEquals(500, metrics.getLastEffectiveAnimationSpeed());
+
+        // nine left, counting the one being shown, each with a budget
+        // of 12000 / 9 = 1333 ms out of 6000 ms, so a scale of 0.222
+        scheduler.advance(6100);
+        assertEquals(2, metrics.getDisplayedCount());
+        assertEquals(9, metrics.getLastBacklog());
+        assertEquals(0.222, metrics.getLastScale(), 0.001);
+        assertEquals(1111, metrics.getLastEffectiveDuration());
+        assertEquals(111, metrics.getLastEffectiveAnimationSpeed());
+
+        // a shorter drain time hits the floors
+        queue.setMaximumDrainTime(4000);
+        scheduler.advance(1400);
+        assertEquals(3, metrics.getDisplayedCount());
+        assertEquals(8, metrics.getLastBacklog());
+        assertEquals(1000, metrics.getLastEffectiveDuration());
+        assertEquals(100, metrics.getLastEffectiveAnimationSpeed());
+
+        // without the adaptive mode, the nominal durations are kept
+        queue.setAdaptiveDuration(false);
+        scheduler.advance(1300);
+        assertEquals(4, metrics.getDisplayedCount());
+        assertEquals(7, metrics.getLastBacklog());
+        assertEquals(1.0, metrics.getLastScale(), 0.0);
+        assertEquals(5000, metrics.getLastEffectiveDuration());
+        assertEquals(500, metrics.getLastEffectiveAnimationSpeed());
+    }
+
+    public void testThousandLifecycles() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        NotificationQueue queue = new NotificationQueue(scheduler);
+        HeadlessWindowBackend[] windows = new HeadlessWindowBackend[1000];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = new HeadlessWindowBackend(300, 100);
+            windows[i].setRecording(false);
+            queue.add(create(windows[i], 5000));
+        }
+
+        long elapsed = scheduler.runUntilIdle(Long.MAX_VALUE);
+        assertTrue(elapsed >= 1000L * 6000);
+        assertTrue(scheduler.isIdle());
+        assertEquals(1000, queue.getMetrics().getDisplayedCount());
+        for (int i = 0; i < windows.length; i++) {
+            assertTrue(windows[i].isDisposed());
+        }
+    }
+
+    public void testExpiry() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        NotificationQueue queue = new NotificationQueue(scheduler);
+        for (int i = 0; i < 5; i++) {
+            Notification note = create(new HeadlessWindowBackend(300, 100), 5000);
+            note.setTimeToLive(10000);
+            queue.add(note);
+        }
+
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        assertEquals(2, queue.getMetrics().getDisplayedCount());
+        assertEquals(3, queue.getMetrics().getExpiredCount());
+    }
+
+    public void testDeadlineChangedWhileQueued() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        NotificationQueue queue = new NotificationQueue(scheduler);
+        queue.add(create(new HeadlessWindowBackend(300, 100), 5000));
+        Notification first = create(new HeadlessWindowBackend(300, 100), 5000);
+        first.setTimeToLive(50000);
+        Notification second = create(new HeadlessWindowBackend(300, 100), 5000);
+        second.setTimeToLive(60000);
+        Notification third = create(new HeadlessWindowBackend(300, 100), 5000);
+        NotificationHandle firstHandle = queue.add(first);
+        NotificationHandle secondHandle = queue.add(second);
+        NotificationHandle thirdHandle = queue.add(third);
+
+        // one moves ahead of the heap, the other had no deadline at all
+        second.setTimeToLive(2000);
+        third.setTimeToLive(2500);
+        scheduler.advance(3000);
+        assertTrue(firstHandle.isQueued());
+        assertFalse(secondHandle.isQueued());
+        assertFalse(thirdHandle.isQueued());
+        assertEquals(2, queue.getMetrics().getExpiredCount());
+
+        // and it may go away again
+        first.setDeadline(Long.MAX_VALUE);
+        scheduler.runUntilIdle(Long.MAX_VALUE);
+        assertEquals(2, queue.getMetrics().getDisplayedCount());
+        assertEquals(2, queue.getMetrics().getExpiredCount());
+    }
+
+}